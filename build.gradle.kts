@@ -1,3 +1,15 @@
+// GraalVM native image（-Pnative）需要的 plugin 只在啟用時才下載
+buildscript {
+    if (project.hasProperty("native")) {
+        repositories {
+            gradlePluginPortal()
+        }
+        dependencies {
+            classpath("org.graalvm.buildtools:native-gradle-plugin:0.10.4")
+        }
+    }
+}
+
 plugins {
     java
     id("org.springframework.boot") version "3.4.3"
@@ -46,6 +58,12 @@ dependencies {
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
 
+    // Cache
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    // 轉送給後端的簽章身分標頭，後端以同一個模組驗證
+    implementation(project(":identity-verifier"))
+
     // Lombok
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
@@ -57,9 +75,6 @@ dependencies {
 
     // Swagger
     implementation("org.springdoc:springdoc-openapi-starter-webflux-ui:2.7.0")
-
-    // openfeign
-    implementation ("org.springframework.cloud:spring-cloud-starter-openfeign")
 }
 
 dependencyManagement {
@@ -72,6 +87,67 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// JMH 效能測試（src/jmh），執行：gradle jmh [-Pjmh.includes=JwtAuthFilter] [-Pjmh.args="-f 1 -wi 2"]
+// 輸出吞吐量與配置率（-prof gc），結果寫入 build/reports/jmh/results.json 供前後比較
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhImplementation"("org.springframework:spring-test")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks in src/jmh"
+    classpath = jmh.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    val includes = providers.gradleProperty("jmh.includes").orElse(".*Benchmark.*")
+    val extraArgs = providers.gradleProperty("jmh.args").orElse("")
+    doFirst {
+        resultFile.get().asFile.parentFile.mkdirs()
+    }
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(includes.get(), "-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath) +
+                extraArgs.get().split(" ").filter { it.isNotBlank() }
+    })
+}
+
+// 端對端壓力測試（src/loadtest）：以 local profile 啟動閘道與本機 stub 後端，執行：gradle loadTest [-Ploadtest.args="--mode=open --rate=2000"]
+// 輸出吞吐量、p50/p99/p999 延遲與 GC/配置統計，結果寫入 build/reports/loadtest/results.json
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    "loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the end-to-end load test against local stub backends"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.acenexus.tata.gatewayservice.loadtest.LoadTestMain"
+    jvmArgs("-Xms1g", "-Xmx1g")
+    val resultFile = layout.buildDirectory.file("reports/loadtest/results.json")
+    val extraArgs = providers.gradleProperty("loadtest.args").orElse("")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("--result-file=" + resultFile.get().asFile.absolutePath) +
+                extraArgs.get().split(" ").filter { it.isNotBlank() }
+    })
+}
+
 // 禁用標準 jar 任務
 tasks.jar {
     enabled = false
@@ -80,4 +156,81 @@ tasks.jar {
 // 保持 bootJar 任務可用
 tasks.bootJar {
     enabled = true
-}
\ No newline at end of file
+}
+
+// 快速啟動建置
+// -Paot：Spring AOT 在建置時產生 bean 定義，bootJar 以 -Dspring.aot.enabled=true 執行時略過組態類別掃描與條件判斷
+// -Pnative：再以 GraalVM 編譯為 native image（gradle nativeCompile，需要 GraalVM JDK），反射提示見 NativeHints
+// Spring Cloud 的 bootstrap context 無法被 AOT 擷取，兩者都移除 spring-cloud-starter-bootstrap，
+// 改由主 context 直接讀取 bootstrap*.yml（見 GatewayserviceApplication）；AOT 會固定建置時的 profile，預設 local，可用 -Paot.profiles=prod 指定
+val aotBuild = providers.gradleProperty("aot").isPresent || providers.gradleProperty("native").isPresent
+if (aotBuild) {
+    apply(plugin = "org.springframework.boot.aot")
+    if (hasProperty("native")) {
+        apply(plugin = "org.graalvm.buildtools.native")
+    }
+    configurations.matching { it.name in setOf("runtimeClasspath", "productionRuntimeClasspath", "processAotClasspath", "aotCompileClasspath", "aotRuntimeClasspath") }.configureEach {
+        exclude(group = "org.springframework.cloud", module = "spring-cloud-starter-bootstrap")
+    }
+    tasks.named<JavaExec>("processAot") {
+        systemProperty("spring.profiles.active", providers.gradleProperty("aot.profiles").getOrElse("local"))
+    }
+}
+
+// CDS（class data sharing）：將 bootJar 解開後以 training run 產生 build/cds/application.jsa，
+// 執行時加上 -XX:SharedArchiveFile=application.jsa 直接載入已解析的類別；JDK 與 jar 內容變更後需重新產生
+val javaLauncher = javaToolchains.launcherFor(java.toolchain)
+val cdsDir = layout.buildDirectory.dir("cds")
+val aotJvmArgs = if (aotBuild) listOf("-Dspring.aot.enabled=true") else emptyList()
+
+val extractBootJar by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Extracts the boot jar into build/cds for class data sharing"
+    dependsOn(tasks.bootJar)
+    inputs.file(tasks.bootJar.flatMap { it.archiveFile })
+    outputs.dir(cdsDir)
+    doFirst {
+        delete(cdsDir)
+    }
+    executable = javaLauncher.get().executablePath.asFile.absolutePath
+    args("-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath,
+        "extract", "--destination", cdsDir.get().asFile.absolutePath)
+}
+
+tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Creates a CDS archive from a training run of the extracted boot jar"
+    dependsOn(extractBootJar)
+    workingDir(cdsDir)
+    executable = javaLauncher.get().executablePath.asFile.absolutePath
+    // spring.context.exit=onRefresh：context 完成 refresh 後即結束，不需要實際的 Config Server 或 Eureka
+    args(listOf("-XX:ArchiveClassesAtExit=application.jsa", "-Xlog:cds=error", "-Dspring.context.exit=onRefresh") + aotJvmArgs +
+            listOf("-jar", "gatewayservice.jar"))
+}
+
+// 啟動時間量測：gradle startupBenchmark [-Paot] [-Pstartup.runs=5]
+// 依序啟動各版本（jar、jar + CDS，-Paot 時為 AOT 版本，-Pnative 時另含 native image），
+// 記錄從啟動到第一個轉送請求成功的時間與當時的 RSS，結果寫入 build/reports/startup/results-<jvm|aot>.json
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "verification"
+    description = "Measures time to first proxied request and RSS of each startup variant"
+    dependsOn("cdsArchive")
+    if (hasProperty("native")) {
+        dependsOn("nativeCompile")
+    }
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.acenexus.tata.gatewayservice.loadtest.StartupBenchmark"
+    val java = javaLauncher.get().executablePath.asFile.absolutePath
+    val mode = if (aotBuild) "aot" else "jvm"
+    val resultFile = layout.buildDirectory.file("reports/startup/results-$mode.json")
+    val runs = providers.gradleProperty("startup.runs").orElse("3")
+    argumentProviders.add(CommandLineArgumentProvider {
+        val variants = mutableListOf(
+            "--variant=$mode=" + (listOf(java) + aotJvmArgs + listOf("-jar", "gatewayservice.jar")).joinToString(" "),
+            "--variant=$mode+cds=" + (listOf(java, "-XX:SharedArchiveFile=application.jsa") + aotJvmArgs + listOf("-jar", "gatewayservice.jar")).joinToString(" "))
+        if (hasProperty("native")) {
+            variants += "--variant=native=" + layout.buildDirectory.file("native/nativeCompile/gatewayservice").get().asFile.absolutePath
+        }
+        variants + listOf("--working-dir=" + cdsDir.get().asFile.absolutePath, "--runs=" + runs.get(), "--result-file=" + resultFile.get().asFile.absolutePath)
+    })
+}
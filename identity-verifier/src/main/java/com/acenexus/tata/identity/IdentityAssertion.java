@@ -0,0 +1,17 @@
+package com.acenexus.tata.identity;
+
+/**
+ * 閘道驗證 JWT 後簽發的身分資訊
+ *
+ * @param subject   使用者 ID（JWT 的 sub）
+ * @param userName  使用者名稱，JWT 沒有此欄位時為空字串
+ * @param expiresAt 到期時間（epoch seconds），不晚於原始 JWT 的 exp
+ * @param keyId     簽章金鑰 ID
+ */
+public record IdentityAssertion(String subject, String userName, long expiresAt, int keyId) {
+
+    /**
+     * 轉送請求時攜帶身分資訊的標頭
+     */
+    public static final String HEADER = "X-Identity-Assertion";
+}
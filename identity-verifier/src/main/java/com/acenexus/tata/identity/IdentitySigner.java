@@ -0,0 +1,69 @@
+package com.acenexus.tata.identity;
+
+import javax.crypto.Mac;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 簽發身分標頭，由閘道使用；格式見 {@link AssertionFormat}
+ * 執行緒安全。
+ */
+public final class IdentitySigner {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final int keyId;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * @param keyId  0~255，寫入標頭供驗證端選擇金鑰
+     * @param secret 至少 256 bits，需與驗證端相同
+     */
+    public IdentitySigner(int keyId, byte[] secret) {
+        this.keyId = keyId;
+        this.macs = AssertionFormat.macs(keyId, secret);
+    }
+
+    /**
+     * @param userName  可為 null，以空字串簽發
+     * @param expiresAt 到期時間（epoch seconds）
+     */
+    public String sign(String subject, String userName, long expiresAt) {
+        if (expiresAt < 0 || expiresAt > AssertionFormat.MAX_EXPIRES_AT) {
+            throw new IllegalArgumentException("Expiration out of range: " + expiresAt);
+        }
+        byte[] subjectBytes = utf8(subject, "subject");
+        byte[] userNameBytes = utf8((userName != null) ? userName : "", "userName");
+        int payloadLength = AssertionFormat.FIXED_LENGTH + 2 + subjectBytes.length + 2 + userNameBytes.length;
+        byte[] assertion = new byte[payloadLength + AssertionFormat.MAC_LENGTH];
+        ByteBuffer.wrap(assertion)
+                .put(AssertionFormat.VERSION)
+                .put((byte) keyId)
+                .putInt((int) expiresAt)
+                .putShort((short) subjectBytes.length)
+                .put(subjectBytes)
+                .putShort((short) userNameBytes.length)
+                .put(userNameBytes);
+
+        Mac mac = macs.get();
+        mac.update(assertion, 0, payloadLength);
+        System.arraycopy(mac.doFinal(), 0, assertion, payloadLength, AssertionFormat.MAC_LENGTH);
+        return ENCODER.encodeToString(assertion);
+    }
+
+    public int keyId() {
+        return keyId;
+    }
+
+    private static byte[] utf8(String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > AssertionFormat.MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException(field + " exceeds " + AssertionFormat.MAX_FIELD_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+}
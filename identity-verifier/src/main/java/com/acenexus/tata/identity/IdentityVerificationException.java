@@ -0,0 +1,45 @@
+package com.acenexus.tata.identity;
+
+/**
+ * 身分標頭驗證失敗
+ * 每種失敗原因只有一個共用實例且不記錄 stack trace，驗證失敗時不需要額外配置物件
+ */
+public final class IdentityVerificationException extends RuntimeException {
+
+    public enum Reason {
+        MISSING("Missing identity assertion"),
+        MALFORMED("Malformed identity assertion"),
+        UNKNOWN_KEY("Unknown identity key"),
+        INVALID_SIGNATURE("Invalid identity assertion signature"),
+        EXPIRED("Identity assertion expired");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+    }
+
+    private static final IdentityVerificationException[] INSTANCES = new IdentityVerificationException[Reason.values().length];
+
+    static {
+        for (Reason reason : Reason.values()) {
+            INSTANCES[reason.ordinal()] = new IdentityVerificationException(reason);
+        }
+    }
+
+    private final Reason reason;
+
+    private IdentityVerificationException(Reason reason) {
+        super(reason.message, null, false, false);
+        this.reason = reason;
+    }
+
+    public static IdentityVerificationException of(Reason reason) {
+        return INSTANCES[reason.ordinal()];
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,114 @@
+package com.acenexus.tata.identity;
+
+import com.acenexus.tata.identity.IdentityVerificationException.Reason;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * 驗證閘道簽發的身分標頭，取代後端重新解析與驗證 JWT：
+ * <pre>
+ * IdentityVerifier verifier = new IdentityVerifier(Map.of(1, Base64.getDecoder().decode(secret)));
+ * IdentityAssertion identity = verifier.verify(request.getHeader(IdentityAssertion.HEADER));
+ * </pre>
+ * - 先比對 MAC 再解析內容，未通過驗證的資料不會被解讀
+ * - 金鑰輪替時同時設定新舊金鑰，閘道改用新金鑰簽發後再移除舊金鑰
+ * - 只驗證標頭是否由持有相同金鑰的閘道簽發且未過期；後端仍需確保請求只能經由閘道抵達
+ * 執行緒安全，建立一個實例重複使用即可。
+ */
+public final class IdentityVerifier {
+
+    /**
+     * 超過此長度的標頭不解碼直接拒絕
+     */
+    private static final int MAX_HEADER_LENGTH = 2048;
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @SuppressWarnings("unchecked")
+    private final ThreadLocal<Mac>[] keys = new ThreadLocal[AssertionFormat.MAX_KEY_ID + 1];
+
+    /**
+     * @param secrets key id（0~255）對應的密鑰，每把至少 256 bits
+     */
+    public IdentityVerifier(Map<Integer, byte[]> secrets) {
+        if (secrets.isEmpty()) {
+            throw new IllegalArgumentException("At least one identity key is required");
+        }
+        secrets.forEach((keyId, secret) -> keys[keyId] = AssertionFormat.macs(keyId, secret));
+    }
+
+    public IdentityAssertion verify(String header) {
+        return verify(header, System.currentTimeMillis());
+    }
+
+    /**
+     * @param nowMillis 判斷到期的目前時間（epoch millis）
+     * @throws IdentityVerificationException 標頭不存在、格式錯誤、金鑰未知、簽章不符或已過期
+     */
+    public IdentityAssertion verify(String header, long nowMillis) {
+        if (header == null || header.isEmpty()) {
+            throw IdentityVerificationException.of(Reason.MISSING);
+        }
+        if (header.length() > MAX_HEADER_LENGTH) {
+            throw IdentityVerificationException.of(Reason.MALFORMED);
+        }
+        byte[] assertion;
+        try {
+            assertion = DECODER.decode(header);
+        } catch (IllegalArgumentException e) {
+            throw IdentityVerificationException.of(Reason.MALFORMED);
+        }
+        if (assertion.length < AssertionFormat.MIN_LENGTH || assertion[0] != AssertionFormat.VERSION) {
+            throw IdentityVerificationException.of(Reason.MALFORMED);
+        }
+        int keyId = assertion[1] & 0xFF;
+        ThreadLocal<Mac> macs = keys[keyId];
+        if (macs == null) {
+            throw IdentityVerificationException.of(Reason.UNKNOWN_KEY);
+        }
+
+        int payloadLength = assertion.length - AssertionFormat.MAC_LENGTH;
+        Mac mac = macs.get();
+        mac.update(assertion, 0, payloadLength);
+        byte[] expected = mac.doFinal();
+        int diff = 0;
+        for (int i = 0; i < AssertionFormat.MAC_LENGTH; i++) {
+            diff |= expected[i] ^ assertion[payloadLength + i]; // 固定時間比對
+        }
+        if (diff != 0) {
+            throw IdentityVerificationException.of(Reason.INVALID_SIGNATURE);
+        }
+
+        long expiresAt = readInt(assertion, 2) & 0xFFFFFFFFL;
+        if (expiresAt * 1000 <= nowMillis) {
+            throw IdentityVerificationException.of(Reason.EXPIRED);
+        }
+        int offset = AssertionFormat.FIXED_LENGTH;
+        int subjectLength = readShort(assertion, offset);
+        offset += 2;
+        if (offset + subjectLength + 2 > payloadLength) {
+            throw IdentityVerificationException.of(Reason.MALFORMED);
+        }
+        String subject = new String(assertion, offset, subjectLength, StandardCharsets.UTF_8);
+        offset += subjectLength;
+        int userNameLength = readShort(assertion, offset);
+        offset += 2;
+        if (offset + userNameLength != payloadLength) {
+            throw IdentityVerificationException.of(Reason.MALFORMED);
+        }
+        String userName = new String(assertion, offset, userNameLength, StandardCharsets.UTF_8);
+        return new IdentityAssertion(subject, userName, expiresAt, keyId);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,85 @@
+package com.acenexus.tata.identity;
+
+import com.acenexus.tata.identity.IdentityVerificationException.Reason;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 身分標頭：簽發與驗證、竄改、金鑰與到期檢查
+ */
+class IdentityVerifierTest {
+
+	private static final byte[] SECRET = secret(1);
+	private static final long NOW = 1_800_000_000_000L;
+	private static final long EXPIRES_AT = NOW / 1000 + 300;
+
+	private final IdentitySigner signer = new IdentitySigner(1, SECRET);
+	private final IdentityVerifier verifier = new IdentityVerifier(Map.of(1, SECRET));
+
+	@Test
+	void verifiesSignedAssertion() {
+		String header = signer.sign("42", "王小明", EXPIRES_AT);
+
+		IdentityAssertion identity = verifier.verify(header, NOW);
+
+		assertEquals(new IdentityAssertion("42", "王小明", EXPIRES_AT, 1), identity);
+		assertTrue(header.length() < 64, header);
+	}
+
+	@Test
+	void signsMissingUserNameAsEmpty() {
+		assertEquals("", verifier.verify(signer.sign("42", null, EXPIRES_AT), NOW).userName());
+	}
+
+	@Test
+	void rejectsTamperedAssertion() {
+		byte[] bytes = Base64.getUrlDecoder().decode(signer.sign("42", "alice", EXPIRES_AT));
+		bytes[9] ^= 1; // subject 的第一個字元
+		String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+		assertReason(Reason.INVALID_SIGNATURE, tampered);
+		assertReason(Reason.INVALID_SIGNATURE, new IdentitySigner(1, secret(2)).sign("42", "alice", EXPIRES_AT));
+	}
+
+	@Test
+	void rejectsUnknownKeyExpiredAndMalformedAssertions() {
+		assertReason(Reason.UNKNOWN_KEY, new IdentitySigner(2, SECRET).sign("42", "alice", EXPIRES_AT));
+		assertReason(Reason.EXPIRED, signer.sign("42", "alice", NOW / 1000));
+		assertReason(Reason.MISSING, null);
+		assertReason(Reason.MALFORMED, "not base64!");
+		assertReason(Reason.MALFORMED, "AQE");
+		assertReason(Reason.MALFORMED, "x".repeat(4096));
+	}
+
+	@Test
+	void acceptsAssertionsFromEveryConfiguredKeyDuringRotation() {
+		IdentityVerifier rotating = new IdentityVerifier(Map.of(1, SECRET, 2, secret(2)));
+
+		assertEquals(1, rotating.verify(signer.sign("42", "alice", EXPIRES_AT), NOW).keyId());
+		assertEquals(2, rotating.verify(new IdentitySigner(2, secret(2)).sign("42", "alice", EXPIRES_AT), NOW).keyId());
+	}
+
+	@Test
+	void rejectsWeakSecrets() {
+		assertThrows(IllegalArgumentException.class, () -> new IdentitySigner(1, new byte[16]));
+		assertThrows(IllegalArgumentException.class, () -> new IdentitySigner(256, SECRET));
+	}
+
+	private void assertReason(Reason reason, String header) {
+		IdentityVerificationException e = assertThrows(IdentityVerificationException.class, () -> verifier.verify(header, NOW));
+		assertEquals(reason, e.getReason());
+	}
+
+	private static byte[] secret(int seed) {
+		byte[] secret = new byte[32];
+		Arrays.fill(secret, (byte) seed);
+		return secret;
+	}
+}
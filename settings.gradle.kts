@@ -1 +1,3 @@
 rootProject.name = "gatewayservice"
+
+include("identity-verifier")
@@ -0,0 +1,45 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 效能測試共用的 mock exchange 與 chain
+ * 每次呼叫都建立新的 exchange（回應只能寫一次），各 benchmark 以 newExchangeBaseline 扣除這部分成本
+ */
+final class BenchmarkExchanges {
+
+	static final GatewayFilterChain COMPLETING_CHAIN = exchange -> Mono.empty();
+
+	static final Route ROUTE = Route.async()
+			.id("accountservice")
+			.uri("http://localhost:8081")
+			.predicate(exchange -> true)
+			.build();
+
+	private static final URI TARGET = URI.create("http://localhost:8081/v1/user/profile");
+
+	private BenchmarkExchanges() {
+	}
+
+	static MockServerWebExchange get(String path, String authorization) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+				.header("X-Forwarded-For", "203.0.113.10");
+		if (authorization != null) {
+			request.header(HttpHeaders.AUTHORIZATION, authorization);
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+		exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, TARGET);
+		return exchange;
+	}
+}
@@ -0,0 +1,67 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.accesslog.AccessLogWriter;
+import com.acenexus.tata.gatewayservice.config.AccessLogProperties;
+import com.acenexus.tata.gatewayservice.config.MetricsProperties;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GatewayLoggerFilter.filter 的成本：延遲指標與存取日誌放入 ring buffer（ACCESS_LOG 輸出已關閉）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayLoggerFilterBenchmark {
+
+	private static final String PATH = "/api/account/v1/user/profile";
+
+	private GatewayLoggerFilter filter;
+	private AccessLogWriter accessLogWriter;
+
+	@Setup
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		accessLogWriter = new AccessLogWriter(new AccessLogProperties(), meterRegistry);
+		accessLogWriter.start();
+
+		filter = new GatewayLoggerFilter();
+		ReflectionTestUtils.setField(filter, "accessLogWriter", accessLogWriter);
+		ReflectionTestUtils.setField(filter, "gatewayMetrics", new GatewayMetrics(meterRegistry, new MetricsProperties()));
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		accessLogWriter.stop();
+	}
+
+	@Benchmark
+	public MockServerWebExchange newExchangeBaseline() {
+		return BenchmarkExchanges.get(PATH, null);
+	}
+
+	@Benchmark
+	public MockServerWebExchange filter() {
+		MockServerWebExchange exchange = BenchmarkExchanges.get(PATH, null);
+		filter.filter(exchange, BenchmarkExchanges.COMPLETING_CHAIN).block();
+		return exchange;
+	}
+}
@@ -0,0 +1,141 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.IdentityProperties;
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.config.MetricsProperties;
+import com.acenexus.tata.gatewayservice.config.SecurityProperties;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import com.acenexus.tata.gatewayservice.provider.IdentityAssertionIssuer;
+import com.acenexus.tata.gatewayservice.provider.JwtKey;
+import com.acenexus.tata.gatewayservice.provider.JwtKeyRing;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipalCache;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthFilter.filter 在各種請求下的成本（含建立 mock exchange，可用 newExchangeBaseline 扣除）
+ * cacheEnabled=false 時每次都重新驗證簽章，對應快取未命中的情況
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+	private static final String PROTECTED_PATH = "/api/account/v1/user/profile";
+	private static final String PUBLIC_PATH = "/api/gateway/v1/login";
+	private static final String MALFORMED_HEADER = "Bearer ' OR 1=1 --";
+
+	@Param({"true", "false"})
+	public boolean cacheEnabled;
+
+	private JwtAuthFilter filter;
+	private String validHeader;
+	private String expiredHeader;
+
+	@Setup
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		JwtKey key = JwtKey.hmac("bench", Keys.secretKeyFor(SignatureAlgorithm.HS256));
+		JwtKeyRing keyRing = JwtKeyRing.of(key);
+		JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(keyRing);
+
+		JwtProperties jwtProperties = new JwtProperties();
+		jwtProperties.getCache().setEnabled(cacheEnabled);
+
+		SecurityProperties securityProperties = new SecurityProperties();
+		securityProperties.setPublicPaths(List.of(
+				"/api/gateway/v1/login",
+				"/api/gateway/v1/refresh/token",
+				"/api/linebot/actuator/health/**",
+				"/api/linebot/webhook/**"));
+
+		filter = new JwtAuthFilter();
+		ReflectionTestUtils.setField(filter, "jwtTokenProvider", jwtTokenProvider);
+		ReflectionTestUtils.setField(filter, "jwtPrincipalCache", new JwtPrincipalCache(jwtProperties, keyRing, meterRegistry));
+		ReflectionTestUtils.setField(filter, "publicAccessRules", new PublicAccessRules(securityProperties, new MockEnvironment()));
+		ReflectionTestUtils.setField(filter, "gatewayMetrics", new GatewayMetrics(meterRegistry, new MetricsProperties()));
+		ReflectionTestUtils.setField(filter, "tokenRevocationList", new TokenRevocationList(jwtProperties, meterRegistry));
+		ReflectionTestUtils.setField(filter, "securityProperties", securityProperties);
+		ReflectionTestUtils.setField(filter, "authRejectionLog", new AuthRejectionLog(securityProperties, meterRegistry));
+		ReflectionTestUtils.setField(filter, "identityAssertionIssuer", new IdentityAssertionIssuer(new IdentityProperties(), jwtProperties, meterRegistry));
+
+		validHeader = "Bearer " + jwtTokenProvider.generateAccessToken(1001L, "tata");
+		expiredHeader = "Bearer " + signExpiredToken(key);
+	}
+
+	/**
+	 * 以相同金鑰簽發已過期的 Token
+	 */
+	private static String signExpiredToken(JwtKey key) {
+		long now = System.currentTimeMillis();
+		return Jwts.builder()
+				.setHeaderParam(JwsHeader.KEY_ID, key.id())
+				.claim("userName", "tata")
+				.setSubject("1001")
+				.setIssuedAt(new Date(now - TimeUnit.HOURS.toMillis(1)))
+				.setExpiration(new Date(now - TimeUnit.MINUTES.toMillis(30)))
+				.signWith(key.signingKey(), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	@Benchmark
+	public MockServerWebExchange newExchangeBaseline() {
+		return BenchmarkExchanges.get(PROTECTED_PATH, validHeader);
+	}
+
+	@Benchmark
+	public MockServerWebExchange validToken() {
+		return run(BenchmarkExchanges.get(PROTECTED_PATH, validHeader));
+	}
+
+	@Benchmark
+	public MockServerWebExchange missingHeader() {
+		return run(BenchmarkExchanges.get(PROTECTED_PATH, null));
+	}
+
+	@Benchmark
+	public MockServerWebExchange malformedToken() {
+		return run(BenchmarkExchanges.get(PROTECTED_PATH, MALFORMED_HEADER));
+	}
+
+	@Benchmark
+	public MockServerWebExchange expiredToken() {
+		return run(BenchmarkExchanges.get(PROTECTED_PATH, expiredHeader));
+	}
+
+	@Benchmark
+	public MockServerWebExchange excludedPath() {
+		return run(BenchmarkExchanges.get(PUBLIC_PATH, null));
+	}
+
+	private MockServerWebExchange run(MockServerWebExchange exchange) {
+		filter.filter(exchange, BenchmarkExchanges.COMPLETING_CHAIN).block();
+		return exchange;
+	}
+}
@@ -0,0 +1,60 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtTokenProvider 的簽發與驗證成本
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+	private JwtTokenProvider jwtTokenProvider;
+	private String accessToken;
+	private String refreshToken;
+
+	@Setup
+	public void setUp() {
+		jwtTokenProvider = new JwtTokenProvider(JwtKeyRing.of(JwtKey.hmac("bench", Keys.secretKeyFor(SignatureAlgorithm.HS256))));
+		accessToken = jwtTokenProvider.generateAccessToken(1001L, "tata");
+		refreshToken = jwtTokenProvider.generateRefreshToken(1001L, "tata");
+	}
+
+	@Benchmark
+	public String generateAccessToken() {
+		return jwtTokenProvider.generateAccessToken(1001L, "tata");
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return jwtTokenProvider.validateToken(accessToken);
+	}
+
+	@Benchmark
+	public Claims extractAllClaims() {
+		return jwtTokenProvider.extractAllClaims(accessToken);
+	}
+
+	@Benchmark
+	public String refreshAccessToken() {
+		return jwtTokenProvider.refreshAccessToken(refreshToken);
+	}
+}
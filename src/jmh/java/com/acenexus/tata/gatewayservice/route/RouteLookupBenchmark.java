@@ -0,0 +1,83 @@
+package com.acenexus.tata.gatewayservice.route;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由查詢時間與路由數量的關係：預設逐一比對 vs 路徑前綴索引
+ * 路由皆為 /api/svc{i}/**，請求命中最後一條路由（逐一比對的最差情況）；重複使用同一個 exchange，不計入建立成本
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int routeCount;
+
+	private IndexedRoutePredicateHandlerMapping linear;
+	private IndexedRoutePredicateHandlerMapping indexed;
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setUp() {
+		List<Route> routes = new ArrayList<>(routeCount);
+		PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+		for (int i = 0; i < routeCount; i++) {
+			PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config().setPatterns(List.of("/api/svc" + i + "/**"));
+			routes.add(Route.async().id("svc" + i).uri("lb://svc" + i).asyncPredicate(factory.applyAsync(config)).build());
+		}
+		linear = mapping(routes); // 未建立索引時使用 RoutePredicateHandlerMapping 原本的逐一比對
+		indexed = mapping(routes);
+		indexed.rebuildIndex().block();
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/svc" + (routeCount - 1) + "/v1/items"));
+	}
+
+	private static IndexedRoutePredicateHandlerMapping mapping(List<Route> routes) {
+		return new IndexedRoutePredicateHandlerMapping(new FilteringWebHandler(List.of(), false),
+				() -> Flux.fromIterable(routes),
+				() -> Flux.fromIterable(routes).map(route -> {
+					RouteDefinition definition = new RouteDefinition();
+					definition.setId(route.getId());
+					return definition;
+				}),
+				new GlobalCorsProperties(), new StandardEnvironment());
+	}
+
+	@Benchmark
+	public Route linearLookup() {
+		exchange.getAttributes().clear(); // 每次重新解析路徑，與實際請求相同
+		return linear.lookupRoute(exchange).block();
+	}
+
+	@Benchmark
+	public Route indexedLookup() {
+		exchange.getAttributes().clear();
+		return indexed.lookupRoute(exchange).block();
+	}
+}
@@ -0,0 +1,27 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * JVM 的 GC 與配置累計值，前後相減即為量測期間的數字
+ * 閘道、stub 與負載產生器在同一個 JVM，配置量包含三者，適合用來比較前後版本而非絕對值
+ */
+record JvmStats(long allocatedBytes, long gcCount, long gcTimeMillis) {
+
+	static JvmStats snapshot() {
+		long count = 0;
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		long allocated = (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+				? threads.getTotalThreadAllocatedBytes() : -1;
+		return new JvmStats(allocated, count, time);
+	}
+
+	JvmStats minus(JvmStats before) {
+		return new JvmStats(allocatedBytes - before.allocatedBytes, gcCount - before.gcCount, gcTimeMillis - before.gcTimeMillis);
+	}
+}
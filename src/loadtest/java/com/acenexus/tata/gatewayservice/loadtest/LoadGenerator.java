@@ -0,0 +1,142 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP 負載產生器
+ * - closed-loop：固定數量的並行請求，每個收到回應後才送下一個，量測系統在固定併發下的吞吐量
+ * - open-loop：依固定速率送出，與回應快慢無關；延遲從「預定送出時間」起算，避免 coordinated omission 低估尾端延遲
+ * 使用獨立的 event loop 與連線池，不與閘道共用執行緒。
+ */
+final class LoadGenerator implements AutoCloseable {
+
+	private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+	private final LoopResources loops;
+	private final ConnectionProvider connectionProvider;
+	private final HttpClient client;
+
+	LoadGenerator(String baseUrl, int maxConnections) {
+		this.loops = LoopResources.create("load-generator", Math.max(2, Runtime.getRuntime().availableProcessors() / 2), true);
+		this.connectionProvider = ConnectionProvider.builder("load-generator")
+				.maxConnections(maxConnections)
+				.pendingAcquireMaxCount(-1)
+				.build();
+		this.client = HttpClient.create(connectionProvider)
+				.runOn(loops)
+				.baseUrl(baseUrl)
+				.responseTimeout(RESPONSE_TIMEOUT);
+	}
+
+	RunResult closedLoop(Scenario scenario, int concurrency, Duration warmup, Duration duration) {
+		HttpClient scenarioClient = clientFor(scenario);
+		runClosed(scenarioClient, scenario, concurrency, warmup, new Recording());
+		Recording recording = new Recording();
+		recording.start();
+		runClosed(scenarioClient, scenario, concurrency, duration, recording);
+		return recording.finish("closed", scenario.name());
+	}
+
+	RunResult openLoop(Scenario scenario, int rate, int maxInFlight, Duration warmup, Duration duration) {
+		HttpClient scenarioClient = clientFor(scenario);
+		runOpen(scenarioClient, scenario, rate, maxInFlight, warmup, new Recording());
+		Recording recording = new Recording();
+		recording.start();
+		runOpen(scenarioClient, scenario, rate, maxInFlight, duration, recording);
+		return recording.finish("open", scenario.name());
+	}
+
+	/**
+	 * 送出一次請求並取得回應內容，供準備階段（例如登入取得 Token）使用
+	 */
+	String fetch(Scenario scenario) {
+		return clientFor(scenario)
+				.request(scenario.method())
+				.uri(scenario.uri())
+				.send((request, outbound) -> (scenario.body() != null)
+						? outbound.send(Mono.just(Unpooled.wrappedBuffer(scenario.body())))
+						: outbound)
+				.responseSingle((response, body) -> body.asString())
+				.block(RESPONSE_TIMEOUT);
+	}
+
+	private void runClosed(HttpClient scenarioClient, Scenario scenario, int concurrency, Duration duration, Recording recording) {
+		long endNanos = System.nanoTime() + duration.toNanos();
+		Flux.range(0, concurrency)
+				.flatMap(worker -> Mono.defer(() -> {
+							long startNanos = System.nanoTime();
+							return send(scenarioClient, scenario)
+									.doOnNext(status -> recording.record(status, System.nanoTime() - startNanos))
+									.onErrorResume(e -> {
+										recording.error(System.nanoTime() - startNanos);
+										return Mono.empty();
+									})
+									.then();
+						})
+						.repeat(() -> System.nanoTime() < endNanos), concurrency)
+				.blockLast();
+	}
+
+	private void runOpen(HttpClient scenarioClient, Scenario scenario, int rate, int maxInFlight, Duration duration, Recording recording) {
+		AtomicInteger inFlight = new AtomicInteger();
+		double periodNanos = 1_000_000_000.0 / rate;
+		long startNanos = System.nanoTime();
+		long endNanos = startNanos + duration.toNanos();
+		for (long i = 0; ; i++) {
+			long intendedNanos = startNanos + (long) (i * periodNanos);
+			if (intendedNanos >= endNanos) {
+				break;
+			}
+			long now;
+			while ((now = System.nanoTime()) < intendedNanos) {
+				LockSupport.parkNanos(intendedNanos - now);
+			}
+			if (inFlight.get() >= maxInFlight) {
+				recording.saturated();
+				continue;
+			}
+			inFlight.incrementAndGet();
+			send(scenarioClient, scenario).subscribe(
+					status -> recording.record(status, System.nanoTime() - intendedNanos),
+					e -> {
+						recording.error(System.nanoTime() - intendedNanos);
+						inFlight.decrementAndGet();
+					},
+					inFlight::decrementAndGet);
+		}
+		// 等待剩餘請求完成
+		long deadline = System.nanoTime() + RESPONSE_TIMEOUT.toNanos();
+		while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+
+	private HttpClient clientFor(Scenario scenario) {
+		return client.headers(headers -> scenario.headers().forEach(headers::set));
+	}
+
+	private static Mono<Integer> send(HttpClient scenarioClient, Scenario scenario) {
+		HttpClient.RequestSender sender = scenarioClient.request(scenario.method()).uri(scenario.uri());
+		HttpClient.ResponseReceiver<?> receiver = (scenario.body() != null)
+				? sender.send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(scenario.body())))
+				: sender;
+		// 回應內容只需讀完釋放，不需保留
+		return receiver.response((response, body) -> body.then(Mono.just(response.status().code()))).single();
+	}
+
+	@Override
+	public void close() {
+		connectionProvider.disposeLater().block();
+		loops.disposeLater().block();
+	}
+}
@@ -0,0 +1,106 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import com.acenexus.tata.gatewayservice.GatewayserviceApplication;
+import com.acenexus.tata.gatewayservice.dto.LoginResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 端對端壓力測試
+ * 以 local profile 啟動 GatewayserviceApplication，accountservice 由本機 stub 取代（bootstrap-local.yml 的 8081），
+ * 依序對每個情境執行 closed-loop / open-loop 量測，輸出吞吐量、p50/p99/p999 延遲與 GC/配置統計。
+ * 所有請求來自同一個 IP，預設關閉限流；要量測限流本身可加上 --gateway.rate-limit.enabled=true。
+ * refresh 情境重複使用同一個 Refresh Token，因此關閉撤銷清單，否則第二次之後都會因重複使用而被拒絕。
+ */
+public final class LoadTestMain {
+
+	/**
+	 * bootstrap-local.yml 中 accountservice 路由與服務發現使用的埠號
+	 */
+	private static final int ACCOUNT_SERVICE_PORT = 8081;
+
+	private LoadTestMain() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		LoadTestOptions options = LoadTestOptions.parse(args);
+		List<RunResult> results = new ArrayList<>();
+
+		try (StubBackends ignored = new StubBackends(ACCOUNT_SERVICE_PORT, options.backendLatency(), options.payloadBytes());
+			 ConfigurableApplicationContext gateway = startGateway(options);
+			 LoadGenerator generator = new LoadGenerator("http://localhost:" + options.gatewayPort(),
+					 Math.max(options.concurrency(), 1024))) {
+
+			LoginResponse login = new ObjectMapper().readValue(generator.fetch(Scenario.login()), LoginResponse.class);
+			Map<String, Scenario> scenarios = Map.of(
+					"proxy", Scenario.proxy(login.getToken()),
+					"login", Scenario.login(),
+					"refresh", Scenario.refresh(login.getRefreshToken()));
+
+			System.out.printf("%nLoad test: warmup=%s duration=%s concurrency=%d rate=%d/s backend-latency=%s payload=%dB%n",
+					options.warmup(), options.duration(), options.concurrency(), options.rate(),
+					options.backendLatency(), options.payloadBytes());
+			System.out.println(RunResult.tableHeader());
+			for (String mode : options.modes()) {
+				for (String name : options.scenarios()) {
+					Scenario scenario = scenarios.get(name);
+					if (scenario == null) {
+						throw new IllegalArgumentException("Unknown scenario: " + name);
+					}
+					RunResult result = switch (mode) {
+						case "closed" -> generator.closedLoop(scenario, options.concurrency(), options.warmup(), options.duration());
+						case "open" -> generator.openLoop(scenario, options.rate(), options.maxInFlight(), options.warmup(), options.duration());
+						default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+					};
+					results.add(result);
+					System.out.println(result.toTableRow());
+				}
+			}
+		}
+
+		writeResults(Path.of(options.resultFile()), options, results);
+	}
+
+	private static ConfigurableApplicationContext startGateway(LoadTestOptions options) {
+		// 後面的設定覆寫前面的同名設定
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("spring.profiles.active", "local");
+		properties.put("server.port", String.valueOf(options.gatewayPort()));
+		properties.put("gateway.rate-limit.enabled", "false");
+		properties.put("gateway.jwt.revocation.enabled", "false");
+		properties.put("logging.level.ACCESS_LOG", "WARN"); // 存取日誌仍會寫入 ring buffer，只是不輸出至 console
+		for (String arg : options.gatewayArgs()) {
+			int eq = arg.indexOf('=');
+			properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+		}
+		String[] args = properties.entrySet().stream()
+				.map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+				.toArray(String[]::new);
+		return new SpringApplicationBuilder(GatewayserviceApplication.class).run(args);
+	}
+
+	private static void writeResults(Path file, LoadTestOptions options, List<RunResult> results) throws IOException {
+		String json = String.format(Locale.ROOT,
+				"{\"warmupSeconds\":%d,\"durationSeconds\":%d,\"concurrency\":%d,\"rate\":%d,\"backendLatencyMillis\":%d,\"payloadBytes\":%d,\"results\":[%s]}%n",
+				options.warmup().toSeconds(), options.duration().toSeconds(), options.concurrency(), options.rate(),
+				options.backendLatency().toMillis(), options.payloadBytes(),
+				results.stream().map(RunResult::toJson).collect(Collectors.joining(",")));
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		Files.writeString(file, json, StandardCharsets.UTF_8);
+		System.out.println("Results written to " + file.toAbsolutePath());
+	}
+}
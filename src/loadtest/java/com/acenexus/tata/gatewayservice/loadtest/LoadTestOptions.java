@@ -0,0 +1,73 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 壓力測試參數，格式為 --key=value；無法辨識的參數原樣傳給閘道（例如 --gateway.rate-limit.enabled=true）
+ *
+ * @param modes          closed、open 或兩者
+ * @param scenarios      proxy（帶 Token 轉送至 accountservice）、login、refresh
+ * @param warmup         每個情境正式量測前的暖機時間
+ * @param duration       每個情境的量測時間
+ * @param concurrency    closed-loop 的並行連線數，每條連線收到回應才送出下一個請求
+ * @param rate           open-loop 每秒送出的請求數，與回應速度無關
+ * @param maxInFlight    open-loop 未完成請求上限，超過時記為 saturated
+ * @param backendLatency stub 後端的回應延遲
+ * @param payloadBytes   stub 後端 proxy 情境的回應大小
+ * @param gatewayPort    閘道埠號（bootstrap.yml 的 server.port）
+ * @param resultFile     JSON 結果檔
+ * @param gatewayArgs    傳給閘道的其他參數
+ */
+record LoadTestOptions(List<String> modes, List<String> scenarios, Duration warmup, Duration duration,
+					   int concurrency, int rate, int maxInFlight, Duration backendLatency, int payloadBytes,
+					   int gatewayPort, String resultFile, List<String> gatewayArgs) {
+
+	static LoadTestOptions parse(String[] args) {
+		List<String> modes = List.of("closed", "open");
+		List<String> scenarios = List.of("proxy", "login", "refresh");
+		Duration warmup = Duration.ofSeconds(10);
+		Duration duration = Duration.ofSeconds(30);
+		int concurrency = 64;
+		int rate = 2000;
+		int maxInFlight = 10_000;
+		Duration backendLatency = Duration.ofMillis(5);
+		int payloadBytes = 1024;
+		int gatewayPort = 8080;
+		String resultFile = "build/reports/loadtest/results.json";
+		List<String> gatewayArgs = new ArrayList<>();
+
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (!arg.startsWith("--") || eq < 0) {
+				throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+			}
+			String key = arg.substring(2, eq);
+			String value = arg.substring(eq + 1);
+			switch (key) {
+				case "mode" -> modes = split(value);
+				case "scenarios" -> scenarios = split(value);
+				case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+				case "duration" -> duration = DurationStyle.detectAndParse(value);
+				case "concurrency" -> concurrency = Integer.parseInt(value);
+				case "rate" -> rate = Integer.parseInt(value);
+				case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+				case "backend-latency" -> backendLatency = DurationStyle.detectAndParse(value);
+				case "payload-bytes" -> payloadBytes = Integer.parseInt(value);
+				case "gateway-port" -> gatewayPort = Integer.parseInt(value);
+				case "result-file" -> resultFile = value;
+				default -> gatewayArgs.add(arg);
+			}
+		}
+		return new LoadTestOptions(modes, scenarios, warmup, duration, concurrency, rate, maxInFlight,
+				backendLatency, payloadBytes, gatewayPort, resultFile, List.copyOf(gatewayArgs));
+	}
+
+	private static List<String> split(String value) {
+		return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+	}
+}
@@ -0,0 +1,72 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 單一階段的量測紀錄，可由多個執行緒同時寫入
+ */
+final class Recording {
+
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+	private final LongAdder[] statusClasses = new LongAdder[5];
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder saturated = new LongAdder();
+	private long startNanos;
+	private JvmStats startStats;
+
+	Recording() {
+		for (int i = 0; i < statusClasses.length; i++) {
+			statusClasses[i] = new LongAdder();
+		}
+	}
+
+	void start() {
+		startStats = JvmStats.snapshot();
+		startNanos = System.nanoTime();
+	}
+
+	void record(int status, long latencyNanos) {
+		latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+		int index = status / 100 - 1;
+		statusClasses[(index < 0 || index > 4) ? 4 : index].increment();
+	}
+
+	/**
+	 * 連線錯誤或逾時，延遲仍列入統計
+	 */
+	void error(long latencyNanos) {
+		latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+		errors.increment();
+	}
+
+	/**
+	 * open-loop 未完成請求已達上限，該請求未送出
+	 */
+	void saturated() {
+		saturated.increment();
+	}
+
+	RunResult finish(String mode, String scenario) {
+		long elapsedNanos = System.nanoTime() - startNanos;
+		JvmStats jvm = JvmStats.snapshot().minus(startStats);
+		Histogram histogram = latencies.getIntervalHistogram();
+		long[] statuses = new long[statusClasses.length];
+		for (int i = 0; i < statuses.length; i++) {
+			statuses[i] = statusClasses[i].sum();
+		}
+		return new RunResult(mode, scenario, elapsedNanos, histogram.getTotalCount(),
+				millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+				millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+				statuses, errors.sum(), saturated.sum(), jvm);
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
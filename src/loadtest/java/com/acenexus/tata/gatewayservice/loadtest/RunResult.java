@@ -0,0 +1,54 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import java.util.Locale;
+
+/**
+ * 單一情境的量測結果，延遲單位為毫秒
+ *
+ * @param statusClasses 1xx ~ 5xx 的回應數
+ */
+record RunResult(String mode, String scenario, long elapsedNanos, long requests,
+				 double p50Millis, double p99Millis, double p999Millis, double maxMillis,
+				 long[] statusClasses, long errors, long saturated, JvmStats jvm) {
+
+	double throughput() {
+		return requests / (elapsedNanos / 1_000_000_000.0);
+	}
+
+	double allocationMegabytesPerSecond() {
+		return jvm.allocatedBytes() / (elapsedNanos / 1_000_000_000.0) / (1024 * 1024);
+	}
+
+	long allocatedBytesPerRequest() {
+		return (requests == 0) ? 0 : jvm.allocatedBytes() / requests;
+	}
+
+	long nonSuccess() {
+		return statusClasses[0] + statusClasses[2] + statusClasses[3] + statusClasses[4];
+	}
+
+	String toTableRow() {
+		return String.format(Locale.ROOT, "%-7s %-8s %10.1f %8.2f %8.2f %8.2f %8.2f %9d %7d %7d %6d %10.1f %9d %5d %7d",
+				mode, scenario, throughput(), p50Millis, p99Millis, p999Millis, maxMillis,
+				statusClasses[1], nonSuccess(), errors, saturated,
+				allocationMegabytesPerSecond(), allocatedBytesPerRequest(), jvm.gcCount(), jvm.gcTimeMillis());
+	}
+
+	static String tableHeader() {
+		return String.format(Locale.ROOT, "%-7s %-8s %10s %8s %8s %8s %8s %9s %7s %7s %6s %10s %9s %5s %7s",
+				"mode", "scenario", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms",
+				"2xx", "non2xx", "errors", "sat", "alloc MB/s", "B/req", "gc", "gc ms");
+	}
+
+	String toJson() {
+		return String.format(Locale.ROOT,
+				"{\"mode\":\"%s\",\"scenario\":\"%s\",\"elapsedSeconds\":%.3f,\"requests\":%d,\"throughput\":%.2f,"
+						+ "\"latencyMillis\":{\"p50\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f},"
+						+ "\"status\":{\"1xx\":%d,\"2xx\":%d,\"3xx\":%d,\"4xx\":%d,\"5xx\":%d},\"errors\":%d,\"saturated\":%d,"
+						+ "\"jvm\":{\"allocatedBytes\":%d,\"allocationMBPerSecond\":%.2f,\"allocatedBytesPerRequest\":%d,\"gcCount\":%d,\"gcTimeMillis\":%d}}",
+				mode, scenario, elapsedNanos / 1_000_000_000.0, requests, throughput(),
+				p50Millis, p99Millis, p999Millis, maxMillis,
+				statusClasses[0], statusClasses[1], statusClasses[2], statusClasses[3], statusClasses[4], errors, saturated,
+				jvm.allocatedBytes(), allocationMegabytesPerSecond(), allocatedBytesPerRequest(), jvm.gcCount(), jvm.gcTimeMillis());
+	}
+}
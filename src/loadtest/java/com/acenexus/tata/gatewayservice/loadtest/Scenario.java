@@ -0,0 +1,29 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 一種請求：固定的 method、路徑、標頭與內容
+ */
+record Scenario(String name, HttpMethod method, String uri, Map<String, String> headers, byte[] body) {
+
+	static Scenario proxy(String accessToken) {
+		return new Scenario("proxy", HttpMethod.GET, "/api/account/v1/user/profile",
+				Map.of("Authorization", "Bearer " + accessToken), null);
+	}
+
+	static Scenario login() {
+		return new Scenario("login", HttpMethod.POST, "/v1/login",
+				Map.of("Content-Type", "application/json"),
+				"{\"account\":\"loadtest\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8));
+	}
+
+	static Scenario refresh(String refreshToken) {
+		return new Scenario("refresh", HttpMethod.POST, "/v1/refresh/token",
+				Map.of("Content-Type", "application/json"),
+				("{\"refreshToken\":\"" + refreshToken + "\"}").getBytes(StandardCharsets.UTF_8));
+	}
+}
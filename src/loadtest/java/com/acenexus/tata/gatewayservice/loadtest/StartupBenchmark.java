@@ -0,0 +1,151 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 啟動時間量測
+ * 每個版本以獨立行程啟動數次，記錄從建立行程到第一個轉送至 stub 後端的請求成功的時間（time to first proxied request），
+ * 以及當時行程的 RSS（/proc/&lt;pid&gt;/status 的 VmRSS，僅 Linux）。
+ * 參數：--variant=名稱=指令（以空白分隔，可重複）、--runs、--gateway-port、--result-file，
+ * 以及 --working-dir：CDS 依建立時的 classpath 比對，須在產生 archive 的目錄以相同的相對路徑啟動；
+ * 閘道只保留一條指向 stub 的公開路由，每次啟動的輸出寫入結果檔旁的 &lt;名稱&gt;-&lt;次數&gt;.log。
+ */
+public final class StartupBenchmark {
+
+	private static final int ACCOUNT_SERVICE_PORT = 8081;
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+	private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, List<String>> variants = new LinkedHashMap<>();
+		int runs = 3;
+		int gatewayPort = 8080;
+		String resultFile = "build/reports/startup/results.json";
+		Path workingDir = Path.of(".");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (!arg.startsWith("--") || eq < 0) {
+				throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+			}
+			String value = arg.substring(eq + 1);
+			switch (arg.substring(2, eq)) {
+				case "variant" -> {
+					int split = value.indexOf('=');
+					variants.put(value.substring(0, split), Arrays.asList(value.substring(split + 1).trim().split("\\s+")));
+				}
+				case "runs" -> runs = Integer.parseInt(value);
+				case "gateway-port" -> gatewayPort = Integer.parseInt(value);
+				case "result-file" -> resultFile = value;
+				case "working-dir" -> workingDir = Path.of(value);
+				default -> throw new IllegalArgumentException("Unknown option: " + arg);
+			}
+		}
+		Path file = Path.of(resultFile).toAbsolutePath();
+		Path logDir = (file.getParent() != null) ? file.getParent() : Path.of(".");
+		Files.createDirectories(logDir);
+
+		List<String> results = new ArrayList<>();
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		try (StubBackends ignored = new StubBackends(ACCOUNT_SERVICE_PORT, Duration.ZERO, 64)) {
+			System.out.printf("%n%-12s %10s %10s %10s %10s%n", "variant", "run", "first(ms)", "rss(MB)", "status");
+			for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+				List<Long> millis = new ArrayList<>();
+				List<Long> rss = new ArrayList<>();
+				for (int run = 1; run <= runs; run++) {
+					Path log = logDir.resolve(variant.getKey() + "-" + run + ".log");
+					long[] sample = measure(client, variant.getValue(), workingDir, gatewayPort, log);
+					System.out.printf("%-12s %10d %10d %10.1f %10s%n", variant.getKey(), run, sample[0],
+							sample[1] / 1024.0 / 1024.0, (sample[0] >= 0) ? "ok" : "timeout");
+					millis.add(sample[0]);
+					rss.add(sample[1]);
+				}
+				results.add(String.format(Locale.ROOT,
+						"{\"variant\":\"%s\",\"command\":\"%s\",\"firstProxiedRequestMillis\":%s,\"rssBytes\":%s,\"medianMillis\":%d,\"medianRssBytes\":%d}",
+						variant.getKey(), String.join(" ", variant.getValue()).replace("\\", "\\\\").replace("\"", "\\\""),
+						millis, rss, median(millis), median(rss)));
+			}
+		}
+
+		String json = String.format(Locale.ROOT, "{\"runs\":%d,\"results\":[%s]}%n", runs, String.join(",", results));
+		Files.writeString(file, json, StandardCharsets.UTF_8);
+		System.out.println("Results written to " + file.toAbsolutePath());
+	}
+
+	/**
+	 * 回傳 {到第一個轉送請求成功的毫秒數, 當時的 RSS}；逾時時毫秒數為 -1
+	 */
+	private static long[] measure(HttpClient client, List<String> command, Path workingDir, int gatewayPort, Path log)
+			throws IOException, InterruptedException {
+		List<String> full = new ArrayList<>(command);
+		full.add("--server.port=" + gatewayPort);
+		full.add("--spring.cloud.gateway.routes[0].id=startup");
+		full.add("--spring.cloud.gateway.routes[0].uri=http://localhost:" + ACCOUNT_SERVICE_PORT);
+		full.add("--spring.cloud.gateway.routes[0].predicates[0]=Path=/startup/**");
+		full.add("--spring.cloud.gateway.routes[0].filters[0]=StripPrefix=1");
+		full.add("--gateway.security.public-paths[0]=/startup/**");
+		full.add("--gateway.rate-limit.enabled=false");
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + gatewayPort + "/startup/ping"))
+				.timeout(Duration.ofSeconds(5))
+				.build();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(full).directory(workingDir.toFile()).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			while (process.isAlive() && System.nanoTime() - start < TIMEOUT.toNanos()) {
+				try {
+					if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+						return new long[]{millis, residentSetSize(process.pid())};
+					}
+				} catch (ConnectException e) {
+					// 尚未開始監聽
+				}
+				Thread.sleep(POLL_INTERVAL.toMillis());
+			}
+			return new long[]{-1, residentSetSize(process.pid())};
+		} finally {
+			process.destroy();
+			if (!process.waitFor(10, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		}
+	}
+
+	private static long residentSetSize(long pid) {
+		try {
+			for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+				}
+			}
+		} catch (IOException e) {
+			// 非 Linux 或行程已結束
+		}
+		return -1;
+	}
+
+	private static long median(List<Long> values) {
+		List<Long> sorted = values.stream().sorted().collect(Collectors.toList());
+		return sorted.get(sorted.size() / 2);
+	}
+}
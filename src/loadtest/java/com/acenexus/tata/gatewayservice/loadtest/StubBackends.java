@@ -0,0 +1,53 @@
+package com.acenexus.tata.gatewayservice.loadtest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 取代 accountservice 的本機 stub，使用獨立的 event loop，不與閘道搶執行緒
+ * - POST /v1/user/login：回傳固定的使用者資料
+ * - 其他 GET：回傳 payloadBytes 大小的內容
+ * 兩者皆延遲 latency 後才回應。
+ */
+final class StubBackends implements AutoCloseable {
+
+	private static final byte[] LOGIN_BODY = "{\"id\":1001,\"name\":\"loadtest\"}".getBytes(StandardCharsets.UTF_8);
+
+	private final LoopResources loops = LoopResources.create("stub-backend", 2, true);
+	private final DisposableServer accountService;
+
+	StubBackends(int accountPort, Duration latency, int payloadBytes) {
+		byte[] payload = new byte[payloadBytes];
+		Arrays.fill(payload, (byte) 'x');
+		this.accountService = HttpServer.create()
+				.port(accountPort)
+				.runOn(loops)
+				.route(routes -> routes
+						.post("/v1/user/login", (request, response) -> response
+								.header("Content-Type", "application/json")
+								.send(delayed(latency, LOGIN_BODY)))
+						.get("/**", (request, response) -> response
+								.header("Content-Type", "application/octet-stream")
+								.send(delayed(latency, payload))))
+				.bindNow();
+	}
+
+	private static Mono<ByteBuf> delayed(Duration latency, byte[] body) {
+		Mono<ByteBuf> buffer = Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body));
+		return latency.isZero() ? buffer : Mono.delay(latency).then(buffer);
+	}
+
+	@Override
+	public void close() {
+		accountService.disposeNow();
+		loops.disposeLater().block();
+	}
+}
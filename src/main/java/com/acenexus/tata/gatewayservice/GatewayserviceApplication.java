@@ -2,14 +2,26 @@ package com.acenexus.tata.gatewayservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
 
 @SpringBootApplication
-@EnableFeignClients
+@ConfigurationPropertiesScan
 public class GatewayserviceApplication {
 
+    private static final String BOOTSTRAP_MARKER = "org.springframework.cloud.bootstrap.marker.Marker";
+
     public static void main(String[] args) {
-        SpringApplication.run(GatewayserviceApplication.class, args);
+        SpringApplication application = new SpringApplication(GatewayserviceApplication.class);
+        if (!ClassUtils.isPresent(BOOTSTRAP_MARKER, null)) {
+            // 快速啟動建置（-Paot）不含 spring-cloud-starter-bootstrap，改由主 context 直接讀取 bootstrap*.yml 並連接 Config Server
+            application.setDefaultProperties(Map.of(
+                    "spring.config.name", "bootstrap",
+                    "spring.config.import", "optional:configserver:"));
+        }
+        application.run(args);
     }
 
 }
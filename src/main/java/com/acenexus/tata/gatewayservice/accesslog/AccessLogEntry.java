@@ -0,0 +1,36 @@
+package com.acenexus.tata.gatewayservice.accesslog;
+
+/**
+ * Ring buffer 中可重複使用的存取紀錄槽位
+ */
+final class AccessLogEntry {
+
+    long timestamp; // epoch millis
+    String requestId;
+    String method;
+    String path;
+    int status;
+    String routeId;
+    String target;
+    long durationNanos;
+    String clientIp;
+    boolean slow;
+
+    void set(long timestamp, String requestId, String method, String path, int status,
+             String routeId, String target, long durationNanos, String clientIp, boolean slow) {
+        this.timestamp = timestamp;
+        this.requestId = requestId;
+        this.method = method;
+        this.path = path;
+        this.status = status;
+        this.routeId = routeId;
+        this.target = target;
+        this.durationNanos = durationNanos;
+        this.clientIp = clientIp;
+        this.slow = slow;
+    }
+
+    void clear() {
+        set(0, null, null, null, 0, null, null, 0, null, false);
+    }
+}
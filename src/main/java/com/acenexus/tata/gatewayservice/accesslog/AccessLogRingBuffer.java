@@ -0,0 +1,81 @@
+package com.acenexus.tata.gatewayservice.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 多生產者、單一消費者的無鎖 ring buffer
+ * 槽位在建立時預先配置，生產者以 CAS 取得序號後直接填入欄位，寫入時不配置新物件；
+ * buffer 滿了時 offer 立即回傳 false，不會阻塞呼叫端。
+ */
+final class AccessLogRingBuffer {
+
+    private final AccessLogEntry[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // 只有消費者執行緒存取
+
+    AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, requestedCapacity) - 1));
+        this.entries = new AccessLogEntry[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new AccessLogEntry();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    boolean offer(long timestamp, String requestId, String method, String path, int status,
+                  String routeId, String target, long durationNanos, String clientIp, boolean slow) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false; // 已滿
+            } else {
+                position = tail.get();
+            }
+        }
+        entries[index].set(timestamp, requestId, method, path, status, routeId, target, durationNanos, clientIp, slow);
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * 由消費者執行緒呼叫，最多取出 maxEntries 筆，回傳實際處理筆數
+     * consumer 不可保留 entry 參考，回傳後槽位即會被重用
+     */
+    int drain(Consumer<AccessLogEntry> consumer, int maxEntries) {
+        int drained = 0;
+        while (drained < maxEntries) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            AccessLogEntry entry = entries[index];
+            try {
+                consumer.accept(entry);
+            } finally {
+                entry.clear();
+                sequences.lazySet(index, head + entries.length);
+                head++;
+            }
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,184 @@
+package com.acenexus.tata.gatewayservice.accesslog;
+
+import com.acenexus.tata.gatewayservice.config.AccessLogProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 非同步存取日誌
+ * 請求執行緒只負責把紀錄放進 ring buffer，格式化與輸出都在背景執行緒批次處理：
+ * - 2xx/3xx 依 success-sample-rate 取樣，4xx/5xx 與慢請求一律記錄
+ * - Buffer 滿了直接丟棄並計數（gateway.access.log.dropped），不會對請求造成背壓
+ * - 每筆紀錄以一行 JSON 輸出至 logger "ACCESS_LOG"
+ */
+@Component
+public class AccessLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+            .withZone(ZoneId.systemDefault());
+
+    private final AccessLogProperties properties;
+    private final AccessLogRingBuffer buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final StringBuilder line = new StringBuilder(512); // 只有背景執行緒使用
+    private final long flushIntervalNanos;
+
+    private volatile boolean running;
+    private Thread writerThread;
+    private long reportedDropped;
+
+    public AccessLogWriter(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buffer = new AccessLogRingBuffer(properties.getBufferSize());
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+
+        FunctionCounter.builder("gateway.access.log.dropped", dropped, LongAdder::sum)
+                .description("Access log records dropped because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.access.log.written", written, LongAdder::sum)
+                .description("Access log records written")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access.log.buffer.capacity", buffer, AccessLogRingBuffer::capacity)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 記錄一次請求，只在請求執行緒上做取樣判斷與放入 buffer
+     */
+    public void record(String requestId, String method, String path, int status, String routeId,
+                       String target, long durationNanos, String clientIp, boolean slow) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (status < 400 && !slow && !sampled()) {
+            return;
+        }
+        if (!buffer.offer(System.currentTimeMillis(), requestId, method, path, status, routeId, target, durationNanos, clientIp, slow)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean sampled() {
+        double rate = properties.getSuccessSampleRate();
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::run, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        while (running) {
+            try {
+                if (buffer.drain(this::write, batchSize) == 0) {
+                    reportDropped();
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("Access log writer error: {}", e.getMessage(), e);
+            }
+        }
+        // 關閉前把剩餘紀錄寫完
+        while (buffer.drain(this::write, batchSize) > 0) {
+            // drain
+        }
+        reportDropped();
+    }
+
+    private void write(AccessLogEntry entry) {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append("{\"timestamp\":\"");
+        formatter.formatTo(Instant.ofEpochMilli(entry.timestamp), sb);
+        sb.append("\",\"requestId\":");
+        appendString(sb, entry.requestId);
+        sb.append(",\"method\":");
+        appendString(sb, entry.method);
+        sb.append(",\"path\":");
+        appendString(sb, entry.path);
+        sb.append(",\"status\":").append(entry.status);
+        sb.append(",\"route\":");
+        appendString(sb, entry.routeId);
+        sb.append(",\"target\":");
+        appendString(sb, entry.target);
+        sb.append(",\"durationNanos\":").append(entry.durationNanos);
+        sb.append(",\"clientIP\":");
+        appendString(sb, entry.clientIp);
+        if (entry.slow) {
+            sb.append(",\"slow\":true");
+        }
+        sb.append('}');
+
+        if (entry.status >= 500) {
+            accessLog.error(sb.toString());
+        } else if (entry.status >= 400 || entry.slow) {
+            accessLog.warn(sb.toString());
+        } else {
+            accessLog.info(sb.toString());
+        }
+        written.increment();
+    }
+
+    private void reportDropped() {
+        long total = dropped.sum();
+        if (total > reportedDropped) {
+            log.warn("Access log buffer full, dropped {} records since last report", total - reportedDropped);
+            reportedDropped = total;
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,76 @@
+package com.acenexus.tata.gatewayservice.actuator;
+
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Token 撤銷管理端點（/actuator/tokenrevocations）
+ * - GET：目前的撤銷數量與記憶體用量
+ * - POST {"token": "..."}：撤銷整個 Token，需為本閘道簽發且尚未過期
+ * - POST {"jti": "...", "expiresAt": epoch millis}：只知道 jti 時直接撤銷，expiresAt 不可晚於現在 + Refresh Token 效期
+ * 只影響本節點；此端點可撤銷任何使用者的 Token，只在內部管理 port（management.server.port）提供。
+ */
+@Component
+@Endpoint(id = "tokenrevocations")
+public class TokenRevocationEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationEndpoint.class);
+    private static final int MAX_JTI_LENGTH = 64;
+
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public TokenRevocationEndpoint(TokenRevocationList tokenRevocationList, JwtTokenProvider jwtTokenProvider) {
+        this.tokenRevocationList = tokenRevocationList;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        return Map.of("entries", tokenRevocationList.size(),
+                "estimatedMemoryBytes", tokenRevocationList.estimatedMemoryBytes());
+    }
+
+    @WriteOperation
+    public Map<String, Object> revoke(@Nullable String token, @Nullable String jti, @Nullable Long expiresAt) {
+        String tokenId = jti;
+        long expiration;
+        if (token != null) {
+            JwtPrincipal principal;
+            try {
+                principal = jwtTokenProvider.verify(token);
+            } catch (JwtVerificationException e) {
+                return Map.of("revoked", false, "error", e.getMessage());
+            }
+            if (principal.tokenId() == null) {
+                return Map.of("revoked", false, "error", "Token has no jti");
+            }
+            tokenId = principal.tokenId();
+            expiration = principal.expiresAt();
+        } else if (jti != null && expiresAt != null) {
+            if (jti.isBlank() || jti.length() > MAX_JTI_LENGTH) {
+                return Map.of("revoked", false, "error", "jti must be 1-" + MAX_JTI_LENGTH + " characters");
+            }
+            if (expiresAt > System.currentTimeMillis() + JwtTokenProvider.REFRESH_TOKEN_EXPIRATION) {
+                return Map.of("revoked", false, "error", "expiresAt is later than the longest token lifetime");
+            }
+            expiration = expiresAt;
+        } else {
+            return Map.of("revoked", false, "error", "Either token, or jti and expiresAt, is required");
+        }
+        boolean added = tokenRevocationList.revoke(tokenId, expiration);
+        log.warn("Token {} revoked through actuator until {}", tokenId, expiration);
+        return Map.of("revoked", true, "jti", tokenId, "alreadyRevoked", !added);
+    }
+}
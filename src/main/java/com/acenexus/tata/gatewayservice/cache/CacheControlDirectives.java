@@ -0,0 +1,86 @@
+package com.acenexus.tata.gatewayservice.cache;
+
+import java.util.List;
+
+/**
+ * 解析後的 Cache-Control 指令，只保留回應快取需要判斷的部分
+ *
+ * @param noStore        no-store
+ * @param noCache        no-cache（或 Pragma: no-cache）
+ * @param isPrivate      private
+ * @param isPublic       public
+ * @param mustRevalidate must-revalidate
+ * @param maxAge         max-age 秒數，未指定時為 -1
+ * @param sMaxAge        s-maxage 秒數，未指定時為 -1
+ */
+public record CacheControlDirectives(boolean noStore, boolean noCache, boolean isPrivate, boolean isPublic, boolean mustRevalidate,
+                                     long maxAge, long sMaxAge) {
+
+    public static final CacheControlDirectives EMPTY = new CacheControlDirectives(false, false, false, false, false, -1, -1);
+
+    public static CacheControlDirectives parse(List<String> cacheControl, List<String> pragma) {
+        if ((cacheControl == null || cacheControl.isEmpty()) && (pragma == null || pragma.isEmpty())) {
+            return EMPTY;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        boolean mustRevalidate = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        if (cacheControl != null) {
+            for (String value : cacheControl) {
+                for (String directive : value.split(",")) {
+                    String token = directive.trim();
+                    int eq = token.indexOf('=');
+                    String name = (eq < 0 ? token : token.substring(0, eq).trim()).toLowerCase();
+                    switch (name) {
+                        case "no-store" -> noStore = true;
+                        case "no-cache" -> noCache = true;
+                        case "private" -> isPrivate = true;
+                        case "public" -> isPublic = true;
+                        case "must-revalidate" -> mustRevalidate = true;
+                        case "max-age" -> maxAge = seconds(token, eq);
+                        case "s-maxage" -> sMaxAge = seconds(token, eq);
+                        default -> {
+                        }
+                    }
+                }
+            }
+        }
+        if (pragma != null) {
+            noCache |= pragma.stream().anyMatch(value -> value.toLowerCase().contains("no-cache"));
+        }
+        return new CacheControlDirectives(noStore, noCache, isPrivate, isPublic, mustRevalidate, maxAge, sMaxAge);
+    }
+
+    /**
+     * 回應是否允許共用快取儲存帶有 Authorization 的請求所取得的內容（RFC 9111 §3.5）
+     */
+    public boolean allowsAuthorizedSharing() {
+        return isPublic || mustRevalidate || sMaxAge >= 0;
+    }
+
+    /**
+     * 共用快取適用的存活秒數，s-maxage 優先於 max-age，皆未指定時為 -1
+     */
+    public long sharedMaxAge() {
+        return (sMaxAge >= 0) ? sMaxAge : maxAge;
+    }
+
+    private static long seconds(String token, int eq) {
+        if (eq < 0) {
+            return -1;
+        }
+        String value = token.substring(eq + 1).trim();
+        if (value.length() > 1 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return 0; // 格式錯誤時視為已過期
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.acenexus.tata.gatewayservice.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 快取中的回應
+ * body 存放在唯讀的 direct buffer（堆外記憶體），回應時以 duplicate() 共用同一份內容，不需複製。
+ *
+ * @param headers   回應標頭（不含 hop-by-hop 標頭）
+ * @param body      回應內容
+ * @param etag      實體標籤，後端未提供時由閘道計算
+ * @param createdAt 建立時間（epoch millis），用於計算 Age
+ * @param expiresAt 到期時間（epoch millis）
+ */
+public record CachedResponse(HttpHeaders headers, ByteBuffer body, String etag, long createdAt, long expiresAt) {
+
+    /**
+     * 估計的記憶體用量（位元組），作為快取容量計算依據
+     */
+    public int weight() {
+        int headerBytes = 0;
+        for (var entry : headers.entrySet()) {
+            headerBytes += entry.getKey().length() * 2 + 64;
+            for (String value : entry.getValue()) {
+                headerBytes += value.length() * 2 + 32;
+            }
+        }
+        return body.capacity() + headerBytes + 128;
+    }
+
+    public ByteBuffer bodyView() {
+        return body.duplicate();
+    }
+}
@@ -0,0 +1,142 @@
+package com.acenexus.tata.gatewayservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 單一路由的回應快取
+ * - 以 maximumWeight 限制總記憶體用量（位元組），超過時依 W-TinyLFU 淘汰，每筆資料依各自的 TTL 到期
+ * - 同一個 key 同時未命中時只讓第一個請求（leader）打到後端，其餘請求等待 leader 的結果
+ */
+public final class ResponseCache {
+
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public ResponseCache(String routeId, long maxBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new ExpireAtResponseExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "response." + routeId);
+        Gauge.builder("gateway.response.cache.bytes", cache, c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Estimated bytes held by the response cache")
+                .tag("route", routeId)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                .description("Cache misses served by waiting for a concurrent upstream call")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 路由設定重新載入時調整容量，既有資料保留
+     */
+    public void resize(long maxBytes) {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maxBytes));
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        if (response != null && response.expiresAt() <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return response;
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    /**
+     * 登記一次未命中，第一個登記的請求成為 leader，其餘請求等待 leader 完成
+     */
+    public Miss miss(String key) {
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, sink);
+        return (existing == null) ? new Miss(key, sink, true) : new Miss(key, existing, false);
+    }
+
+    long estimatedSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 一次未命中的處理權
+     */
+    public final class Miss {
+
+        private final String key;
+        private final Sinks.One<CachedResponse> sink;
+        private final boolean leader;
+
+        private Miss(String key, Sinks.One<CachedResponse> sink, boolean leader) {
+            this.key = key;
+            this.sink = sink;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * 等待 leader 的結果，leader 無法快取或逾時時為 empty，呼叫端需自行轉送
+         */
+        public Mono<CachedResponse> awaitLeader(Duration timeout) {
+            coalesced.increment();
+            return sink.asMono().timeout(timeout, Mono.empty());
+        }
+
+        /**
+         * leader 完成後呼叫，response 為 null 表示無法快取；重複呼叫無作用
+         */
+        public void complete(CachedResponse response) {
+            if (!leader || !inFlight.remove(key, sink)) {
+                return;
+            }
+            if (response != null) {
+                put(key, response);
+                sink.tryEmitValue(response);
+            } else {
+                sink.tryEmitEmpty();
+            }
+        }
+    }
+
+    private static final class ExpireAtResponseExpiration implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, response.expiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, response, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,15 +2,16 @@ package com.acenexus.tata.gatewayservice.client;
 
 import com.acenexus.tata.gatewayservice.dto.AccountLoginRequest;
 import com.acenexus.tata.gatewayservice.dto.AccountLoginResponse;
-import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import reactor.core.publisher.Mono;
 
 /**
- * Account 微服務的 Feign 客戶端
+ * Account 微服務的非阻塞客戶端
  */
-@FeignClient(name = "accountservice", path = "/v1/user")
+@HttpExchange("/v1/user")
 public interface AccountServiceClient {
-    @PostMapping("/login")
-    AccountLoginResponse login(@RequestBody AccountLoginRequest accountLoginRequest);
-} 
\ No newline at end of file
+    @PostExchange("/login")
+    Mono<AccountLoginResponse> login(@RequestBody AccountLoginRequest accountLoginRequest);
+}
@@ -0,0 +1,198 @@
+package com.acenexus.tata.gatewayservice.client;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamClientProperties;
+import com.acenexus.tata.gatewayservice.config.UpstreamClientProperties.Pool;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 每條路由各自的後端 HttpClient 與連線池
+ * HttpClient 以 Gateway 原本的 HttpClientFactory 建立（逾時、SSL、proxy、customizer 與共用設定相同），只替換連線池，
+ * 一條路由的後端變慢佔滿連線時不會影響其他路由。
+ * 連線池開啟 Reactor Netty 的 metrics，以 name 標籤 upstream.{route id} 區分：
+ * reactor.netty.connection.provider.active.connections / idle.connections / pending.connections / pending.connections.time（取得連線的等待時間），
+ * HTTP/2 另有 active.streams / pending.streams。
+ * 所有連線池的 max-connections 總和不超過 gateway.upstream-client.max-total-connections；
+ * 路由重新載入（RefreshRoutesResultEvent）後，RouteLocator 中已不存在的路由會釋放連線池與保留的額度。
+ */
+public class UpstreamHttpClients {
+
+    static final String POOL_NAME_PREFIX = "upstream.";
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamHttpClients.class);
+
+    private final UpstreamClientProperties properties;
+    private final HttpClientProperties httpClientProperties;
+    private final ServerProperties serverProperties;
+    private final HttpClientSslConfigurer sslConfigurer;
+    private final List<HttpClientCustomizer> customizers;
+    private final RouteLocator routeLocator;
+
+    private final Map<String, RouteClient> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger reservedConnections = new AtomicInteger();
+
+    public UpstreamHttpClients(UpstreamClientProperties properties, HttpClientProperties httpClientProperties,
+                               ServerProperties serverProperties, HttpClientSslConfigurer sslConfigurer,
+                               List<HttpClientCustomizer> customizers, RouteLocator routeLocator) {
+        this.properties = properties;
+        this.httpClientProperties = httpClientProperties;
+        this.serverProperties = serverProperties;
+        this.sslConfigurer = sslConfigurer;
+        this.customizers = customizers;
+        this.routeLocator = routeLocator;
+    }
+
+    /**
+     * 路由專用的 HttpClient，第一次使用時建立
+     *
+     * @throws ResponseStatusException 503，max-total-connections 已全部分配給其他路由
+     */
+    public HttpClient forRoute(String routeId) {
+        return clients.computeIfAbsent(routeId, this::create).client();
+    }
+
+    /**
+     * 釋放 RouteLocator 中已不存在的路由的連線池，進行中的請求在 dispose-timeout 內仍可完成
+     */
+    @EventListener
+    public void onRefreshRoutes(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            routeLocator.getRoutes().map(Route::getId).collect(Collectors.toSet())
+                    .subscribe(this::retain, e -> log.warn("Failed to release upstream pools of removed routes: {}", e.getMessage()));
+        }
+    }
+
+    void retain(Set<String> routeIds) {
+        clients.forEach((routeId, routeClient) -> {
+            if (!routeIds.contains(routeId) && clients.remove(routeId, routeClient)) {
+                reservedConnections.addAndGet(-routeClient.maxConnections());
+                routeClient.provider().disposeLater().subscribe(null,
+                        e -> log.warn("Failed to dispose upstream pool of route {}: {}", routeId, e.getMessage()));
+                log.info("Released upstream pool of removed route {} ({} connections)", routeId, routeClient.maxConnections());
+            }
+        });
+    }
+
+    int reservedConnections() {
+        return reservedConnections.get();
+    }
+
+    private RouteClient create(String routeId) {
+        Pool pool = properties.getRoutes().getOrDefault(routeId, properties.getDefaultPool());
+        int maxConnections = reserve(routeId, pool.getMaxConnections());
+        RouteHttpClientFactory factory = new RouteHttpClientFactory(routeId, pool, maxConnections);
+        HttpClient client;
+        try {
+            client = factory.create();
+        } catch (RuntimeException e) {
+            reservedConnections.addAndGet(-maxConnections);
+            if (factory.provider != null) {
+                factory.provider.dispose();
+            }
+            throw e;
+        }
+        if (pool.getProtocol() != null) {
+            client = switch (pool.getProtocol()) {
+                case HTTP11 -> client.protocol(HttpProtocol.HTTP11);
+                case H2C -> client.protocol(HttpProtocol.H2C);
+                case H2 -> client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+            };
+        }
+        return new RouteClient(client, factory.provider, maxConnections);
+    }
+
+    /**
+     * 從 max-total-connections 保留連線數，剩餘額度不足時只取得剩餘的部分
+     */
+    private int reserve(String routeId, int requested) {
+        while (true) {
+            int reserved = reservedConnections.get();
+            int granted = Math.min(requested, properties.getMaxTotalConnections() - reserved);
+            if (granted <= 0) {
+                log.warn("Upstream connection budget ({}) exhausted, route {} has no pool", properties.getMaxTotalConnections(), routeId);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Upstream connection budget exhausted");
+            }
+            if (reservedConnections.compareAndSet(reserved, reserved + granted)) {
+                if (granted < requested) {
+                    log.warn("Upstream connection budget ({}) nearly exhausted, route {} limited to {} of {} connections",
+                            properties.getMaxTotalConnections(), routeId, granted, requested);
+                }
+                return granted;
+            }
+        }
+    }
+
+    ConnectionProvider connectionProvider(String routeId, Pool pool, int maxConnections) {
+        return ConnectionProvider.builder(POOL_NAME_PREFIX + routeId)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .disposeTimeout(properties.getDisposeTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        clients.values().forEach(routeClient -> routeClient.provider().dispose());
+        clients.clear();
+        reservedConnections.set(0);
+    }
+
+    private record RouteClient(HttpClient client, ConnectionProvider provider, int maxConnections) {
+    }
+
+    /**
+     * 沿用 Gateway 建立 HttpClient 的流程，只將連線池換成路由專用的設定
+     */
+    private final class RouteHttpClientFactory extends HttpClientFactory {
+
+        private final String routeId;
+        private final Pool pool;
+        private final int maxConnections;
+        private ConnectionProvider provider;
+
+        RouteHttpClientFactory(String routeId, Pool pool, int maxConnections) {
+            super(UpstreamHttpClients.this.httpClientProperties, UpstreamHttpClients.this.serverProperties,
+                    UpstreamHttpClients.this.sslConfigurer, UpstreamHttpClients.this.customizers);
+            this.routeId = routeId;
+            this.pool = pool;
+            this.maxConnections = maxConnections;
+        }
+
+        HttpClient create() {
+            return createInstance();
+        }
+
+        @Override
+        protected ConnectionProvider buildConnectionProvider(HttpClientProperties ignored) {
+            provider = connectionProvider(routeId, pool, maxConnections);
+            return provider;
+        }
+    }
+}
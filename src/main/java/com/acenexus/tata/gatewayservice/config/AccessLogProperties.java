@@ -0,0 +1,36 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 存取日誌設定
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Ring buffer 容量，會進位到 2 的次方；滿了之後新的紀錄直接丟棄並計數
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * 背景寫入執行緒每次最多處理的筆數
+     */
+    private int batchSize = 512;
+
+    /**
+     * Buffer 為空時，背景寫入執行緒的等待間隔
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * 2xx/3xx 請求的取樣比例（0.0 ~ 1.0），4xx/5xx 與慢請求一律記錄
+     */
+    private double successSampleRate = 1.0;
+}
@@ -0,0 +1,50 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import com.acenexus.tata.gatewayservice.client.AccountServiceClient;
+import io.netty.channel.ChannelOption;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * accountservice 客戶端配置
+ * 以 WebClient 搭配 Spring Cloud LoadBalancer 呼叫 accountservice，全程非阻塞，不佔用 event loop
+ */
+@Configuration
+public class AccountClientConfig {
+
+    @Bean
+    public AccountServiceClient accountServiceClient(WebClient.Builder webClientBuilder,
+                                                     ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                                     AccountClientProperties properties) {
+        AccountClientProperties.Pool pool = properties.getPool();
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("accountservice")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .keepAlive(true);
+
+        WebClient webClient = webClientBuilder
+                .baseUrl(properties.getBaseUrl())
+                .filter(loadBalancerFunction) // 以服務名稱透過 LoadBalancer 挑選實例
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+                .build()
+                .createClient(AccountServiceClient.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * accountservice 客戶端設定
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.account-client")
+public class AccountClientProperties {
+
+    /**
+     * 服務位址，host 為服務名稱時由 Spring Cloud LoadBalancer 解析
+     */
+    private String baseUrl = "http://accountservice";
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 單次呼叫的逾時時間（含等待連線與回應）
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    private Pool pool = new Pool();
+
+    /**
+     * 連線池設定，連線預設 keep-alive 並重複使用
+     */
+    @Data
+    public static class Pool {
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+    }
+}
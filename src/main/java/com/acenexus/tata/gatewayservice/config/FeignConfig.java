@@ -1,35 +0,0 @@
-package com.acenexus.tata.gatewayservice.config;
-
-import feign.Logger;
-import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * OpenFeign 配置類別
- * 在 WebFlux 環境中配置 OpenFeign 客戶端
- */
-@Configuration
-public class FeignConfig {
-
-    @Bean
-    public Logger.Level feignLoggerLevel() {
-        return Logger.Level.FULL;
-    }
-
-    /**
-     * 配置 HttpMessageConverters
-     * 在 WebFlux 環境中，需要手動提供這個 Bean
-     */
-    @Bean
-    public HttpMessageConverters httpMessageConverters() {
-        List<HttpMessageConverter<?>> converters = new ArrayList<>();
-        converters.add(new MappingJackson2HttpMessageConverter());
-        return new HttpMessageConverters(converters);
-    }
-} 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hedge 路由 filter 的全域設定，各路由的延遲設定見 HedgeGatewayFilterFactory.Config
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    /**
+     * 關閉時所有 Hedge filter 都不送出第二個請求
+     */
+    private boolean enabled = true;
+
+    /**
+     * 額外請求佔原始請求的比例上限：每個可 hedge 的請求累積此數量的額度，每送出一個 hedge 扣 1
+     * 後端整體變慢時 hedge 很快用完額度，不會讓負載加倍
+     */
+    private double budgetRatio = 0.05;
+
+    /**
+     * 額度累積上限，也是啟動時的初始額度，讓流量很少的路由仍可偶爾 hedge
+     */
+    private int budgetBurst = 10;
+}
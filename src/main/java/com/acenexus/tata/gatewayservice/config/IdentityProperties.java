@@ -0,0 +1,35 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 轉送給後端的簽章身分標頭（X-Identity-Assertion），後端以 identity-verifier 模組驗證，不需重新驗證 JWT
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.identity")
+public class IdentityProperties {
+
+    /**
+     * 關閉時只轉送 X-User-ID / X-User-Name；客戶端自帶的身分標頭不論是否啟用一律移除
+     */
+    private boolean enabled = true;
+
+    /**
+     * 寫入標頭的金鑰 ID（0~255），輪替時換成新的 ID，後端同時設定新舊金鑰
+     */
+    private int keyId = 1;
+
+    /**
+     * 共用密鑰，Base64 編碼，至少 256 bits，需與後端相同
+     * 未設定時使用啟動時隨機產生的密鑰（僅供本機開發）
+     */
+    private String secret;
+
+    /**
+     * 標頭的有效時間上限，實際到期時間不晚於 JWT 的 exp；外洩時可被重放的時間也以此為限
+     */
+    private Duration maxTtl = Duration.ofMinutes(5);
+}
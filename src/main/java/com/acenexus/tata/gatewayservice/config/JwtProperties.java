@@ -0,0 +1,102 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT 相關設定
+ */
+@Data
+@ConfigurationProperties(prefix = JwtProperties.PREFIX)
+public class JwtProperties {
+
+    public static final String PREFIX = "gateway.jwt";
+
+    private Cache cache = new Cache();
+
+    /**
+     * 簽章金鑰，所有節點需使用相同設定，任一節點簽發的 Token 才能在其他節點驗證
+     * 輪替方式：先加入新金鑰並設定未來的 signing-from，待所有節點都載入後自動切換簽發；
+     * 舊金鑰保留到其簽發的 Token 全部過期後，再以 verify-until 或直接移除退役。
+     * 未設定任何金鑰時使用啟動時隨機產生的金鑰（僅供本機開發）。
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    private Revocation revocation = new Revocation();
+
+    /**
+     * 已驗證 Token 的快取設定
+     */
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 100_000; // 最多快取的 Token 數量
+    }
+
+    /**
+     * Token 撤銷清單設定
+     * 撤銷清單只存在各節點記憶體中，不會在節點間同步
+     */
+    @Data
+    public static class Revocation {
+        private boolean enabled = true;
+
+        /**
+         * 啟動時載入、定期與關閉時寫回的快照檔，未設定則不保存
+         */
+        private String snapshotFile;
+
+        private int expectedEntries = 100_000;    // Bloom filter 預估容量
+        private int maxEntries = 1_000_000;       // 撤銷數量上限（約 120MB），達到時移除最早到期的項目而不是繼續成長
+        private double falsePositiveRate = 0.01;  // Bloom filter 誤判率，誤判時才需查詢雜湊表
+        private Duration purgeInterval = Duration.ofMinutes(1); // 移除已過期項目並重建 Bloom filter 的間隔
+    }
+
+    /**
+     * 單一簽章金鑰
+     * 金鑰內容可直接填入，或以 file: / classpath: 指定檔案位置
+     */
+    @Data
+    public static class Key {
+
+        /**
+         * 寫入 Token header 的 kid，不可重複
+         */
+        private String id;
+
+        /**
+         * HS256、RS256 或 ES256
+         */
+        private String algorithm = "HS256";
+
+        /**
+         * HS256 共用密鑰，Base64 編碼，至少 256 bits
+         */
+        private String secret;
+
+        /**
+         * RS256 / ES256 公鑰（X.509，PEM 或 Base64 DER），用於驗證
+         */
+        private String publicKey;
+
+        /**
+         * RS256 / ES256 私鑰（PKCS#8，PEM 或 Base64 DER），用於簽發；只需驗證的節點可不設定
+         */
+        private String privateKey;
+
+        /**
+         * 開始用於簽發的時間，未設定表示立即；同時有多把可簽發的金鑰時使用時間最晚的一把
+         */
+        private Instant signingFrom;
+
+        /**
+         * 停止接受此金鑰簽發之 Token 的時間，未設定表示不限
+         */
+        private Instant verifyUntil;
+    }
+}
@@ -0,0 +1,13 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import com.acenexus.tata.gatewayservice.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 所有 lb:// 路由與 LoadBalancer WebClient 預設使用延遲感知的實例選擇
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,41 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * lb:// 路由的實例選擇設定
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancingProperties {
+
+    /**
+     * 關閉時改用 Spring Cloud LoadBalancer 預設的 round robin
+     */
+    private boolean enabled = true;
+
+    /**
+     * EWMA 的時間常數，越短越快反映延遲變化；沒有新樣本時延遲估計也以此衰減，讓變慢的實例有機會重新被試探
+     */
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /**
+     * 新出現的實例在此期間內權重由 slow-start-min-weight 線性增加到 1
+     */
+    private Duration slowStart = Duration.ofSeconds(30);
+
+    private double slowStartMinWeight = 0.1;
+
+    /**
+     * 連線錯誤或逾時時記錄的延遲下限，避免快速失敗的實例看起來比正常實例更快
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    /**
+     * 超過此時間未被選中的實例會移除統計資料
+     */
+    private Duration statsIdleTimeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,30 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 閘道延遲指標設定
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.metrics")
+public class MetricsProperties {
+
+    /**
+     * 對外輸出的延遲百分位數
+     */
+    private List<Double> percentiles = List.of(0.5, 0.95, 0.99, 0.999);
+
+    /**
+     * 是否輸出百分位直方圖 bucket（供 Prometheus 等後端跨節點彙總）
+     */
+    private boolean percentileHistogram = true;
+
+    /**
+     * 預設慢請求門檻，個別路由可用 metadata 的 slow-request-threshold（毫秒）覆寫
+     */
+    private Duration slowRequestThreshold = Duration.ofSeconds(3);
+}
@@ -0,0 +1,65 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import com.acenexus.tata.gatewayservice.client.AccountServiceClient;
+import com.acenexus.tata.gatewayservice.dto.AccountLoginRequest;
+import com.acenexus.tata.gatewayservice.dto.AccountLoginResponse;
+import com.acenexus.tata.gatewayservice.dto.LoginRequest;
+import com.acenexus.tata.gatewayservice.dto.LoginResponse;
+import com.acenexus.tata.gatewayservice.dto.RefreshTokenRequest;
+import com.acenexus.tata.gatewayservice.dto.RefreshTokenResponse;
+import com.acenexus.tata.gatewayservice.filter.HedgeGatewayFilterFactory;
+import com.acenexus.tata.gatewayservice.filter.ResponseCacheGatewayFilterFactory;
+import com.acenexus.tata.gatewayservice.filter.ResponseCompressionGatewayFilterFactory;
+import com.acenexus.tata.gatewayservice.filter.StreamingBodyGatewayFilterFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * GraalVM native image（-Pnative）需要的反射與資源提示，一般 JVM 執行時不產生任何作用
+ * - jjwt 0.11 以類別名稱反射建立實作，並以 ServiceLoader 載入 Jackson 序列化
+ * - Lombok DTO 與路由 filter 的 Config 由 Jackson / 設定綁定以反射存取 getter、setter
+ * - AccountServiceClient 為 HTTP interface 的 JDK 動態代理
+ */
+@Configuration
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        LoginRequest.class, LoginResponse.class,
+        RefreshTokenRequest.class, RefreshTokenResponse.class,
+        AccountLoginRequest.class, AccountLoginResponse.class,
+        ResponseCacheGatewayFilterFactory.Config.class,
+        ResponseCompressionGatewayFilterFactory.Config.class,
+        HedgeGatewayFilterFactory.Config.class,
+        StreamingBodyGatewayFilterFactory.Config.class})
+public class NativeHints {
+
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"};
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(AccountServiceClient.class));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 限流設定
+ * 已驗證的請求以使用者 ID 為 key，公開路徑以客戶端 IP 為 key
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 未個別設定的路由所套用的限制，未設定時不限流
+     */
+    private Limit defaultLimit;
+
+    /**
+     * 依 route id 個別設定的限制
+     */
+    private Map<String, Limit> routes = new HashMap<>();
+
+    /**
+     * 每條路由最多追蹤的 key 數量，超過時依 W-TinyLFU 淘汰
+     */
+    private long maxKeysPerRoute = 1_000_000;
+
+    /**
+     * key 閒置超過此時間即移除
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 閘道前方會附加 X-Forwarded-For 的受信任代理層數，以 IP 限流時只採用這些代理寫入的值；
+     * 0 表示閘道直接對外，忽略 X-Forwarded-For 改用連線的來源位址
+     */
+    private int trustedProxies = 0;
+
+    @Data
+    public static class Limit {
+        private double replenishRate = 10; // 每秒補充的請求數
+        private int burstCapacity = 20;   // 可瞬間使用的請求數上限
+    }
+}
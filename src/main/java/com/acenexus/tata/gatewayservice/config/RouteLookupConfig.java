@@ -0,0 +1,28 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import com.acenexus.tata.gatewayservice.route.IndexedRoutePredicateHandlerMapping;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 以路徑前綴索引查詢路由，取代 GatewayAutoConfiguration 預設逐一比對的 RoutePredicateHandlerMapping
+ * gateway.route-lookup.indexed=false 時改回預設實作
+ */
+@Configuration
+public class RouteLookupConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.route-lookup", name = "indexed", havingValue = "true", matchIfMissing = true)
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                                                     RouteDefinitionLocator routeDefinitionLocator,
+                                                                     GlobalCorsProperties globalCorsProperties, Environment environment) {
+        return new IndexedRoutePredicateHandlerMapping(webHandler, routeLocator, routeDefinitionLocator, globalCorsProperties, environment);
+    }
+}
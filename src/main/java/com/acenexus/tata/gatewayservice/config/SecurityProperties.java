@@ -0,0 +1,44 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 閘道安全設定
+ * 可透過 Spring Cloud Config 調整後 refresh 即時生效
+ */
+@Data
+@ConfigurationProperties(prefix = SecurityProperties.PREFIX)
+public class SecurityProperties {
+
+    public static final String PREFIX = "gateway.security";
+
+    /**
+     * 不需 JWT 驗證的路徑規則
+     * - 一般路徑為完全比對，例如 /api/gateway/v1/login
+     * - * 比對單一路徑片段，例如 /api/linebot/*
+     * - ** 只能出現在最後，比對零個或多個路徑片段，例如 /api/linebot/webhook/**
+     */
+    private List<String> publicPaths = new ArrayList<>();
+
+    /**
+     * 整條路由都不需 JWT 驗證的 route id
+     */
+    private Set<String> publicRoutes = new HashSet<>();
+
+    /**
+     * Bearer Token 長度上限，超過時不解析直接拒絕
+     */
+    private int maxTokenLength = 4096;
+
+    /**
+     * 驗證拒絕次數的彙總日誌間隔
+     */
+    private Duration rejectionLogInterval = Duration.ofMinutes(1);
+}
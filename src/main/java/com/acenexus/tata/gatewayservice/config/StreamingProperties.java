@@ -0,0 +1,51 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * StreamingBody 路由的全域設定，各路由的大小上限見 StreamingBodyGatewayFilterFactory.Config
+ * 串流模式下每個 exchange 的每個方向最多預取 window 大小的 buffer，
+ * 大型 body 的 exchange 在開始前先向全域的 direct memory 預算保留 window，預算用完時拒絕或排隊。
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.streaming")
+public class StreamingProperties {
+
+    /**
+     * 關閉時只檢查大小上限，不使用預算
+     */
+    private boolean enabled = true;
+
+    /**
+     * 串流中 body 可佔用的 direct memory 總量，未設定時為 JVM direct memory 上限的一半
+     */
+    private DataSize budget;
+
+    /**
+     * 每個 exchange 每個方向最多預取的 buffer 大小
+     */
+    private DataSize window = DataSize.ofKilobytes(512);
+
+    /**
+     * Content-Length 不小於此值（或未提供 Content-Length 的 chunked 請求）視為大型 body，需要保留預算
+     */
+    private DataSize largeBodyThreshold = DataSize.ofMegabytes(1);
+
+    /**
+     * 預算用完時的處理方式
+     */
+    private Exhausted onExhausted = Exhausted.REJECT;
+
+    /**
+     * on-exhausted 為 queue 時最多等待的時間，逾時回應 503
+     */
+    private Duration queueTimeout = Duration.ofSeconds(2);
+
+    public enum Exhausted {
+        REJECT, QUEUE
+    }
+}
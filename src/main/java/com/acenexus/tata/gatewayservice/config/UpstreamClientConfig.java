@@ -0,0 +1,48 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import com.acenexus.tata.gatewayservice.client.UpstreamHttpClients;
+import com.acenexus.tata.gatewayservice.filter.RoutePoolRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * 每條路由使用獨立連線池轉送，取代 Gateway 預設所有路由共用一個連線池的 NettyRoutingFilter
+ * Gateway 的 routingFilter 沒有 @ConditionalOnMissingBean，需關閉 netty-routing 才不會有兩個 routing filter，
+ * 兩者恰好只有一個生效；關閉 netty-routing 時 Gateway 也不會建立 NettyWriteResponseFilter，一併在此建立
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.cloud.gateway.global-filter.netty-routing", name = "enabled", havingValue = "false")
+public class UpstreamClientConfig {
+
+    @Bean
+    public UpstreamHttpClients upstreamHttpClients(UpstreamClientProperties properties, HttpClientProperties httpClientProperties,
+                                                   ServerProperties serverProperties, HttpClientSslConfigurer sslConfigurer,
+                                                   ObjectProvider<HttpClientCustomizer> customizers, RouteLocator routeLocator) {
+        return new UpstreamHttpClients(properties, httpClientProperties, serverProperties, sslConfigurer,
+                customizers.orderedStream().toList(), routeLocator);
+    }
+
+    @Bean
+    public RoutePoolRoutingFilter routePoolRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                         HttpClientProperties httpClientProperties, UpstreamHttpClients upstreamHttpClients) {
+        return new RoutePoolRoutingFilter(httpClient, headersFilters, httpClientProperties, upstreamHttpClients);
+    }
+
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+}
@@ -0,0 +1,65 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 轉送到後端的連線池設定
+ * 每條路由使用獨立的連線池，逾時、SSL、proxy 等其餘設定沿用 spring.cloud.gateway.httpclient
+ * spring.cloud.gateway.global-filter.netty-routing.enabled 為 true 時改回 Gateway 原本所有路由共用一個連線池的轉送方式，此設定不生效
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream-client")
+public class UpstreamClientProperties {
+
+    /**
+     * 未個別設定的路由所套用的連線池設定
+     */
+    private Pool defaultPool = new Pool();
+
+    /**
+     * 依 route id 個別設定的連線池（整組取代 default-pool）
+     */
+    private Map<String, Pool> routes = new HashMap<>();
+
+    /**
+     * 所有路由連線池 max-connections 的總和上限
+     * 路由建立連線池時從剩餘額度中保留，額度不足時只取得剩餘的連線數，額度用盡時該路由回應 503
+     */
+    private int maxTotalConnections = 10000;
+
+    /**
+     * 路由移除後釋放連線池時，等待進行中請求歸還連線的時間
+     */
+    private Duration disposeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 連線池在路由第一次轉送時建立，之後修改設定需重新啟動才會生效；路由重新載入後不再存在的路由會釋放連線池與額度
+     */
+    @Data
+    public static class Pool {
+        private int maxConnections = 500;
+        private int pendingAcquireMaxCount = 1000;   // 等待取得連線的請求上限，超過時直接失敗
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30); // 需短於後端的 keep-alive timeout，避免使用已被關閉的連線
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private Protocol protocol;                   // 未設定時與 server.http2.enabled 相同
+    }
+
+    public enum Protocol {
+        HTTP11,
+        /**
+         * 明文 HTTP/2（prior knowledge），後端必須支援 h2c
+         */
+        H2C,
+        /**
+         * TLS ALPN 協商 HTTP/2，後端不支援時退回 HTTP/1.1，只適用 https 後端
+         */
+        H2
+    }
+}
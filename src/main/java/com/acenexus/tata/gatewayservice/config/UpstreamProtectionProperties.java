@@ -0,0 +1,61 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 後端保護設定：自適應併發上限與斷路器
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream-protection")
+public class UpstreamProtectionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 未個別設定的路由所套用的策略
+     */
+    private Policy defaultPolicy = new Policy();
+
+    /**
+     * 依 route id 個別設定的策略（整組取代 default-policy）
+     */
+    private Map<String, Policy> routes = new HashMap<>();
+
+    @Data
+    public static class Policy {
+        private Concurrency concurrency = new Concurrency();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    }
+
+    /**
+     * Gradient 演算法：以長期 RTT 與短期 RTT 的比值調整併發上限，後端變慢時自動降低上限
+     */
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+        private double smoothing = 0.2;       // 每次調整時新上限所佔的比重
+        private double rttTolerance = 1.5;    // 短期 RTT 超過長期 RTT 多少倍才開始降低上限
+        private int longWindow = 600;         // 長期 RTT EWMA 的樣本視窗
+    }
+
+    /**
+     * 以最近 N 次呼叫的失敗率判斷是否斷路
+     */
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;        // 半開狀態允許的試探請求數
+    }
+}
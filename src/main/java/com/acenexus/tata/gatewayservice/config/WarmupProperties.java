@@ -0,0 +1,42 @@
+package com.acenexus.tata.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 啟動暖機設定
+ * 暖機期間 readiness 維持 REFUSING_TRAFFIC，Eureka 狀態維持 STARTING，完成後才開始接收流量
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.warmup")
+public class WarmupProperties {
+
+    /**
+     * 關閉時啟動後直接接收流量
+     */
+    private boolean enabled = true;
+
+    /**
+     * 暖機的 exchange 數量，0 表示持續到 duration
+     */
+    private int iterations = 1000;
+
+    /**
+     * 暖機時間上限，未完成 iterations 也會結束
+     */
+    private Duration duration = Duration.ofSeconds(30);
+
+    /**
+     * 同時進行的 exchange 數量
+     */
+    private int concurrency = 8;
+
+    /**
+     * 暖機請求的路徑，未設定時依各路由的 Path 條件產生
+     */
+    private List<String> paths = new ArrayList<>();
+}
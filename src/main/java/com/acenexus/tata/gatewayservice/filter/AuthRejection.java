@@ -0,0 +1,60 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JwtAuthFilter 拒絕請求的原因
+ * 每種原因的回應內容與 WWW-Authenticate 標頭在類別載入時就編碼完成，拒絕時不需序列化或配置新的內容。
+ */
+public enum AuthRejection {
+    MISSING_CREDENTIALS("missing_credentials", "Bearer"),
+    TOKEN_TOO_LARGE("token_too_large", "Bearer error=\"invalid_token\""),
+    MALFORMED_TOKEN("malformed_token", "Bearer error=\"invalid_token\""),
+    UNSUPPORTED_ALGORITHM("unsupported_algorithm", "Bearer error=\"invalid_token\""),
+    UNKNOWN_KEY("unknown_key", "Bearer error=\"invalid_token\""),
+    INVALID_SIGNATURE("invalid_signature", "Bearer error=\"invalid_token\""),
+    TOKEN_EXPIRED("token_expired", "Bearer error=\"invalid_token\""),
+    TOKEN_REVOKED("token_revoked", "Bearer error=\"invalid_token\""),
+    INTERNAL_ERROR("internal_error", "Bearer");
+
+    private final String code;
+    private final String wwwAuthenticate;
+    private final byte[] body;
+
+    AuthRejection(String code, String wwwAuthenticate) {
+        this.code = code;
+        this.wwwAuthenticate = wwwAuthenticate;
+        this.body = ("{\"error\":\"Unauthorized\",\"status\":401,\"reason\":\"" + code + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static AuthRejection of(JwtVerificationException.Reason reason) {
+        return switch (reason) {
+            case MALFORMED -> MALFORMED_TOKEN;
+            case UNSUPPORTED_ALGORITHM -> UNSUPPORTED_ALGORITHM;
+            case UNKNOWN_KEY -> UNKNOWN_KEY;
+            case INVALID_SIGNATURE -> INVALID_SIGNATURE;
+            case EXPIRED -> TOKEN_EXPIRED;
+            case REVOKED -> TOKEN_REVOKED;
+        };
+    }
+
+    /**
+     * 回應內容中的 reason，也用於指標的 tag
+     */
+    public String code() {
+        return code;
+    }
+
+    String wwwAuthenticate() {
+        return wwwAuthenticate;
+    }
+
+    /**
+     * 共用的回應內容，呼叫端不可修改
+     */
+    byte[] body() {
+        return body;
+    }
+}
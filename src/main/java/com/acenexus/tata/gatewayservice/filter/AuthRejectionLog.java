@@ -0,0 +1,96 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.SecurityProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 彙總的驗證拒絕紀錄
+ * 撞庫或掃描時大部分請求都會被拒絕，逐筆寫日誌會讓攻擊流量變成 CPU 與日誌量的負擔。
+ * 請求執行緒只遞增該原因的計數器，背景執行緒每隔 rejection-log-interval 輸出一行各原因的次數；
+ * 累計次數同時以 gateway.auth.rejected（tag reason）輸出。
+ */
+@Component
+public class AuthRejectionLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthRejectionLog.class);
+    private static final AuthRejection[] REJECTIONS = AuthRejection.values();
+
+    private final SecurityProperties properties;
+    private final LongAdder[] counts = new LongAdder[REJECTIONS.length];
+    private final long[] reported = new long[REJECTIONS.length]; // 只在 report() 中存取
+    private ScheduledExecutorService reporter;
+
+    public AuthRejectionLog(SecurityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (AuthRejection rejection : REJECTIONS) {
+            LongAdder count = new LongAdder();
+            counts[rejection.ordinal()] = count;
+            FunctionCounter.builder("gateway.auth.rejected", count, LongAdder::sum)
+                    .description("Requests rejected by JwtAuthFilter")
+                    .tag("reason", rejection.code())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void record(AuthRejection rejection) {
+        counts[rejection.ordinal()].increment();
+    }
+
+    public long count(AuthRejection rejection) {
+        return counts[rejection.ordinal()].sum();
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = properties.getRejectionLogInterval().toMillis();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auth-rejection-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        report();
+    }
+
+    /**
+     * 輸出上次回報後各原因的次數，沒有拒絕時不輸出
+     */
+    synchronized String report() {
+        StringBuilder sb = null;
+        long total = 0;
+        for (AuthRejection rejection : REJECTIONS) {
+            long current = counts[rejection.ordinal()].sum();
+            long delta = current - reported[rejection.ordinal()];
+            reported[rejection.ordinal()] = current;
+            if (delta > 0) {
+                sb = (sb == null) ? new StringBuilder() : sb.append(", ");
+                sb.append(rejection.code()).append('=').append(delta);
+                total += delta;
+            }
+        }
+        if (sb == null) {
+            return null;
+        }
+        String summary = sb.toString();
+        log.warn("Rejected {} unauthenticated requests since last report: {}", total, summary);
+        return summary;
+    }
+}
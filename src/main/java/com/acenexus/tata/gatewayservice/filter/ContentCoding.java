@@ -0,0 +1,57 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 依 Accept-Encoding 協商回應的壓縮方式
+ * 閘道只產生 gzip；回應快取也以協商結果區分 key，不直接使用原始標頭，避免各種寫法產生大量重複項目。
+ */
+final class ContentCoding {
+
+    static final String GZIP = "gzip";
+    static final String IDENTITY = "identity";
+
+    private ContentCoding() {
+    }
+
+    /**
+     * 客戶端接受 gzip 時回傳 {@link #GZIP}，否則回傳 {@link #IDENTITY}
+     * gzip（或 x-gzip）明確列出時以其 q 值為準，未列出時看 *；q=0 表示拒絕
+     */
+    static String negotiate(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String value : acceptEncoding) {
+            for (String element : value.split(",")) {
+                int semicolon = element.indexOf(';');
+                String coding = ((semicolon >= 0) ? element.substring(0, semicolon) : element).trim().toLowerCase(Locale.ROOT);
+                double quality = (semicolon >= 0) ? quality(element.substring(semicolon + 1)) : 1;
+                if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                    gzip = Math.max(gzip, quality);
+                } else if (coding.equals("*")) {
+                    any = Math.max(any, quality);
+                }
+            }
+        }
+        double accepted = (gzip >= 0) ? gzip : any;
+        return (accepted > 0) ? GZIP : IDENTITY;
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q') && trimmed.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,49 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * 重複使用的 Deflater
+ * 每個 Deflater 約佔數百 KB 的 native 記憶體，建立與 end() 的成本都不低；用完 reset 後放回，
+ * 池滿時直接 end() 釋放，池中最多保留 capacity 個。
+ */
+final class DeflaterPool {
+
+    private final BlockingQueue<Deflater> idle;
+
+    DeflaterPool(int capacity) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * 取得 raw deflate（不含 zlib 標頭）的 Deflater，gzip 標頭與結尾由呼叫端寫入
+     */
+    Deflater acquire(int level) {
+        Deflater deflater = idle.poll();
+        if (deflater == null) {
+            return new Deflater(level, true);
+        }
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+
+    void close() {
+        Deflater deflater;
+        while ((deflater = idle.poll()) != null) {
+            deflater.end();
+        }
+    }
+}
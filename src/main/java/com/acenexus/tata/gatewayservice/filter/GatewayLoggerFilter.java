@@ -1,21 +1,24 @@
 package com.acenexus.tata.gatewayservice.filter;
 
+import com.acenexus.tata.gatewayservice.accesslog.AccessLogWriter;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import java.net.URI;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Set;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
@@ -25,23 +28,61 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.G
 public class GatewayLoggerFilter implements GlobalFilter, Ordered {
 
     private static final Logger log = LoggerFactory.getLogger(GatewayLoggerFilter.class);
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     private static final Set<String> SENSITIVE_HEADERS = Set.of("authorization", "cookie", "jwt", "api-key");
+    private static final String UNKNOWN = GatewayMetrics.UNKNOWN_ROUTE;
+
+    @Autowired
+    private AccessLogWriter accessLogWriter;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String requestId = request.getId();
-        LocalDateTime startTime = LocalDateTime.now();
-        long startTimeMillis = System.currentTimeMillis();
-        String clientIP = getClientIP(request);
-        String httpMethod = request.getMethod().name();
-        String requestPath = request.getPath().value();
+        long startNanos = System.nanoTime();
+
+        if (log.isDebugEnabled()) {
+            logRequestHeaders(request);
+        }
+
+        // 記錄延遲指標與存取日誌，實際格式化與輸出交由 AccessLogWriter 的背景執行緒處理
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    long durationNanos = System.nanoTime() - startNanos;
+                    int status = resolveStatus(exchange.getResponse(), signalType);
+
+                    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+                    String routeId = (route != null) ? route.getId() : UNKNOWN;
+                    boolean slow = gatewayMetrics.forRoute(route).recordRequest(status, durationNanos);
+
+                    URI targetUri = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+                    String target = (targetUri != null) ? targetUri.toString() : UNKNOWN;
+
+                    accessLogWriter.record(request.getId(), request.getMethod().name(), request.getPath().value(), status,
+                            routeId, target, durationNanos, getClientIP(request), slow);
+                });
+    }
 
-        // 記錄請求開始
-        log.info("[Request Start] requestId={} | httpMethod={} | requestPath={} | clientIP={} | timestamp={}", requestId, httpMethod, requestPath, clientIP, formatter.format(startTime));
+    /**
+     * 請求失敗時狀態碼可能尚未設定：錯誤視為 500，客戶端中斷視為 499
+     */
+    private static int resolveStatus(ServerHttpResponse response, SignalType signalType) {
+        HttpStatusCode statusCode = response.getStatusCode();
+        if (statusCode != null && (signalType == SignalType.ON_COMPLETE || response.isCommitted())) {
+            return statusCode.value();
+        }
+        return switch (signalType) {
+            case ON_ERROR -> HttpStatus.INTERNAL_SERVER_ERROR.value();
+            case CANCEL -> 499;
+            default -> statusCode != null ? statusCode.value() : HttpStatus.OK.value();
+        };
+    }
 
-        // 排除敏感訊息
+    // 排除敏感訊息
+    private static void logRequestHeaders(ServerHttpRequest request) {
+        String requestId = request.getId();
+        log.debug("[Request Start] requestId={} | httpMethod={} | requestPath={}", requestId, request.getMethod().name(), request.getPath().value());
         request.getHeaders().forEach((name, values) -> {
             if (SENSITIVE_HEADERS.contains(name.toLowerCase())) {
                 log.debug("[Request Header] requestId={} | {}=[PROTECTED]", requestId, name);
@@ -49,45 +90,19 @@ public class GatewayLoggerFilter implements GlobalFilter, Ordered {
                 values.forEach(value -> log.debug("[Request Header] requestId={} | {}={}", requestId, name, value));
             }
         });
-
-        return chain.filter(exchange)
-                .then(Mono.fromRunnable(() -> {
-                    long executionTime = System.currentTimeMillis() - startTimeMillis;
-                    ServerHttpResponse response = exchange.getResponse();
-                    response.getStatusCode();
-                    HttpStatus statusCode = (HttpStatus) response.getStatusCode();
-
-                    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
-                    String routeId = (route != null) ? route.getId() : "unknown";
-
-                    URI targetUri = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
-                    String target = (targetUri != null) ? targetUri.toString() : "unknown";
-
-                    // 記錄回應日誌
-                    if (statusCode.is5xxServerError()) {
-                        log.error("[Request End] requestId={} | httpMethod={} | requestPath={} | status={} | route={} | target={} | duration={}ms", requestId, httpMethod, requestPath, statusCode, routeId, target, executionTime);
-                    } else if (statusCode.is4xxClientError()) {
-                        log.warn("[Request End] requestId={} | httpMethod={} | requestPath={} | status={} | route={} | target={} | duration={}ms", requestId, httpMethod, requestPath, statusCode, routeId, target, executionTime);
-                    } else {
-                        log.info("[Request End] requestId={} | httpMethod={} | requestPath={} | status={} | route={} | target={} | duration={}ms", requestId, httpMethod, requestPath, statusCode, routeId, target, executionTime);
-                    }
-
-                    // 記錄慢請求
-                    if (executionTime > 3000) { // 設定閾值，例如 3 秒
-                        log.warn("[Slow Request] requestId={} | httpMethod={} | requestPath={} | duration={}ms (over threshold)", requestId, httpMethod, requestPath, executionTime);
-                    }
-                }));
     }
 
     /**
-     * 獲取客戶端真實 IP 地址
+     * 獲取客戶端真實 IP 地址，取最左邊的 X-Forwarded-For，客戶端可自行填寫，只供日誌顯示；
+     * 限流使用 {@link com.acenexus.tata.gatewayservice.ratelimit.ClientAddressResolver}
      */
-    private String getClientIP(ServerHttpRequest request) {
+    static String getClientIP(ServerHttpRequest request) {
         String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            int comma = xForwardedFor.indexOf(',');
+            return (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
         }
-        return (request.getRemoteAddress() != null) ? request.getRemoteAddress().getHostString() : "unknown";
+        return (request.getRemoteAddress() != null) ? request.getRemoteAddress().getHostString() : UNKNOWN;
     }
 
     @Override
@@ -0,0 +1,129 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 單一回應的 gzip 串流壓縮：每收到一段內容就壓縮輸出，不需等待完整內容
+ * Deflater 直接讀寫 DataBuffer 底層的 ByteBuffer，不經過額外的 byte[] 複製；
+ * 完成、取消或失敗時呼叫 {@link #release()} 將 Deflater 放回池中。
+ * 取消可能與壓縮在不同執行緒同時發生，所有操作以 this 同步，放回後的呼叫不會再使用該 Deflater。
+ */
+final class GzipEncoder {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int MIN_WRITABLE = 512;
+
+    private final DeflaterPool pool;
+    private final CRC32 crc = new CRC32();
+    private Deflater deflater;
+    private boolean headerWritten;
+    private long inputBytes;
+    private long outputBytes;
+
+    GzipEncoder(DeflaterPool pool, int level) {
+        this.pool = pool;
+        this.deflater = pool.acquire(level);
+    }
+
+    /**
+     * 壓縮一段內容，回傳目前可輸出的部分；Deflater 可能暫存內容，回傳的 buffer 可以是空的
+     * 不會釋放 input
+     */
+    synchronized DataBuffer encode(DataBuffer input, DataBufferFactory factory) {
+        Deflater current = active();
+        DataBuffer output = factory.allocateBuffer(Math.max(MIN_WRITABLE, input.readableByteCount() / 2));
+        try {
+            writeHeader(output);
+            try (DataBuffer.ByteBufferIterator chunks = input.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    ByteBuffer chunk = chunks.next();
+                    inputBytes += chunk.remaining();
+                    crc.update(chunk.duplicate());
+                    current.setInput(chunk);
+                    while (!current.needsInput()) {
+                        deflate(current, output);
+                    }
+                }
+            }
+            outputBytes += output.readableByteCount();
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        }
+    }
+
+    /**
+     * 輸出剩餘的壓縮內容與 gzip 結尾（CRC32 與原始長度），之後放回 Deflater
+     */
+    synchronized DataBuffer finish(DataBufferFactory factory) {
+        Deflater current = active();
+        DataBuffer output = factory.allocateBuffer(MIN_WRITABLE);
+        try {
+            writeHeader(output);
+            current.finish();
+            while (!current.finished()) {
+                deflate(current, output);
+            }
+            writeIntLE(output, (int) crc.getValue());
+            writeIntLE(output, (int) inputBytes); // ISIZE 為原始長度 mod 2^32
+            outputBytes += output.readableByteCount();
+            release();
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        }
+    }
+
+    /**
+     * 放回 Deflater，可重複呼叫
+     */
+    synchronized void release() {
+        if (deflater != null) {
+            pool.release(deflater);
+            deflater = null;
+        }
+    }
+
+    synchronized long inputBytes() {
+        return inputBytes;
+    }
+
+    synchronized long outputBytes() {
+        return outputBytes;
+    }
+
+    private Deflater active() {
+        if (deflater == null) {
+            throw new IllegalStateException("Encoder already released");
+        }
+        return deflater;
+    }
+
+    private void writeHeader(DataBuffer output) {
+        if (!headerWritten) {
+            output.write(HEADER);
+            headerWritten = true;
+        }
+    }
+
+    private static void deflate(Deflater deflater, DataBuffer output) {
+        output.ensureWritable(MIN_WRITABLE);
+        int written;
+        try (DataBuffer.ByteBufferIterator targets = output.writableByteBuffers()) {
+            written = deflater.deflate(targets.next(), Deflater.NO_FLUSH);
+        }
+        output.writePosition(output.writePosition() + written);
+    }
+
+    private static void writeIntLE(DataBuffer output, int value) {
+        output.write(new byte[]{(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)});
+    }
+}
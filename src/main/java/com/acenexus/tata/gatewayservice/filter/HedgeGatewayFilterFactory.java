@@ -0,0 +1,496 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.loadbalancer.InstanceStatsRegistry;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import com.acenexus.tata.gatewayservice.resilience.HedgeBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.DelegatingServiceInstance;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.netty.Connection;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 路由層級的 request hedging，只適用於 lb:// 路由且不帶 body 的 GET/HEAD，需在路由的 filters 中明確啟用：
+ * <pre>
+ * filters:
+ *   - name: Hedge
+ *     args:
+ *       delay: 50ms       # 固定延遲；未設定時取路由後端 2xx 延遲的 percentile
+ *       percentile: 0.95  # 需列於 gateway.metrics.percentiles
+ *       min-delay: 10ms
+ *       max-delay: 1s
+ * </pre>
+ * - 後端在延遲內沒有回應標頭時，向另一個實例送出相同請求，採用先回應者並取消另一個
+ * - 每個 hedge 需取得全域額度（{@link HedgeBudget}），後端整體變慢時不會讓負載加倍
+ * - 每次嘗試各自經過 UpstreamProtectionFilter、UpstreamTimingFilter 與 NettyRoutingFilter，
+ *   使用獨立的 attributes 與回應狀態，只有勝出者的結果會寫回原本的 exchange
+ * - 指標：gateway.hedge.sent、gateway.hedge.won、gateway.hedge.skipped（reason = budget | no_instance）
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgeGatewayFilterFactory.class);
+
+    /**
+     * 排在 ReactiveLoadBalancerClientFilter 之後，才知道第一個請求選中的實例
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    /**
+     * 依百分位決定延遲時，重新讀取 Timer snapshot 的間隔
+     */
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * hedge 被閘道本身拒絕（例如斷路器開啟）時結束該次嘗試，不把本地產生的錯誤回應當成勝出者
+     */
+    private static final RuntimeException LOCALLY_REJECTED = new LocallyRejectedException();
+
+    private final HedgeBudget budget;
+    private final GatewayMetrics gatewayMetrics;
+    private final InstanceStatsRegistry instanceStatsRegistry;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final MeterRegistry meterRegistry;
+
+    public HedgeGatewayFilterFactory(HedgeBudget budget, GatewayMetrics gatewayMetrics, InstanceStatsRegistry instanceStatsRegistry,
+                                     LoadBalancerClientFactory loadBalancerClientFactory, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.budget = budget;
+        this.gatewayMetrics = gatewayMetrics;
+        this.instanceStatsRegistry = instanceStatsRegistry;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("delay");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = (config.getRouteId() != null) ? config.getRouteId() : "default";
+        if (config.getDelay() == null && !gatewayMetrics.publishesPercentile(config.getPercentile())) {
+            log.warn("Route {} hedges at percentile {} which gateway.metrics.percentiles does not publish, using max-delay {}",
+                    routeId, config.getPercentile(), config.getMaxDelay());
+        }
+        return new OrderedGatewayFilter(new HedgingFilter(routeId, config), ORDER);
+    }
+
+    private static boolean isHedgeable(ServerHttpRequest request) {
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return false;
+        }
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() <= 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private final class HedgingFilter implements GatewayFilter {
+
+        private final long fixedDelayNanos;
+        private final double percentile;
+        private final long minDelayNanos;
+        private final long maxDelayNanos;
+        private final Counter sent;
+        private final Counter won;
+        private final Counter skippedBudget;
+        private final Counter skippedNoInstance;
+
+        private volatile long derivedDelayNanos;
+        private volatile long derivedAt;
+
+        private HedgingFilter(String routeId, Config config) {
+            this.fixedDelayNanos = (config.getDelay() != null) ? config.getDelay().toNanos() : 0;
+            this.percentile = config.getPercentile();
+            this.minDelayNanos = config.getMinDelay().toNanos();
+            this.maxDelayNanos = Math.max(minDelayNanos, config.getMaxDelay().toNanos());
+            this.sent = Counter.builder("gateway.hedge.sent")
+                    .description("Hedged requests sent to a second instance")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.won = Counter.builder("gateway.hedge.won")
+                    .description("Hedged requests that answered before the original request")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.skippedBudget = skippedCounter(routeId, "budget");
+            this.skippedNoInstance = skippedCounter(routeId, "no_instance");
+        }
+
+        private Counter skippedCounter(String routeId, String reason) {
+            return Counter.builder("gateway.hedge.skipped")
+                    .description("Hedges that were due but not sent")
+                    .tag("route", routeId)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            Response<ServiceInstance> selected = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            if (selected == null || !selected.hasServer() || requestUrl == null || !isHedgeable(exchange.getRequest())) {
+                return chain.filter(exchange);
+            }
+            budget.deposit();
+            Race race = new Race(this, exchange, chain, selected.getServer(), requestUrl, delayNanos(exchange.getAttribute(GATEWAY_ROUTE_ATTR)));
+            return Mono.<Attempt>create(race::start)
+                    .doOnDiscard(Attempt.class, Attempt::discard)
+                    .flatMap(winner -> winner.commit(exchange));
+        }
+
+        private long delayNanos(Route route) {
+            if (fixedDelayNanos > 0) {
+                return fixedDelayNanos;
+            }
+            long now = System.nanoTime();
+            long delay = derivedDelayNanos;
+            if (delay == 0 || now - derivedAt > DELAY_REFRESH_NANOS) {
+                long observed = gatewayMetrics.forRoute(route).upstreamPercentileNanos(percentile);
+                delay = (observed < 0) ? maxDelayNanos : Math.min(maxDelayNanos, Math.max(minDelayNanos, observed));
+                derivedDelayNanos = delay;
+                derivedAt = now;
+            }
+            return delay;
+        }
+
+        /**
+         * 由 P2C 在第一個請求以外的實例中選一個；沒有其他實例時為空
+         */
+        private Mono<ServiceInstance> otherInstance(ServiceInstance primary) {
+            ServiceInstanceListSupplier supplier = loadBalancerClientFactory
+                    .getLazyProvider(primary.getServiceId(), ServiceInstanceListSupplier.class)
+                    .getIfAvailable();
+            if (supplier == null) {
+                skippedNoInstance.increment();
+                return Mono.empty();
+            }
+            return supplier.get().next()
+                    .mapNotNull(instances -> {
+                        List<ServiceInstance> others = instances.stream()
+                                .filter(instance -> instance.getPort() != primary.getPort() || !instance.getHost().equals(primary.getHost()))
+                                .toList();
+                        ServiceInstance chosen = instanceStatsRegistry.choose(others);
+                        if (chosen == null) {
+                            skippedNoInstance.increment();
+                        }
+                        return chosen;
+                    })
+                    .onErrorResume(e -> {
+                        log.debug("Unable to list instances of {} for hedging: {}", primary.getServiceId(), e.getMessage());
+                        return Mono.empty();
+                    });
+        }
+    }
+
+    /**
+     * 單一請求的第一次嘗試與 hedge 之間的競賽
+     * 先成功者勝出並取消其他進行中的嘗試；全部失敗時回傳第一個錯誤。第一次嘗試在 hedge 送出前失敗時直接回傳錯誤，不會變成重試。
+     */
+    private final class Race {
+
+        private final HedgingFilter filter;
+        private final ServerWebExchange exchange;
+        private final GatewayFilterChain chain;
+        private final ServiceInstance primaryInstance;
+        private final URI primaryUrl;
+        private final long delayNanos;
+        private final Disposable.Composite inflight = Disposables.composite();
+
+        private MonoSink<Attempt> sink;
+
+        // 以下由 this 保護
+        private boolean settled;
+        private int pending = 1;
+        private Throwable error;
+
+        private Race(HedgingFilter filter, ServerWebExchange exchange, GatewayFilterChain chain,
+                     ServiceInstance primaryInstance, URI primaryUrl, long delayNanos) {
+            this.filter = filter;
+            this.exchange = exchange;
+            this.chain = chain;
+            this.primaryInstance = primaryInstance;
+            this.primaryUrl = primaryUrl;
+            this.delayNanos = delayNanos;
+        }
+
+        private void start(MonoSink<Attempt> sink) {
+            this.sink = sink;
+            sink.onCancel(inflight);
+            Attempt primary = new Attempt(exchange, true);
+            subscribe(chain.filter(primary.exchange).thenReturn(primary));
+            subscribe(Mono.delay(Duration.ofNanos(delayNanos)).flatMap(tick -> hedge()));
+        }
+
+        private void subscribe(Mono<Attempt> attempt) {
+            inflight.add(attempt.subscribe(this::succeeded, this::failed));
+        }
+
+        private Mono<Attempt> hedge() {
+            if (isSettled()) {
+                return Mono.empty();
+            }
+            return filter.otherInstance(primaryInstance).flatMap(instance -> {
+                if (!budget.tryAcquire()) {
+                    filter.skippedBudget.increment();
+                    return Mono.empty();
+                }
+                if (!beginHedge()) {
+                    budget.refund();
+                    return Mono.empty();
+                }
+                filter.sent.increment();
+                Attempt hedge = new Attempt(exchange, false);
+                URI url = LoadBalancerUriTools.reconstructURI(new DelegatingServiceInstance(instance, primaryUrl.getScheme()), primaryUrl);
+                hedge.attributes.put(GATEWAY_REQUEST_URL_ATTR, url);
+                hedge.attributes.put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+                return chain.filter(hedge.exchange).thenReturn(hedge);
+            });
+        }
+
+        private synchronized boolean isSettled() {
+            return settled;
+        }
+
+        private synchronized boolean beginHedge() {
+            if (settled) {
+                return false;
+            }
+            pending++;
+            return true;
+        }
+
+        private void succeeded(Attempt attempt) {
+            synchronized (this) {
+                if (settled) {
+                    attempt.discard();
+                    return;
+                }
+                settled = true;
+            }
+            inflight.dispose();
+            if (!attempt.primary) {
+                filter.won.increment();
+            }
+            sink.success(attempt);
+        }
+
+        private void failed(Throwable e) {
+            Throwable failure;
+            synchronized (this) {
+                if (error == null) {
+                    error = e;
+                }
+                if (--pending > 0 || settled) {
+                    return;
+                }
+                settled = true;
+                failure = error;
+            }
+            inflight.dispose();
+            sink.error(failure);
+        }
+    }
+
+    /**
+     * 一次轉送嘗試：複製一份 attributes，回應狀態與標頭寫入獨立的物件
+     */
+    private static final class Attempt {
+
+        private final boolean primary;
+        private final Map<String, Object> attributes;
+        private final AttemptResponse response;
+        private final ServerWebExchange exchange;
+
+        private Attempt(ServerWebExchange original, boolean primary) {
+            this.primary = primary;
+            this.attributes = new ConcurrentHashMap<>(original.getAttributes());
+            this.response = new AttemptResponse(original.getResponse(), primary);
+            this.exchange = new AttemptExchange(original, attributes, response);
+        }
+
+        /**
+         * 勝出者的結果寫回原本的 exchange，之後由 NettyWriteResponseFilter 從 CLIENT_RESPONSE_CONN_ATTR 讀取 body
+         */
+        private Mono<Void> commit(ServerWebExchange original) {
+            original.getAttributes().putAll(attributes);
+            ServerHttpResponse target = original.getResponse();
+            if (response.status != null) {
+                target.setStatusCode(response.status);
+            }
+            target.getHeaders().addAll(response.headers);
+            return (response.localWrite != null) ? response.localWrite.apply(target) : Mono.empty();
+        }
+
+        /**
+         * 已收到回應標頭但落敗的嘗試，關閉連線不讀取 body
+         */
+        private void discard() {
+            if (attributes.get(CLIENT_RESPONSE_CONN_ATTR) instanceof Connection connection) {
+                connection.dispose();
+            }
+        }
+    }
+
+    private static final class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final ServerHttpResponse response;
+
+        private AttemptExchange(ServerWebExchange delegate, Map<String, Object> attributes, ServerHttpResponse response) {
+            super(delegate);
+            this.attributes = attributes;
+            this.response = response;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    /**
+     * 記錄狀態與標頭，不寫入真正的回應
+     * 第一次嘗試由閘道本身產生的回應（例如 503）保留到勝出後才寫出；hedge 的本地回應視為失敗
+     */
+    private static final class AttemptResponse extends ServerHttpResponseDecorator {
+
+        private final boolean primary;
+        private final HttpHeaders headers = new HttpHeaders();
+        private volatile HttpStatusCode status;
+        private volatile Function<ServerHttpResponse, Mono<Void>> localWrite;
+
+        private AttemptResponse(ServerHttpResponse delegate, boolean primary) {
+            super(delegate);
+            this.primary = primary;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!primary) {
+                return Flux.from(body).doOnNext(DataBufferUtils::release).then(Mono.error(LOCALLY_REJECTED));
+            }
+            localWrite = target -> target.writeWith(body);
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!primary) {
+                return Flux.from(body).flatMap(Flux::from).doOnNext(DataBufferUtils::release).then(Mono.error(LOCALLY_REJECTED));
+            }
+            localWrite = target -> target.writeAndFlushWith(body);
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (!primary) {
+                return Mono.error(LOCALLY_REJECTED);
+            }
+            localWrite = ServerHttpResponse::setComplete;
+            return Mono.empty();
+        }
+    }
+
+    private static final class LocallyRejectedException extends RuntimeException {
+
+        private LocallyRejectedException() {
+            super("Hedged request rejected by the gateway", null, false, false);
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        /**
+         * 等待第一個請求的固定時間，未設定時依 percentile 動態決定
+         */
+        private Duration delay;
+
+        /**
+         * 未設定 delay 時，以路由後端 2xx 延遲的此百分位作為等待時間
+         */
+        private double percentile = 0.95;
+
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * 動態延遲的上限，也是尚無延遲資料時的等待時間
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+    }
+}
@@ -1,9 +1,16 @@
 package com.acenexus.tata.gatewayservice.filter;
 
+import com.acenexus.tata.gatewayservice.config.SecurityProperties;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics.RouteMeters;
+import com.acenexus.tata.gatewayservice.provider.IdentityAssertionIssuer;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipalCache;
 import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import com.acenexus.tata.identity.IdentityAssertion;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,94 +21,175 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
+/**
+ * JWT 驗證
+ * 被拒絕的請求成本固定且很小：格式明顯錯誤的 Token 在查快取與驗證簽章前就拒絕，
+ * 回應使用預先編碼的內容，日誌只彙總次數（{@link AuthRejectionLog}），不逐筆輸出。
+ * 驗證通過後以 X-User-ID、X-User-Name 與簽章的 X-Identity-Assertion（{@link IdentityAssertionIssuer}）轉送身分，
+ * 客戶端自帶的同名標頭在所有請求（包含公開路徑）上一律移除，後端不會收到偽造的身分。
+ */
 @Component
 public class JwtAuthFilter implements GlobalFilter, Ordered {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
-    private static final String BEARER_PREFIX = "Bearer ";
-    private static final String UNAUTHORIZED_MSG = "Unauthorized";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    private static final List<String> EXCLUDED_PATHS = List.of(
-            "/api/gateway/v1/login",
-            "/api/gateway/v1/refresh/token",
-            "/api/linebot/actuator/health",
-            "/api/linebot/webhook"
-    );
+    /**
+     * 驗證通過後存放 {@link JwtPrincipal} 的 exchange attribute
+     */
+    public static final String PRINCIPAL_ATTR = JwtAuthFilter.class.getName() + ".principal";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String USER_ID_HEADER = "X-User-ID";
+    private static final String USER_NAME_HEADER = "X-User-Name";
 
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private JwtPrincipalCache jwtPrincipalCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private PublicAccessRules publicAccessRules;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Autowired
+    private SecurityProperties securityProperties;
+
+    @Autowired
+    private AuthRejectionLog authRejectionLog;
+
+    @Autowired
+    private IdentityAssertionIssuer identityAssertionIssuer;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startNanos = System.nanoTime();
+        exchange = stripIdentityHeaders(exchange);
         String path = exchange.getRequest().getURI().getPath();
 
-        if (isExcludedPath(path)) {
+        if (publicAccessRules.isPublic(exchange, path)) {
             log.debug("Skipping JWT validation for path: {}", path);
             return chain.filter(exchange);
         }
 
+        RouteMeters meters = gatewayMetrics.forRoute(exchange.getAttribute(GATEWAY_ROUTE_ATTR));
+
         String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
-            log.warn("Invalid Authorization header for path: {}", path);
-            return onError(exchange, UNAUTHORIZED_MSG, HttpStatus.UNAUTHORIZED);
+            return reject(exchange, meters, startNanos, AuthRejection.MISSING_CREDENTIALS);
+        }
+        AuthRejection precheck = precheck(authHeader, securityProperties.getMaxTokenLength());
+        if (precheck != null) {
+            return reject(exchange, meters, startNanos, precheck);
         }
 
         String token = authHeader.substring(BEARER_PREFIX.length());
 
         try {
-            if (!jwtTokenProvider.validateToken(token)) {
-                log.warn("JWT validation failed for path: {}", path);
-                return onError(exchange, UNAUTHORIZED_MSG, HttpStatus.UNAUTHORIZED);
+            JwtPrincipal principal = jwtPrincipalCache.get(token, jwtTokenProvider::verify);
+            // 撤銷可能發生在驗證結果快取之後，每次都需檢查
+            if (tokenRevocationList.isRevoked(principal.tokenId())) {
+                return reject(exchange, meters, startNanos, AuthRejection.TOKEN_REVOKED);
             }
 
-            Claims claims = jwtTokenProvider.extractAllClaims(token);
+            ServerHttpRequest.Builder modifiedRequest = exchange.getRequest().mutate()
+                    .header(USER_ID_HEADER, principal.subject())
+                    .header(USER_NAME_HEADER, principal.userName());
+            if (identityAssertionIssuer.isEnabled()) {
+                modifiedRequest.header(IdentityAssertion.HEADER, identityAssertionIssuer.issue(token, principal));
+            }
 
-            ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                    .header("X-User-ID", claims.getSubject())
-                    .header("X-User-Name", claims.get("userName", String.class))
-                    .build();
+            ServerWebExchange authenticated = exchange.mutate().request(modifiedRequest.build()).build();
+            authenticated.getAttributes().put(PRINCIPAL_ATTR, principal);
 
-            return chain.filter(exchange.mutate().request(modifiedRequest).build());
+            meters.recordAuth(true, System.nanoTime() - startNanos);
+            return chain.filter(authenticated);
 
+        } catch (JwtVerificationException e) {
+            return reject(exchange, meters, startNanos, AuthRejection.of(e.getReason()));
+        } catch (JwtException e) {
+            return reject(exchange, meters, startNanos, AuthRejection.MALFORMED_TOKEN);
         } catch (Exception e) {
             log.error("JWT processing error for path: {}, reason: {}", path, e.getMessage());
-            return onError(exchange, UNAUTHORIZED_MSG, HttpStatus.UNAUTHORIZED);
+            return reject(exchange, meters, startNanos, AuthRejection.INTERNAL_ERROR);
         }
     }
 
-    private boolean isExcludedPath(String path) {
-        return EXCLUDED_PATHS.stream().anyMatch(path::startsWith);
+    /**
+     * 移除客戶端自帶的身分標頭；大多數請求沒有這些標頭，不需要複製請求
+     */
+    private static ServerWebExchange stripIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(USER_ID_HEADER) && !headers.containsKey(USER_NAME_HEADER)
+                && !headers.containsKey(IdentityAssertion.HEADER)) {
+            return exchange;
+        }
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(mutable -> {
+                    mutable.remove(USER_ID_HEADER);
+                    mutable.remove(USER_NAME_HEADER);
+                    mutable.remove(IdentityAssertion.HEADER);
+                })
+                .build();
+        return exchange.mutate().request(stripped).build();
     }
 
-    private static Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", message);
-        errorResponse.put("status", status.value());
-
-        byte[] responseBytes = getResponseBytes(errorResponse);
+    /**
+     * 不做任何解碼的格式檢查：長度上限、恰好三段且皆不為空、只含 Base64URL 字元
+     *
+     * @return 不通過的原因，通過時為 null
+     */
+    static AuthRejection precheck(String authHeader, int maxTokenLength) {
+        int length = authHeader.length() - BEARER_PREFIX.length();
+        if (length > maxTokenLength) {
+            return AuthRejection.TOKEN_TOO_LARGE;
+        }
+        int dots = 0;
+        int segmentStart = BEARER_PREFIX.length();
+        for (int i = segmentStart; i < authHeader.length(); i++) {
+            char c = authHeader.charAt(i);
+            if (c == '.') {
+                if (i == segmentStart || ++dots > 2) {
+                    return AuthRejection.MALFORMED_TOKEN;
+                }
+                segmentStart = i + 1;
+            } else if (!isBase64Url(c)) {
+                return AuthRejection.MALFORMED_TOKEN;
+            }
+        }
+        return (dots == 2 && segmentStart < authHeader.length()) ? null : AuthRejection.MALFORMED_TOKEN;
+    }
 
-        exchange.getResponse().setStatusCode(status);
-        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse()
-                .bufferFactory().wrap(responseBytes)));
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
     }
 
-    private static byte[] getResponseBytes(Object response) {
-        try {
-            return objectMapper.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
-        } catch (JsonProcessingException e) {
-            return "{\"error\":\"Server Error\",\"status\":500}".getBytes(StandardCharsets.UTF_8);
+    private Mono<Void> reject(ServerWebExchange exchange, RouteMeters meters, long startNanos, AuthRejection rejection) {
+        authRejectionLog.record(rejection);
+        if (log.isDebugEnabled()) {
+            log.debug("JWT rejected for path: {}, reason: {}", exchange.getRequest().getURI().getPath(), rejection.code());
         }
+        meters.recordAuth(false, System.nanoTime() - startNanos);
+
+        ServerHttpResponse response = exchange.getResponse();
+        byte[] body = rejection.body();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        headers.set(HttpHeaders.WWW_AUTHENTICATE, rejection.wwwAuthenticate());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
     }
 
     @Override
@@ -109,4 +197,4 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
         return Ordered.HIGHEST_PRECEDENCE;
     }
 
-}
\ No newline at end of file
+}
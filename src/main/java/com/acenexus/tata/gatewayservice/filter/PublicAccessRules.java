@@ -0,0 +1,70 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.SecurityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 不需 JWT 驗證的公開路徑與路由
+ * 啟動時將 gateway.security 設定編譯成 {@link PublicPathMatcher}，
+ * 設定中心 refresh 後重新編譯並整批替換，進行中的請求不受影響。
+ */
+@Component
+public class PublicAccessRules {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicAccessRules.class);
+
+    private final Environment environment;
+    private volatile Snapshot snapshot;
+
+    public PublicAccessRules(SecurityProperties securityProperties, Environment environment) {
+        this.environment = environment;
+        this.snapshot = compile(securityProperties);
+    }
+
+    public boolean isPublic(ServerWebExchange exchange, String path) {
+        Snapshot current = snapshot;
+        if (!current.publicRoutes().isEmpty()) {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route != null && current.publicRoutes().contains(route.getId())) {
+                return true;
+            }
+        }
+        return current.pathMatcher().matches(path);
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean changed = event.getKeys().stream().anyMatch(key -> key.startsWith(SecurityProperties.PREFIX + "."));
+        if (!changed) {
+            return;
+        }
+        SecurityProperties properties = Binder.get(environment)
+                .bindOrCreate(SecurityProperties.PREFIX, SecurityProperties.class);
+        try {
+            snapshot = compile(properties);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid public path rules, keeping previous rules: {}", e.getMessage());
+        }
+    }
+
+    private static Snapshot compile(SecurityProperties properties) {
+        Snapshot compiled = new Snapshot(PublicPathMatcher.compile(properties.getPublicPaths()), Set.copyOf(properties.getPublicRoutes()));
+        log.info("Public access rules loaded: paths={}, routes={}", properties.getPublicPaths(), properties.getPublicRoutes());
+        return compiled;
+    }
+
+    private record Snapshot(PublicPathMatcher pathMatcher, Set<String> publicRoutes) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 預先編譯的公開路徑比對器
+ * 將路徑規則編譯成以字元為節點的 prefix trie，查詢成本只與請求路徑長度有關，與規則數量無關。
+ * 規則語法：
+ * - 一般片段為完全比對
+ * - * 比對單一非空路徑片段
+ * - ** 只能是最後一個片段，比對零個或多個路徑片段
+ * 編譯後不可變，可在多執行緒間共用。
+ */
+public final class PublicPathMatcher {
+
+    private static final PublicPathMatcher EMPTY = new PublicPathMatcher(new Node());
+
+    private final Node root;
+
+    private PublicPathMatcher(Node root) {
+        this.root = root;
+    }
+
+    public static PublicPathMatcher compile(Collection<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        for (String pattern : patterns) {
+            insert(root, pattern);
+        }
+        return new PublicPathMatcher(root);
+    }
+
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        if (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        if (start == end) {
+            return root.terminal || root.anyRest;
+        }
+        return matchSegment(root, path, start, end);
+    }
+
+    /**
+     * 從片段開頭 i 開始比對，node 為片段開頭對應的節點
+     */
+    private static boolean matchSegment(Node node, String path, int i, int end) {
+        if (node.anyRest && !containsDotSegment(path, i, end)) {
+            return true;
+        }
+
+        // 完全比對的片段
+        Node current = node;
+        int j = i;
+        while (j < end) {
+            char c = path.charAt(j);
+            if (c == '/') {
+                break;
+            }
+            current = current.child(c);
+            if (current == null) {
+                break;
+            }
+            j++;
+        }
+        if (current != null && j > i && matchAfterSegment(current, path, j, end)) {
+            return true;
+        }
+
+        // 單一片段萬用字元
+        if (node.star != null) {
+            int segmentEnd = path.indexOf('/', i);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            return segmentEnd > i && matchAfterSegment(node.star, path, segmentEnd, end);
+        }
+        return false;
+    }
+
+    /**
+     * 片段比對完成後的處理，j 為片段結束位置
+     */
+    private static boolean matchAfterSegment(Node node, String path, int j, int end) {
+        Node next = node.child('/');
+        if (j == end) {
+            return node.terminal || (next != null && next.anyRest);
+        }
+        return next != null && matchSegment(next, path, j + 1, end);
+    }
+
+    /**
+     * 剩餘路徑是否含有 . 或 .. 片段，避免 /public/** 被 /public/../private 繞過
+     */
+    private static boolean containsDotSegment(String path, int i, int end) {
+        int segmentStart = i;
+        for (int j = i; j <= end; j++) {
+            if (j == end || path.charAt(j) == '/') {
+                int length = j - segmentStart;
+                if ((length == 1 || length == 2) && path.charAt(segmentStart) == '.'
+                        && (length == 1 || path.charAt(segmentStart + 1) == '.')) {
+                    return true;
+                }
+                segmentStart = j + 1;
+            }
+        }
+        return false;
+    }
+
+    private static void insert(Node root, String pattern) {
+        String[] segments = Arrays.stream(pattern.trim().split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .toArray(String[]::new);
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                }
+                node.anyRest = true;
+                return;
+            }
+            if ("*".equals(segment)) {
+                if (node.star == null) {
+                    node.star = new Node();
+                }
+                node = node.star;
+            } else {
+                if (segment.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("Partial wildcards are not supported: " + pattern);
+                }
+                for (int c = 0; c < segment.length(); c++) {
+                    node = node.getOrAddChild(segment.charAt(c));
+                }
+            }
+            if (i < segments.length - 1) {
+                node = node.getOrAddChild('/');
+            }
+        }
+        node.terminal = true;
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Node star;
+        private boolean terminal;
+        private boolean anyRest;
+
+        private Node child(char c) {
+            char[] l = labels;
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(char c) {
+            Node child = child(c);
+            if (child == null) {
+                child = new Node();
+                labels = Arrays.copyOf(labels, labels.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                labels[labels.length - 1] = c;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
+import com.acenexus.tata.gatewayservice.ratelimit.ClientAddressResolver;
+import com.acenexus.tata.gatewayservice.ratelimit.RateLimiterRegistry;
+import com.acenexus.tata.gatewayservice.ratelimit.RateLimiterRegistry.RouteRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 依路由設定的 token bucket 限流
+ * 排在 JwtAuthFilter 之後：已驗證的請求以使用者 ID 為 key，公開路徑（例如 /v1/login）以客戶端 IP 為 key，
+ * IP 由 {@link ClientAddressResolver} 依受信任的代理層數取得，客戶端自帶的 X-Forwarded-For 不影響 key。
+ * 超過限制時回應 429 並帶上 Retry-After（秒）。
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY = "{\"error\":\"Too Many Requests\",\"status\":429}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @Autowired
+    private WarmupFilter warmupFilter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteRateLimiter limiter = rateLimiterRegistry.forRoute(route.getId());
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR);
+        long waitNanos;
+        if (principal != null) {
+            waitNanos = limiter.tryAcquireForUser(principal.subject());
+        } else if (warmupFilter.isWarmup(exchange)) {
+            return chain.filter(exchange); // 暖機請求都來自本機，不佔用本機位址的額度
+        } else {
+            waitNanos = limiter.tryAcquireForIp(clientAddressResolver.resolve(exchange.getRequest()));
+        }
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitNanos)));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        long oneSecond = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (waitNanos + oneSecond - 1) / oneSecond);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+}
@@ -0,0 +1,451 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.cache.CacheControlDirectives;
+import com.acenexus.tata.gatewayservice.cache.CachedResponse;
+import com.acenexus.tata.gatewayservice.cache.ResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+/**
+ * 路由層級的 GET/HEAD 回應快取，需在路由的 filters 中明確啟用：
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       time-to-live: 60s
+ *       max-bytes: 64MB
+ *       key-headers: X-User-ID   # 依使用者區分的資料需加入 X-User-ID
+ * </pre>
+ * - Key 為 path + query + key-headers 的值與協商後的壓縮方式（gzip / identity）；X-User-ID 由 JwtAuthFilter 寫入，因此排在其後
+ * - 與 ResponseCompression 一起使用時排在其外層，儲存壓縮後的內容，命中時不需重新壓縮；
+ *   後端自行壓縮的回應只在編碼與協商結果相同時儲存
+ * - 遵守 Cache-Control：請求 no-store 不使用快取、no-cache 略過查詢；回應 no-store、no-cache、Set-Cookie 不儲存，
+ *   private 只在 key 含 X-User-ID 時儲存，存活時間取 time-to-live 與 s-maxage / max-age 的最小值
+ * - 已驗證（帶 Authorization 或通過 JwtAuthFilter）的請求，key 不含 X-User-ID 時只儲存標示 public、s-maxage 或
+ *   must-revalidate 的回應（RFC 9111 §3.5），避免一位使用者的資料回給其他使用者
+ * - 支援 If-None-Match，ETag 相符時回應 304；後端未提供 ETag 時由閘道依內容計算
+ * - 同一個 key 同時未命中只會轉送一次，其餘請求等待結果
+ * - 內容存放在 direct buffer，回應時直接包裝送出，不經過 heap 複製
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    /**
+     * 排在 NettyWriteResponseFilter 之前，才能攔截寫回客戶端的內容；
+     * 也排在 ResponseCompression 之前，收到的是壓縮後的內容
+     */
+    public static final int ORDER = ResponseCompressionGatewayFilterFactory.ORDER - 1;
+
+    private static final String X_CACHE = "X-Cache";
+    private static final String USER_ID_HEADER = "x-user-id";
+    private static final String ACCEPT_ENCODING = "accept-encoding";
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "set-cookie", "age", "x-cache");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, ResponseCache> caches = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "maxBytes");
+    }
+
+    /**
+     * 路由每次重新載入都會呼叫，同一條路由沿用既有快取，只調整容量
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = (config.getRouteId() != null) ? config.getRouteId() : "default";
+        long maxBytes = config.getMaxBytes().toBytes();
+        ResponseCache cache = caches.compute(routeId, (id, existing) -> {
+            if (existing == null) {
+                return new ResponseCache(id, maxBytes, meterRegistry);
+            }
+            existing.resize(maxBytes);
+            return existing;
+        });
+        return new OrderedGatewayFilter(new CachingFilter(cache, config), ORDER);
+    }
+
+    private static final class CachingFilter implements GatewayFilter {
+
+        private final ResponseCache cache;
+        private final long timeToLiveMillis;
+        private final int maxEntryBytes;
+        private final Duration coalesceTimeout;
+        private final List<String> keyHeaders;
+        private final Set<String> keyHeaderNames; // 小寫，用於比對 Vary
+        private final boolean perUser;
+
+        private CachingFilter(ResponseCache cache, Config config) {
+            this.cache = cache;
+            this.timeToLiveMillis = config.getTimeToLive().toMillis();
+            this.maxEntryBytes = (int) Math.min(Integer.MAX_VALUE, config.getMaxEntryBytes().toBytes());
+            this.coalesceTimeout = config.getCoalesceTimeout();
+            this.keyHeaders = List.copyOf(config.getKeyHeaders());
+            this.keyHeaderNames = keyHeaders.stream().map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+            this.perUser = keyHeaderNames.contains(USER_ID_HEADER);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+                return chain.filter(exchange);
+            }
+            HttpHeaders requestHeaders = request.getHeaders();
+            CacheControlDirectives directives = CacheControlDirectives.parse(
+                    requestHeaders.get(HttpHeaders.CACHE_CONTROL), requestHeaders.get(HttpHeaders.PRAGMA));
+            if (directives.noStore()) {
+                return chain.filter(exchange);
+            }
+
+            String coding = ContentCoding.negotiate(requestHeaders.get(HttpHeaders.ACCEPT_ENCODING));
+            String key = key(request, coding);
+            if (!directives.noCache() && directives.maxAge() != 0) {
+                CachedResponse hit = cache.get(key);
+                if (hit != null) {
+                    return serve(exchange, hit, "HIT");
+                }
+            }
+            if (method == HttpMethod.HEAD) {
+                return chain.filter(exchange); // HEAD 只從 GET 的快取回應，本身不儲存
+            }
+
+            ResponseCache.Miss miss = cache.miss(key);
+            if (!miss.isLeader()) {
+                return miss.awaitLeader(coalesceTimeout)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(result -> result.isPresent()
+                                ? serve(exchange, result.get(), "HIT")
+                                : chain.filter(exchange));
+            }
+
+            // leader 需要完整內容才能儲存，條件式請求標頭不轉送給後端
+            ServerHttpRequest upstreamRequest = request.mutate()
+                    .headers(headers -> {
+                        headers.remove(HttpHeaders.IF_NONE_MATCH);
+                        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    })
+                    .build();
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().set(X_CACHE, "MISS");
+            boolean authorized = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR) != null
+                    || requestHeaders.containsKey(HttpHeaders.AUTHORIZATION);
+            CachingResponse cachingResponse = new CachingResponse(response, miss, coding, authorized);
+            return chain.filter(exchange.mutate().request(upstreamRequest).response(cachingResponse).build())
+                    .doFinally(signalType -> miss.complete(null)); // 未儲存時讓等待中的請求自行轉送
+        }
+
+        private String key(ServerHttpRequest request, String coding) {
+            StringBuilder sb = new StringBuilder(128);
+            sb.append(request.getURI().getRawPath());
+            String query = request.getURI().getRawQuery();
+            if (query != null) {
+                sb.append('?').append(query);
+            }
+            sb.append('\n').append(coding);
+            HttpHeaders headers = request.getHeaders();
+            for (String name : keyHeaders) {
+                sb.append('\n').append(name).append(':');
+                List<String> values = headers.get(name);
+                if (values != null) {
+                    sb.append(String.join(",", values));
+                }
+            }
+            return sb.toString();
+        }
+
+        private static Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+            ServerHttpResponse response = exchange.getResponse();
+            HttpHeaders headers = response.getHeaders();
+            String age = String.valueOf(Math.max(0, (System.currentTimeMillis() - cached.createdAt()) / 1000));
+
+            if (etagMatches(exchange.getRequest().getHeaders().get(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.setETag(cached.etag());
+                copyIfPresent(cached.headers(), headers, HttpHeaders.CACHE_CONTROL);
+                copyIfPresent(cached.headers(), headers, HttpHeaders.VARY);
+                headers.set(HttpHeaders.AGE, age);
+                headers.set(X_CACHE, cacheStatus);
+                return response.setComplete();
+            }
+
+            response.setStatusCode(HttpStatus.OK);
+            headers.putAll(cached.headers());
+            headers.set(HttpHeaders.AGE, age);
+            headers.set(X_CACHE, cacheStatus);
+            if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+                return response.setComplete();
+            }
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.bodyView())));
+        }
+
+        private static void copyIfPresent(HttpHeaders from, HttpHeaders to, String name) {
+            List<String> values = from.get(name);
+            if (values != null) {
+                to.put(name, values);
+            }
+        }
+
+        private static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            String opaque = stripWeak(etag);
+            for (String value : ifNoneMatch) {
+                for (String candidate : value.split(",")) {
+                    String tag = candidate.trim();
+                    if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static String stripWeak(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+
+        /**
+         * 回傳可儲存的存活時間（毫秒），不可儲存時為 -1
+         *
+         * @param coding     請求協商的壓縮方式，回應經過其他編碼時不儲存，避免送給不支援的客戶端
+         * @param authorized 請求是否已驗證
+         */
+        private long storableTtl(HttpStatusCode status, HttpHeaders headers, String coding, boolean authorized) {
+            if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return -1;
+            }
+            String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null && !encoding.equalsIgnoreCase(ContentCoding.IDENTITY) && !encoding.equalsIgnoreCase(coding)) {
+                return -1;
+            }
+            CacheControlDirectives directives = CacheControlDirectives.parse(headers.get(HttpHeaders.CACHE_CONTROL), null);
+            if (directives.noStore() || directives.noCache() || (directives.isPrivate() && !perUser)) {
+                return -1;
+            }
+            if (authorized && !perUser && !directives.allowsAuthorizedSharing()) {
+                return -1;
+            }
+            List<String> vary = headers.get(HttpHeaders.VARY);
+            if (vary != null) {
+                for (String value : vary) {
+                    for (String name : value.split(",")) {
+                        String header = name.trim().toLowerCase(Locale.ROOT);
+                        if (!header.isEmpty() && !keyHeaderNames.contains(header) && !header.equals(ACCEPT_ENCODING)) {
+                            return -1; // 包含 *，或依賴未列入 key 的標頭；Accept-Encoding 已以協商結果列入 key
+                        }
+                    }
+                }
+            }
+            long maxAge = directives.sharedMaxAge();
+            long ttl = (maxAge >= 0) ? Math.min(timeToLiveMillis, TimeUnit.SECONDS.toMillis(maxAge)) : timeToLiveMillis;
+            return (ttl > 0) ? ttl : -1;
+        }
+
+        /**
+         * leader 的回應：內容照常串流給客戶端，同時複製一份到 direct buffer，完成後放入快取
+         */
+        private final class CachingResponse extends ServerHttpResponseDecorator {
+
+            private final ResponseCache.Miss miss;
+            private final String coding;
+            private final boolean authorized;
+
+            private CachingResponse(ServerHttpResponse delegate, ResponseCache.Miss miss, String coding, boolean authorized) {
+                super(delegate);
+                this.miss = miss;
+                this.coding = coding;
+                this.authorized = authorized;
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                long ttl = storableTtl(getStatusCode(), headers, coding, authorized);
+                long contentLength = headers.getContentLength();
+                if (ttl < 0 || contentLength > maxEntryBytes) {
+                    miss.complete(null);
+                    return super.writeWith(body);
+                }
+
+                BodyCollector collector = new BodyCollector(maxEntryBytes, contentLength);
+                Flux<DataBuffer> tee = Flux.<DataBuffer>from(body)
+                        .doOnNext(dataBuffer -> {
+                            collector.append(dataBuffer);
+                            // 已知長度時在最後一段送出前就放入快取，客戶端收完回應後的下一個請求即可命中
+                            if (collector.isComplete()) {
+                                miss.complete(collector.toResponse(headers, ttl));
+                            }
+                        })
+                        .doOnComplete(() -> miss.complete(collector.toResponse(headers, ttl)))
+                        .doOnError(e -> miss.complete(null))
+                        .doOnCancel(() -> miss.complete(null));
+                return super.writeWith(tee);
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                miss.complete(null); // 串流型回應不快取
+                return super.writeAndFlushWith(body);
+            }
+        }
+    }
+
+    /**
+     * 收集回應內容，超過單筆上限即放棄
+     */
+    private static final class BodyCollector {
+
+        private final int maxBytes;
+        private final long contentLength;
+        private ByteBuffer buffer;
+        private boolean overflow;
+        private CachedResponse response;
+
+        private BodyCollector(int maxBytes, long contentLength) {
+            this.maxBytes = maxBytes;
+            this.contentLength = contentLength;
+            this.buffer = ByteBuffer.allocateDirect((int) ((contentLength >= 0) ? contentLength : Math.min(8192, maxBytes)));
+        }
+
+        void append(DataBuffer dataBuffer) {
+            int length = dataBuffer.readableByteCount();
+            if (overflow || length == 0) {
+                return;
+            }
+            if (buffer.position() + length > maxBytes) {
+                overflow = true;
+                buffer = null;
+                return;
+            }
+            if (buffer.remaining() < length) {
+                int capacity = (int) Math.min(maxBytes, Math.max((long) buffer.capacity() * 2, buffer.position() + length));
+                ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            dataBuffer.toByteBuffer(dataBuffer.readPosition(), buffer, buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+
+        /**
+         * 是否已收到 Content-Length 指定的完整內容
+         */
+        boolean isComplete() {
+            return !overflow && contentLength >= 0 && buffer.position() == contentLength;
+        }
+
+        /**
+         * 建立快取資料，重複呼叫時回傳同一份
+         */
+        CachedResponse toResponse(HttpHeaders responseHeaders, long ttlMillis) {
+            if (overflow) {
+                return null;
+            }
+            if (response != null) {
+                return response;
+            }
+            ByteBuffer body = buffer.flip();
+            if (body.limit() != body.capacity()) {
+                body = ByteBuffer.allocateDirect(body.limit()).put(body).flip();
+            }
+            body = body.asReadOnlyBuffer();
+
+            HttpHeaders headers = new HttpHeaders();
+            responseHeaders.forEach((name, values) -> {
+                if (!UNSTORED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.put(name, new ArrayList<>(values));
+                }
+            });
+            headers.setContentLength(body.remaining());
+            String etag = headers.getETag();
+            if (etag == null) {
+                etag = computeEtag(body);
+                headers.setETag(etag);
+            }
+            long now = System.currentTimeMillis();
+            response = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), body, etag, now, now + ttlMillis);
+            return response;
+        }
+
+        private static String computeEtag(ByteBuffer body) {
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.remaining()) + "\"";
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        /**
+         * 快取存活時間上限，後端的 s-maxage / max-age 較短時以後端為準
+         */
+        private Duration timeToLive = Duration.ofSeconds(60);
+
+        /**
+         * 整條路由快取可使用的記憶體上限
+         */
+        private DataSize maxBytes = DataSize.ofMegabytes(64);
+
+        /**
+         * 單筆回應的大小上限，超過的回應不快取
+         */
+        private DataSize maxEntryBytes = DataSize.ofMegabytes(1);
+
+        /**
+         * 除了 path 與 query 之外列入 key 的請求標頭
+         */
+        private List<String> keyHeaders = new ArrayList<>();
+
+        /**
+         * 同一個 key 等待其他請求轉送結果的時間上限，逾時後自行轉送
+         */
+        private Duration coalesceTimeout = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,240 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * 路由層級的回應壓縮，需在路由的 filters 中明確啟用：
+ * <pre>
+ * filters:
+ *   - name: ResponseCompression
+ *     args:
+ *       min-response-size: 1KB
+ *       content-types: application/json, text/*
+ * </pre>
+ * - 依 Accept-Encoding 協商 gzip，內容逐段壓縮後送出，不等待完整回應
+ * - 只壓縮 content-types 相符、未經編碼、未標示 no-transform 且 Content-Length 不小於 min-response-size 的回應；
+ *   未提供 Content-Length（chunked）的回應無法事先得知大小，一律壓縮
+ * - 可壓縮的回應都加上 Vary: Accept-Encoding；壓縮後的 ETag 改為 weak，與未壓縮的內容區分
+ * - 排在 ResponseCache 之後（內層），快取儲存的是壓縮後的內容，命中時不需重新壓縮
+ * - Brotli 需要 native 函式庫，目前只提供 JDK 內建的 gzip
+ */
+@Component
+public class ResponseCompressionGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCompressionGatewayFilterFactory.Config> {
+
+    /**
+     * 排在 NettyWriteResponseFilter 之前、ResponseCache 之後
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final MeterRegistry meterRegistry;
+    private final DeflaterPool deflaterPool = new DeflaterPool(Runtime.getRuntime().availableProcessors() * 4);
+
+    public ResponseCompressionGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.compression.deflaters.idle", deflaterPool, DeflaterPool::idleCount)
+                .description("Deflaters kept for reuse")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("minResponseSize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter(new CompressionFilter(config), ORDER);
+    }
+
+    @PreDestroy
+    public void close() {
+        deflaterPool.close();
+    }
+
+    private final class CompressionFilter implements GatewayFilter {
+
+        private final long minResponseSize;
+        private final List<MediaType> contentTypes;
+        private final int level;
+        private final Counter inputBytes;
+        private final Counter outputBytes;
+
+        private CompressionFilter(Config config) {
+            String routeId = (config.getRouteId() != null) ? config.getRouteId() : "default";
+            this.minResponseSize = config.getMinResponseSize().toBytes();
+            this.contentTypes = config.getContentTypes().stream().map(MediaType::parseMediaType).toList();
+            this.level = config.getLevel();
+            this.inputBytes = Counter.builder("gateway.compression.input")
+                    .description("Response bytes before compression")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.outputBytes = Counter.builder("gateway.compression.output")
+                    .description("Response bytes after compression")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            String coding = ContentCoding.negotiate(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+            boolean head = exchange.getRequest().getMethod() == HttpMethod.HEAD;
+            CompressingResponse response = new CompressingResponse(exchange.getResponse(), ContentCoding.GZIP.equals(coding), head);
+            return chain.filter(exchange.mutate().response(response).build());
+        }
+
+        private boolean compressible(HttpStatusCode status, HttpHeaders headers) {
+            if (status != null && (!status.is2xxSuccessful() || status.value() == 204 || status.value() == 206)) {
+                return false;
+            }
+            String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+            if ((encoding != null && !encoding.equalsIgnoreCase(ContentCoding.IDENTITY)) || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+                return false;
+            }
+            List<String> cacheControl = headers.get(HttpHeaders.CACHE_CONTROL);
+            if (cacheControl != null && cacheControl.stream().anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("no-transform"))) {
+                return false;
+            }
+            MediaType contentType;
+            try {
+                contentType = headers.getContentType();
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (contentType == null) {
+                return false;
+            }
+            for (MediaType candidate : contentTypes) {
+                if (candidate.includes(contentType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private final class CompressingResponse extends ServerHttpResponseDecorator {
+
+            private final boolean acceptsGzip;
+            private final boolean head;
+
+            private CompressingResponse(ServerHttpResponse delegate, boolean acceptsGzip, boolean head) {
+                super(delegate);
+                this.acceptsGzip = acceptsGzip;
+                this.head = head;
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                if (!compressible(getStatusCode(), headers)) {
+                    return super.writeWith(body);
+                }
+                addVary(headers);
+                long contentLength = headers.getContentLength();
+                if (!acceptsGzip || (contentLength >= 0 && contentLength < minResponseSize)) {
+                    return super.writeWith(body);
+                }
+
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.set(HttpHeaders.CONTENT_ENCODING, ContentCoding.GZIP);
+                String etag = headers.getETag();
+                if (etag != null && !etag.startsWith("W/")) {
+                    headers.setETag("W/" + etag);
+                }
+                if (head) {
+                    return super.writeWith(body); // 只回應標頭
+                }
+
+                DataBufferFactory bufferFactory = bufferFactory();
+                GzipEncoder encoder = new GzipEncoder(deflaterPool, level);
+                Flux<DataBuffer> compressed = Flux.<DataBuffer>from(body)
+                        .<DataBuffer>handle((buffer, sink) -> {
+                            try {
+                                DataBuffer encoded = encoder.encode(buffer, bufferFactory);
+                                if (encoded.readableByteCount() > 0) {
+                                    sink.next(encoded);
+                                } else {
+                                    DataBufferUtils.release(encoded);
+                                }
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        .concatWith(Mono.fromSupplier(() -> encoder.finish(bufferFactory)))
+                        .doFinally(signalType -> {
+                            encoder.release();
+                            inputBytes.increment(encoder.inputBytes());
+                            outputBytes.increment(encoder.outputBytes());
+                        });
+                return super.writeWith(compressed);
+            }
+
+            private static void addVary(HttpHeaders headers) {
+                List<String> vary = headers.getVary();
+                for (String value : vary) {
+                    if (value.equals("*") || value.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                        return;
+                    }
+                }
+                List<String> appended = new ArrayList<>(vary);
+                appended.add(HttpHeaders.ACCEPT_ENCODING);
+                headers.setVary(appended);
+            }
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        /**
+         * 小於此大小（依 Content-Length）的回應不壓縮，壓縮效益低於 CPU 成本
+         */
+        private DataSize minResponseSize = DataSize.ofKilobytes(1);
+
+        /**
+         * 要壓縮的回應類型，支援 text/* 與 application/*+json 等萬用寫法
+         */
+        private List<String> contentTypes = new ArrayList<>(List.of(
+                "application/json", "application/*+json", "application/xml", "application/*+xml",
+                "application/javascript", "text/*"));
+
+        /**
+         * 壓縮等級 1~9，較高的等級壓縮率較好但較耗 CPU；-1 為 zlib 預設（6）
+         */
+        private int level = Deflater.DEFAULT_COMPRESSION;
+    }
+}
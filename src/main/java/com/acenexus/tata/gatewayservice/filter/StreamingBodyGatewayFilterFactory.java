@@ -0,0 +1,345 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.StreamingProperties;
+import com.acenexus.tata.gatewayservice.resilience.BodyMemoryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 路由層級的串流 body 模式，需在路由的 filters 中明確啟用：
+ * <pre>
+ * filters:
+ *   - name: StreamingBody
+ *     args:
+ *       max-request-size: 100MB
+ *       max-response-size: 1GB
+ * </pre>
+ * - body 不彙整也不複製，Netty 的 buffer 直接在客戶端與後端之間傳遞；每個方向以 limitRate 限制預取量，
+ *   另一端讀取較慢時背壓一路傳回來源，不在閘道累積
+ * - Content-Length 超過 max-request-size 時不讀取 body，直接回應 413；未提供 Content-Length 的請求邊傳邊計數，
+ *   超過時中斷轉送並回應 413（回應已開始時只能中斷連線）
+ * - 後端回應超過 max-response-size 時回應 502，已開始送出的回應直接中斷
+ * - 大型 body（見 gateway.streaming.large-body-threshold）的 exchange 先向 {@link BodyMemoryBudget} 保留 window，
+ *   預算用完時新的大型請求回應 503 或排隊；回應方向無法拒絕，直接計入預算
+ * - 排在 ResponseCache 之外（外層），回應大小以實際送給客戶端的位元組計算（壓縮後）
+ */
+@Component
+public class StreamingBodyGatewayFilterFactory extends AbstractGatewayFilterFactory<StreamingBodyGatewayFilterFactory.Config> {
+
+    /**
+     * 排在 ResponseCache 之前
+     */
+    public static final int ORDER = ResponseCacheGatewayFilterFactory.ORDER - 1;
+
+    /**
+     * 估算預取筆數時假設的單一 buffer 大小（Netty 單次讀取的上限）
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final byte[] PAYLOAD_TOO_LARGE_BODY = "{\"error\":\"Payload Too Large\",\"status\":413}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVICE_UNAVAILABLE_BODY = "{\"error\":\"Service Unavailable\",\"status\":503}".getBytes(StandardCharsets.UTF_8);
+
+    private final StreamingProperties properties;
+    private final BodyMemoryBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, RouteState> routes = new ConcurrentHashMap<>();
+
+    public StreamingBodyGatewayFilterFactory(StreamingProperties properties, BodyMemoryBudget budget, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.properties = properties;
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxRequestSize", "maxResponseSize");
+    }
+
+    /**
+     * 路由每次重新載入都會呼叫，同一條路由沿用既有的預算計數與 metrics，進行中的 exchange 不受影響
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = (config.getRouteId() != null) ? config.getRouteId() : "default";
+        RouteState state = routes.computeIfAbsent(routeId, id -> new RouteState(id, meterRegistry));
+        return new OrderedGatewayFilter(new StreamingFilter(config, state), ORDER);
+    }
+
+    /**
+     * 同一條路由所有 filter 實例共用的狀態
+     */
+    private static final class RouteState {
+
+        private final AtomicLong reserved = new AtomicLong();
+        private final Counter requestBytes;
+        private final Counter responseBytes;
+        private final Counter rejectedTooLarge;
+        private final Counter rejectedBudget;
+        private final Counter abortedResponses;
+
+        private RouteState(String routeId, MeterRegistry meterRegistry) {
+            Gauge.builder("gateway.streaming.reserved", reserved, AtomicLong::get)
+                    .description("Direct memory reserved by the route's streaming bodies in flight")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.requestBytes = bytesCounter(meterRegistry, routeId, "request");
+            this.responseBytes = bytesCounter(meterRegistry, routeId, "response");
+            this.rejectedTooLarge = rejectedCounter(meterRegistry, routeId, "too_large");
+            this.rejectedBudget = rejectedCounter(meterRegistry, routeId, "budget");
+            this.abortedResponses = rejectedCounter(meterRegistry, routeId, "response_too_large");
+        }
+
+        private static Counter bytesCounter(MeterRegistry meterRegistry, String routeId, String direction) {
+            return Counter.builder("gateway.streaming.bytes")
+                    .description("Body bytes streamed through the route")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .tag("direction", direction)
+                    .register(meterRegistry);
+        }
+
+        private static Counter rejectedCounter(MeterRegistry meterRegistry, String routeId, String reason) {
+            return Counter.builder("gateway.streaming.rejected")
+                    .description("Exchanges rejected or aborted by streaming body limits")
+                    .tag("route", routeId)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+
+    private final class StreamingFilter implements GatewayFilter {
+
+        private final long maxRequestSize;
+        private final long maxResponseSize;
+        private final long window;
+        private final long largeBodyThreshold;
+        private final int prefetch;
+        private final AtomicLong reserved;
+        private final Counter requestBytes;
+        private final Counter responseBytes;
+        private final Counter rejectedTooLarge;
+        private final Counter rejectedBudget;
+        private final Counter abortedResponses;
+
+        private StreamingFilter(Config config, RouteState state) {
+            this.maxRequestSize = (config.getMaxRequestSize() != null) ? config.getMaxRequestSize().toBytes() : -1;
+            this.maxResponseSize = (config.getMaxResponseSize() != null) ? config.getMaxResponseSize().toBytes() : -1;
+            this.window = properties.getWindow().toBytes();
+            this.largeBodyThreshold = properties.getLargeBodyThreshold().toBytes();
+            this.prefetch = (int) Math.max(1, window / CHUNK_SIZE);
+
+            this.reserved = state.reserved;
+            this.requestBytes = state.requestBytes;
+            this.responseBytes = state.responseBytes;
+            this.rejectedTooLarge = state.rejectedTooLarge;
+            this.rejectedBudget = state.rejectedBudget;
+            this.abortedResponses = state.abortedResponses;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            HttpHeaders headers = exchange.getRequest().getHeaders();
+            long contentLength = headers.getContentLength();
+            if (maxRequestSize >= 0 && contentLength > maxRequestSize) {
+                rejectedTooLarge.increment();
+                return reject(exchange.getResponse(), HttpStatus.PAYLOAD_TOO_LARGE, PAYLOAD_TOO_LARGE_BODY);
+            }
+
+            boolean large = contentLength >= largeBodyThreshold
+                    || (contentLength < 0 && headers.containsKey(HttpHeaders.TRANSFER_ENCODING));
+            if (!properties.isEnabled() || !large) {
+                return stream(exchange, chain);
+            }
+            return budget.acquire(window).flatMap(granted -> {
+                if (!granted) {
+                    rejectedBudget.increment();
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    return reject(response, HttpStatus.SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE_BODY);
+                }
+                reserved.addAndGet(window);
+                return stream(exchange, chain).doFinally(signalType -> release(window));
+            });
+        }
+
+        private Mono<Void> stream(ServerWebExchange exchange, GatewayFilterChain chain) {
+            ServerWebExchange streaming = exchange.mutate()
+                    .request(new StreamingRequest(exchange.getRequest()))
+                    .response(new StreamingResponse(exchange.getResponse()))
+                    .build();
+            return chain.filter(streaming)
+                    .onErrorResume(RequestTooLargeException.class, e -> {
+                        rejectedTooLarge.increment();
+                        ServerHttpResponse response = exchange.getResponse();
+                        if (response.isCommitted()) {
+                            return Mono.error(e);
+                        }
+                        return reject(response, HttpStatus.PAYLOAD_TOO_LARGE, PAYLOAD_TOO_LARGE_BODY);
+                    });
+        }
+
+        private void release(long bytes) {
+            reserved.addAndGet(-bytes);
+            budget.release(bytes);
+        }
+
+        private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, byte[] body) {
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+
+        /**
+         * 限制預取量並計數，超過 max-request-size 時釋放目前的 buffer 並中斷轉送
+         */
+        private final class StreamingRequest extends ServerHttpRequestDecorator {
+
+            private final AtomicLong received = new AtomicLong();
+
+            private StreamingRequest(ServerHttpRequest delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody()
+                        .limitRate(prefetch)
+                        .handle((buffer, sink) -> {
+                            int size = buffer.readableByteCount();
+                            if (maxRequestSize >= 0 && received.addAndGet(size) > maxRequestSize) {
+                                DataBufferUtils.release(buffer);
+                                sink.error(new RequestTooLargeException());
+                                return;
+                            }
+                            requestBytes.increment(size);
+                            sink.next(buffer);
+                        });
+            }
+        }
+
+        /**
+         * 限制預取量並計數；大型或長度未知的回應在送出期間計入預算
+         */
+        private final class StreamingResponse extends ServerHttpResponseDecorator {
+
+            private final AtomicLong sent = new AtomicLong();
+
+            private StreamingResponse(ServerHttpResponse delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (declaredTooLarge()) {
+                    return tooLarge();
+                }
+                return reserving(super.writeWith(limit(body)));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                if (declaredTooLarge()) {
+                    return tooLarge();
+                }
+                return reserving(super.writeAndFlushWith(Flux.from(body).map(this::limit)));
+            }
+
+            private boolean declaredTooLarge() {
+                return maxResponseSize >= 0 && getHeaders().getContentLength() > maxResponseSize;
+            }
+
+            /**
+             * 尚未送出標頭，交由錯誤處理回應 502；未訂閱的後端 body 由 NettyWriteResponseFilter 在錯誤時關閉連線
+             */
+            private Mono<Void> tooLarge() {
+                abortedResponses.increment();
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Upstream response exceeds " + maxResponseSize + " bytes"));
+            }
+
+            private Flux<DataBuffer> limit(Publisher<? extends DataBuffer> body) {
+                return Flux.<DataBuffer>from(body)
+                        .limitRate(prefetch)
+                        .handle((buffer, sink) -> {
+                            int size = buffer.readableByteCount();
+                            if (maxResponseSize >= 0 && sent.addAndGet(size) > maxResponseSize) {
+                                DataBufferUtils.release(buffer);
+                                abortedResponses.increment();
+                                sink.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Upstream response exceeds " + maxResponseSize + " bytes"));
+                                return;
+                            }
+                            responseBytes.increment(size);
+                            sink.next(buffer);
+                        });
+            }
+
+            private Mono<Void> reserving(Mono<Void> write) {
+                long contentLength = getHeaders().getContentLength();
+                if (!properties.isEnabled() || (contentLength >= 0 && contentLength < largeBodyThreshold)) {
+                    return write;
+                }
+                return Mono.defer(() -> {
+                    budget.forceReserve(window);
+                    reserved.addAndGet(window);
+                    return write.doFinally(signalType -> release(window));
+                });
+            }
+        }
+    }
+
+    /**
+     * 請求 body 超過上限，不需要 stack trace
+     */
+    private static final class RequestTooLargeException extends RuntimeException {
+
+        private RequestTooLargeException() {
+            super("Request body too large", null, false, false);
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        /**
+         * 請求 body 上限，未設定時不限制
+         */
+        private DataSize maxRequestSize;
+
+        /**
+         * 回應 body 上限，未設定時不限制
+         */
+        private DataSize maxResponseSize;
+    }
+}
@@ -0,0 +1,89 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.resilience.UpstreamGuardRegistry;
+import com.acenexus.tata.gatewayservice.resilience.UpstreamGuardRegistry.UpstreamGuard;
+import com.acenexus.tata.gatewayservice.resilience.UpstreamGuardRegistry.UpstreamGuard.Decision;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 後端保護
+ * 在轉送前檢查路由的斷路器與自適應併發上限，超過時立即回應 503，不讓請求堆積在變慢的後端上；
+ * 轉送完成後以收到回應標頭的時間（RTT）與結果（5xx 或連線錯誤視為失敗）回饋給上限演算法與斷路器。
+ */
+@Component
+public class UpstreamProtectionFilter implements GlobalFilter, Ordered {
+
+    private static final byte[] SERVICE_UNAVAILABLE_BODY = "{\"error\":\"Service Unavailable\",\"status\":503}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private UpstreamGuardRegistry upstreamGuardRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        String scheme = (requestUrl != null) ? requestUrl.getScheme() : null;
+        if (route == null || (!"http".equals(scheme) && !"https".equals(scheme))) {
+            return chain.filter(exchange);
+        }
+        UpstreamGuard guard = upstreamGuardRegistry.forRoute(route.getId());
+        if (guard == null) {
+            return chain.filter(exchange);
+        }
+
+        Decision decision = guard.tryAcquire();
+        if (decision != Decision.ACCEPTED) {
+            return reject(exchange, guard);
+        }
+
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    if (signalType == SignalType.CANCEL) {
+                        guard.onCancel();
+                        return;
+                    }
+                    HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+                    boolean success = signalType == SignalType.ON_COMPLETE
+                            && (statusCode == null || !statusCode.is5xxServerError());
+                    guard.onComplete(success, System.nanoTime() - startNanos);
+                });
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, UpstreamGuard guard) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        long retryAfterNanos = guard.retryAfterNanos();
+        if (retryAfterNanos > 0) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos))));
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(SERVICE_UNAVAILABLE_BODY)));
+    }
+
+    @Override
+    public int getOrder() {
+        return UpstreamTimingFilter.ORDER - 1;
+    }
+
+}
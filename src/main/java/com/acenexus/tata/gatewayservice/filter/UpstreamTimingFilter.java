@@ -0,0 +1,80 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.loadbalancer.InstanceStats;
+import com.acenexus.tata.gatewayservice.loadbalancer.InstanceStatsRegistry;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 量測轉送至後端的時間
+ * 排在 NettyRoutingFilter 之前，計時範圍為送出請求到收到後端回應標頭
+ * lb:// 路由同時更新所選實例的延遲與進行中請求數，供 PeakEwmaLoadBalancer 選擇實例
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Autowired
+    private InstanceStatsRegistry instanceStatsRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        String scheme = (requestUrl != null) ? requestUrl.getScheme() : null;
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            return chain.filter(exchange);
+        }
+
+        Response<ServiceInstance> selected = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        InstanceStats instanceStats = (selected != null && selected.hasServer()) ? instanceStatsRegistry.get(selected.getServer()) : null;
+        if (instanceStats != null) {
+            instanceStats.requestStarted();
+        }
+
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    long durationNanos = System.nanoTime() - startNanos;
+                    if (instanceStats != null) {
+                        instanceStats.requestFinished(durationNanos, signalType == SignalType.ON_ERROR, signalType == SignalType.CANCEL);
+                    }
+                    if (signalType == SignalType.CANCEL) {
+                        return; // 客戶端中斷，不列入後端延遲
+                    }
+                    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+                    HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+                    int status = (signalType == SignalType.ON_ERROR || statusCode == null)
+                            ? HttpStatus.BAD_GATEWAY.value() : statusCode.value();
+                    gatewayMetrics.forRoute(route).recordUpstream(status, durationNanos);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+}
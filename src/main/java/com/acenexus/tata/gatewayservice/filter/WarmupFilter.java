@@ -0,0 +1,76 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 攔截啟動暖機的請求，不轉送至後端
+ * 排在 JwtAuthFilter、GatewayLoggerFilter 與 RateLimitFilter 之後、所有路由 filter 之前，
+ * 暖機請求會經過路由比對與上述 filter，但不會寫入回應快取、佔用 hedge 額度或影響後端的斷路與延遲統計。
+ * 只有帶著本次暖機密鑰的請求會被攔截，密鑰在暖機開始時產生、結束時作廢，外部請求無法利用。
+ */
+@Component
+public class WarmupFilter implements GlobalFilter, Ordered {
+
+    public static final String WARMUP_HEADER = "X-Gateway-Warmup";
+
+    private static final byte[] WARMUP_BODY = "{\"warmup\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private volatile byte[] secret;
+
+    /**
+     * 產生新的暖機密鑰，請求以 {@link #WARMUP_HEADER} 帶上
+     */
+    public String open() {
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        this.secret = value.getBytes(StandardCharsets.US_ASCII);
+        return value;
+    }
+
+    public void close() {
+        this.secret = null;
+    }
+
+    /**
+     * 是否為帶著本次暖機密鑰的請求
+     */
+    public boolean isWarmup(ServerWebExchange exchange) {
+        byte[] expected = secret;
+        if (expected == null) {
+            return false;
+        }
+        String value = exchange.getRequest().getHeaders().getFirst(WARMUP_HEADER);
+        return value != null && MessageDigest.isEqual(expected, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!isWarmup(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(WARMUP_BODY)));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
@@ -0,0 +1,82 @@
+package com.acenexus.tata.gatewayservice.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 單一實例的負載統計
+ * - Peak EWMA 延遲：樣本高於目前估計時直接採用（立即反映 GC 停頓等尖峰），低於時依經過時間指數衰減
+ * - 進行中的請求數
+ * - 第一次出現的時間，用於 slow start
+ */
+public final class InstanceStats {
+
+    private final long firstSeenNanos;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // 以 this 同步
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private boolean sampled;
+
+    InstanceStats(long nowNanos, long decayNanos, long failurePenaltyNanos) {
+        this.firstSeenNanos = nowNanos;
+        this.lastUpdateNanos = nowNanos;
+        this.decayNanos = Math.max(1, decayNanos);
+        this.failurePenaltyNanos = failurePenaltyNanos;
+    }
+
+    /**
+     * 開始轉送一個請求至此實例
+     */
+    public void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * 請求結束；被取消的請求只減少進行中數量，不記錄延遲
+     */
+    public void requestFinished(long rttNanos, boolean failed, boolean cancelled) {
+        outstanding.decrementAndGet();
+        if (!cancelled) {
+            record(System.nanoTime(), failed ? Math.max(rttNanos, failurePenaltyNanos) : rttNanos);
+        }
+    }
+
+    synchronized void record(long nowNanos, long rttNanos) {
+        if (!sampled || rttNanos > ewmaNanos) {
+            ewmaNanos = rttNanos;
+            sampled = true;
+        } else {
+            double w = Math.exp(-(double) (nowNanos - lastUpdateNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * w + rttNanos * (1 - w);
+        }
+        lastUpdateNanos = nowNanos;
+    }
+
+    /**
+     * 目前的延遲估計（奈秒），尚無樣本時為 -1
+     */
+    synchronized double latency(long nowNanos) {
+        if (!sampled) {
+            return -1;
+        }
+        return ewmaNanos * Math.exp(-(double) Math.max(0, nowNanos - lastUpdateNanos) / decayNanos);
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * slow start 權重，介於 minWeight 與 1 之間
+     */
+    double weight(long nowNanos, long slowStartNanos, double minWeight) {
+        long age = nowNanos - firstSeenNanos;
+        if (slowStartNanos <= 0 || age >= slowStartNanos) {
+            return 1.0;
+        }
+        return Math.max(minWeight, (double) age / slowStartNanos);
+    }
+}
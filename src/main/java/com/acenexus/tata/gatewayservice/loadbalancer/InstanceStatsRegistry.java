@@ -0,0 +1,85 @@
+package com.acenexus.tata.gatewayservice.loadbalancer;
+
+import com.acenexus.tata.gatewayservice.config.LoadBalancingProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 所有服務實例的負載統計，由 UpstreamTimingFilter 依閘道實際量到的後端延遲更新
+ * 以 serviceId/host:port 為 key，已下線的實例在閒置逾時後自動移除。
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final LoadBalancingProperties properties;
+    private final Cache<String, InstanceStats> stats;
+
+    public InstanceStatsRegistry(LoadBalancingProperties properties) {
+        this.properties = properties;
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getStatsIdleTimeout())
+                .build();
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String key = instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+        InstanceStats instanceStats = stats.getIfPresent(key);
+        if (instanceStats == null) {
+            instanceStats = stats.get(key, k -> new InstanceStats(System.nanoTime(),
+                    properties.getDecayTime().toNanos(), properties.getFailurePenalty().toNanos()));
+        }
+        return instanceStats;
+    }
+
+    /**
+     * Power of two choices：隨機取兩個實例，回傳成本較低者，沒有實例時回傳 null
+     * 成本 = 延遲估計 × (進行中請求數 + 1) / slow start 權重；
+     * 尚無延遲樣本的實例沿用另一個候選的延遲，只以進行中請求數與權重比較。
+     */
+    public ServiceInstance choose(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return instances.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return prefer(a, b) ? a : b;
+    }
+
+    /**
+     * a 的成本是否不高於 b
+     */
+    private boolean prefer(ServiceInstance a, ServiceInstance b) {
+        long now = System.nanoTime();
+        InstanceStats statsA = get(a);
+        InstanceStats statsB = get(b);
+        double latencyA = statsA.latency(now);
+        double latencyB = statsB.latency(now);
+        if (latencyA < 0) {
+            latencyA = Math.max(latencyB, 1);
+        }
+        if (latencyB < 0) {
+            latencyB = latencyA;
+        }
+        return cost(statsA, latencyA, now) <= cost(statsB, latencyB, now);
+    }
+
+    private double cost(InstanceStats instanceStats, double latency, long now) {
+        double weight = instanceStats.weight(now, properties.getSlowStart().toNanos(), properties.getSlowStartMinWeight());
+        return Math.max(latency, 1) * (instanceStats.outstanding() + 1) / weight;
+    }
+}
@@ -0,0 +1,177 @@
+package com.acenexus.tata.gatewayservice.metrics;
+
+import com.acenexus.tata.gatewayservice.config.MetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 閘道延遲指標
+ * 依路由與狀態碼類別（1xx ~ 5xx）輸出三組 Timer，皆含 p50/p95/p99/p999 百分位：
+ * - gateway.requests：整個 exchange 的處理時間
+ * - gateway.upstream.requests：轉送至後端到收到回應標頭的時間
+ * - gateway.auth：JwtAuthFilter 本身花費的時間
+ * 每條路由的 Meter 在第一次使用時建立並快取，之後每個請求只需一次 map 查詢與陣列索引，不會建立 tag 物件。
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String SLOW_REQUEST_THRESHOLD_METADATA = "slow-request-threshold";
+    public static final String UNKNOWN_ROUTE = "unknown";
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry meterRegistry;
+    private final MetricsProperties properties;
+    private final double[] percentiles;
+    private final ConcurrentMap<String, RouteMeters> routeMeters = new ConcurrentHashMap<>();
+
+    public GatewayMetrics(MeterRegistry meterRegistry, MetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * 取得路由對應的 Meter，route 為 null 時（未匹配任何路由）歸類為 unknown
+     */
+    public RouteMeters forRoute(Route route) {
+        String routeId = (route != null) ? route.getId() : UNKNOWN_ROUTE;
+        RouteMeters meters = routeMeters.get(routeId);
+        if (meters == null) {
+            meters = routeMeters.computeIfAbsent(routeId, id -> new RouteMeters(id, slowThreshold(route)));
+        }
+        return meters;
+    }
+
+    /**
+     * 路由重新載入後清除快取，讓 metadata 中的門檻設定重新生效；已註冊的 Meter 會由 registry 沿用
+     */
+    @EventListener
+    public void onRefreshRoutes(RefreshRoutesResultEvent event) {
+        routeMeters.clear();
+    }
+
+    /**
+     * 百分位是否列於 gateway.metrics.percentiles，未列出的百分位無法由 {@link RouteMeters#upstreamPercentileNanos} 取得
+     */
+    public boolean publishesPercentile(double percentile) {
+        for (double published : percentiles) {
+            if (published == percentile) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long slowThreshold(Route route) {
+        if (route != null) {
+            Object value = route.getMetadata().get(SLOW_REQUEST_THRESHOLD_METADATA);
+            if (value instanceof Number number) {
+                return TimeUnit.MILLISECONDS.toNanos(number.longValue());
+            }
+            if (value != null) {
+                return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value.toString().trim()));
+            }
+        }
+        return properties.getSlowRequestThreshold().toNanos();
+    }
+
+    private static int statusClassIndex(int status) {
+        int index = status / 100 - 1;
+        return (index < 0 || index > 4) ? 4 : index;
+    }
+
+    /**
+     * 單一路由預先建立的 Meter
+     */
+    public final class RouteMeters {
+
+        private final long slowThresholdNanos;
+        private final Timer[] requests = new Timer[STATUS_CLASSES.length];
+        private final Timer[] upstream = new Timer[STATUS_CLASSES.length];
+        private final Timer authAccepted;
+        private final Timer authRejected;
+        private final Counter slowRequests;
+
+        private RouteMeters(String routeId, long slowThresholdNanos) {
+            this.slowThresholdNanos = slowThresholdNanos;
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                requests[i] = timer("gateway.requests", "Full exchange latency per route", routeId)
+                        .tag("status", STATUS_CLASSES[i])
+                        .register(meterRegistry);
+                upstream[i] = timer("gateway.upstream.requests", "Latency to the upstream response headers per route", routeId)
+                        .tag("status", STATUS_CLASSES[i])
+                        .register(meterRegistry);
+            }
+            this.authAccepted = timer("gateway.auth", "Time spent in JwtAuthFilter", routeId)
+                    .tag("outcome", "accepted")
+                    .register(meterRegistry);
+            this.authRejected = timer("gateway.auth", "Time spent in JwtAuthFilter", routeId)
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry);
+            this.slowRequests = Counter.builder("gateway.requests.slow")
+                    .description("Requests slower than the route's slow-request threshold")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private Timer.Builder timer(String name, String description, String routeId) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("route", routeId)
+                    .publishPercentiles(percentiles)
+                    .publishPercentileHistogram(properties.isPercentileHistogram())
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30));
+        }
+
+        /**
+         * 記錄整個 exchange 的延遲，回傳是否超過慢請求門檻
+         */
+        public boolean recordRequest(int status, long durationNanos) {
+            requests[statusClassIndex(status)].record(durationNanos, TimeUnit.NANOSECONDS);
+            if (durationNanos > slowThresholdNanos) {
+                slowRequests.increment();
+                return true;
+            }
+            return false;
+        }
+
+        public void recordUpstream(int status, long durationNanos) {
+            upstream[statusClassIndex(status)].record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 後端 2xx 回應在最近統計視窗內的延遲百分位；未發布該百分位或視窗內沒有樣本時回傳 -1
+         * 每次呼叫都會產生 snapshot，呼叫端應自行快取
+         */
+        public long upstreamPercentileNanos(double percentile) {
+            for (ValueAtPercentile value : upstream[1].takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    double nanos = value.value(TimeUnit.NANOSECONDS);
+                    return (nanos > 0) ? (long) nanos : -1;
+                }
+            }
+            return -1;
+        }
+
+        public void recordAuth(boolean accepted, long durationNanos) {
+            (accepted ? authAccepted : authRejected).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public long slowThresholdNanos() {
+            return slowThresholdNanos;
+        }
+    }
+}
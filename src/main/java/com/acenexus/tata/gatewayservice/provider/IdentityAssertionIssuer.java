@@ -0,0 +1,108 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.IdentityProperties;
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.identity.IdentitySigner;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 簽發轉送給後端的身分標頭（格式見 identity-verifier 模組）
+ * 與 {@link JwtPrincipalCache} 相同以 Token 為 key 快取，同一個 Token 的後續請求直接使用已簽發的標頭：
+ * - 標頭到期時間為 min(JWT exp, 簽發時間 + max-ttl)
+ * - 快取資料在 min(JWT exp, 簽發時間 + max-ttl / 2) 失效，送出的標頭至少還有 max-ttl 的一半效期（JWT 即將到期時除外）
+ * - 命中、未命中、淘汰次數透過 Actuator metrics（cache.*, cache=identity.assertion）輸出
+ */
+@Component
+public class IdentityAssertionIssuer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityAssertionIssuer.class);
+    private static final String CACHE_NAME = "identity.assertion";
+
+    private final boolean enabled;
+    private final boolean cacheEnabled;
+    private final long maxTtlMillis;
+    private final IdentitySigner signer;
+    private final Cache<String, Issued> cache;
+
+    public IdentityAssertionIssuer(IdentityProperties properties, JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cacheEnabled = jwtProperties.getCache().isEnabled();
+        this.maxTtlMillis = properties.getMaxTtl().toMillis();
+        this.signer = new IdentitySigner(properties.getKeyId(), secret(properties));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getCache().getMaximumSize())
+                .expireAfter(new ExpireAtRefresh())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 取得 Token 對應的身分標頭，principal 需已通過驗證
+     */
+    public String issue(String token, JwtPrincipal principal) {
+        if (!cacheEnabled) {
+            return sign(principal).value();
+        }
+        return cache.get(token, key -> sign(principal)).value();
+    }
+
+    private Issued sign(JwtPrincipal principal) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(principal.expiresAt(), now + maxTtlMillis);
+        String value = signer.sign(principal.subject(), principal.userName(), TimeUnit.MILLISECONDS.toSeconds(expiresAt));
+        return new Issued(value, Math.min(principal.expiresAt(), now + maxTtlMillis / 2));
+    }
+
+    private static byte[] secret(IdentityProperties properties) {
+        if (StringUtils.hasText(properties.getSecret())) {
+            return Base64.getDecoder().decode(properties.getSecret().trim());
+        }
+        if (properties.isEnabled()) {
+            log.warn("No gateway.identity.secret configured, using a random key: backends cannot verify identity assertions from this instance");
+        }
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    /**
+     * @param refreshAt 快取失效時間（epoch millis）
+     */
+    private record Issued(String value, long refreshAt) {
+    }
+
+    private static final class ExpireAtRefresh implements Expiry<String, Issued> {
+
+        @Override
+        public long expireAfterCreate(String token, Issued issued, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, issued.refreshAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Issued issued, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, issued, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Issued issued, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
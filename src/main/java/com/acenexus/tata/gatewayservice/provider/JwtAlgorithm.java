@@ -0,0 +1,33 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * 支援的 JWS 簽章演算法
+ */
+public enum JwtAlgorithm {
+
+    HS256("HmacSHA256", SignatureAlgorithm.HS256),
+    RS256("SHA256withRSA", SignatureAlgorithm.RS256),
+    ES256("SHA256withECDSAinP1363Format", SignatureAlgorithm.ES256); // JWS 使用 R||S 格式，不是 DER
+
+    private final String jcaName;
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    JwtAlgorithm(String jcaName, SignatureAlgorithm signatureAlgorithm) {
+        this.jcaName = jcaName;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    String jcaName() {
+        return jcaName;
+    }
+
+    SignatureAlgorithm signatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    boolean isHmac() {
+        return this == HS256;
+    }
+}
@@ -0,0 +1,318 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 輕量的 JWT JSON 掃描器
+ * 只處理單層 JSON 物件，依序掃描欄位並只取出閘道需要的值，其餘欄位直接略過，不建立 Map 或 JsonNode。
+ * 格式錯誤時拋出 {@link JwtVerificationException}（MALFORMED）。
+ */
+final class JwtClaimScanner {
+
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] KID = ascii("kid");
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] USER_NAME = ascii("userName");
+    private static final byte[] TYPE = ascii("type");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] JTI = ascii("jti");
+
+    private final byte[] buf;
+    private final int end;
+    private int pos;
+
+    // header
+    String alg;
+    String kid;
+
+    // payload
+    String subject;
+    String userName;
+    String type;
+    long expiresAt = -1; // epoch seconds
+    String tokenId;
+
+    private JwtClaimScanner(byte[] buf, int length) {
+        this.buf = buf;
+        this.end = length;
+    }
+
+    /**
+     * 掃描 JOSE header，取出 alg、kid
+     */
+    static JwtClaimScanner scanHeader(byte[] buf, int length) {
+        JwtClaimScanner scanner = new JwtClaimScanner(buf, length);
+        scanner.scanObject(true);
+        return scanner;
+    }
+
+    /**
+     * 掃描 payload，取出 sub、userName、type、exp、jti
+     */
+    static JwtClaimScanner scanPayload(byte[] buf, int length) {
+        JwtClaimScanner scanner = new JwtClaimScanner(buf, length);
+        scanner.scanObject(false);
+        return scanner;
+    }
+
+    private void scanObject(boolean header) {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int keyStart = pos;
+            int keyEnd = skipStringBody();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+
+            if (header && keyEquals(keyStart, keyEnd, ALG)) {
+                alg = readString();
+            } else if (header && keyEquals(keyStart, keyEnd, KID)) {
+                kid = readString();
+            } else if (!header && keyEquals(keyStart, keyEnd, SUB)) {
+                subject = readString();
+            } else if (!header && keyEquals(keyStart, keyEnd, USER_NAME)) {
+                userName = readString();
+            } else if (!header && keyEquals(keyStart, keyEnd, TYPE)) {
+                type = readString();
+            } else if (!header && keyEquals(keyStart, keyEnd, EXP)) {
+                expiresAt = readLong();
+            } else if (!header && keyEquals(keyStart, keyEnd, JTI)) {
+                tokenId = readString();
+            } else {
+                skipValue();
+            }
+
+            skipWhitespace();
+            byte c = next();
+            if (c == '}') {
+                break;
+            }
+            if (c != ',') {
+                throw malformed();
+            }
+        }
+        skipWhitespace();
+        if (pos != end) {
+            throw malformed();
+        }
+    }
+
+    private boolean keyEquals(int start, int endExclusive, byte[] key) {
+        int length = endExclusive - start;
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 讀取 JSON 字串值；null 值回傳 null
+     */
+    private String readString() {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        expect('"');
+        int start = pos;
+        while (pos < end) {
+            byte c = buf[pos];
+            if (c == '"') {
+                String value = new String(buf, start, pos - start, StandardCharsets.UTF_8);
+                pos++;
+                return value;
+            }
+            if (c == '\\') {
+                return readEscapedString(start);
+            }
+            pos++;
+        }
+        throw malformed();
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder sb = new StringBuilder(new String(buf, start, pos - start, StandardCharsets.UTF_8));
+        int chunkStart = pos;
+        while (pos < end) {
+            byte c = buf[pos];
+            if (c == '"') {
+                sb.append(new String(buf, chunkStart, pos - chunkStart, StandardCharsets.UTF_8));
+                pos++;
+                return sb.toString();
+            }
+            if (c != '\\') {
+                pos++;
+                continue;
+            }
+            sb.append(new String(buf, chunkStart, pos - chunkStart, StandardCharsets.UTF_8));
+            pos++;
+            byte escaped = next();
+            switch (escaped) {
+                case '"' -> sb.append('"');
+                case '\\' -> sb.append('\\');
+                case '/' -> sb.append('/');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> sb.append(readHexChar());
+                default -> throw malformed();
+            }
+            chunkStart = pos;
+        }
+        throw malformed();
+    }
+
+    private char readHexChar() {
+        if (pos + 4 > end) {
+            throw malformed();
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(buf[pos++], 16);
+            if (digit < 0) {
+                throw malformed();
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * 讀取整數（NumericDate，單位為秒）
+     */
+    private long readLong() {
+        int start = pos;
+        long value = 0;
+        while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+            if (pos - start >= 18) {
+                throw malformed();
+            }
+            value = value * 10 + (buf[pos] - '0');
+            pos++;
+        }
+        if (pos == start) {
+            throw malformed();
+        }
+        // 容許小數秒，直接捨去
+        if (pos < end && buf[pos] == '.') {
+            pos++;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                pos++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 略過任意 JSON 值（包含巢狀物件與陣列）
+     */
+    private void skipValue() {
+        byte c = peek();
+        if (c == '"') {
+            pos++;
+            skipStringBody();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < end) {
+                byte b = buf[pos++];
+                if (b == '"') {
+                    skipStringBody();
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    if (--depth == 0) {
+                        return;
+                    }
+                }
+            }
+            throw malformed();
+        } else {
+            int start = pos;
+            while (pos < end) {
+                byte b = buf[pos];
+                if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) {
+                    break;
+                }
+                pos++;
+            }
+            if (pos == start) {
+                throw malformed();
+            }
+        }
+    }
+
+    /**
+     * 從開頭引號之後略過到結尾引號，回傳字串內容的結束位置（不含引號）
+     */
+    private int skipStringBody() {
+        while (pos < end) {
+            byte c = buf[pos];
+            if (c == '"') {
+                return pos++;
+            }
+            pos += (c == '\\') ? 2 : 1;
+        }
+        throw malformed();
+    }
+
+    private void expectLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw malformed();
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(buf[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw malformed();
+        }
+    }
+
+    private byte peek() {
+        if (pos >= end) {
+            throw malformed();
+        }
+        return buf[pos];
+    }
+
+    private byte next() {
+        if (pos >= end) {
+            throw malformed();
+        }
+        return buf[pos++];
+    }
+
+    private static JwtVerificationException malformed() {
+        return JwtVerificationException.of(JwtVerificationException.Reason.MALFORMED);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,240 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 金鑰環中的一把金鑰
+ * 驗證用的 Mac / Signature 在建立時即初始化，每個執行緒各持有一份並重複使用，驗證時不需再查找或初始化。
+ */
+public final class JwtKey {
+
+    private static final int HMAC_MIN_BYTES = 32;
+
+    private final String id;
+    private final JwtAlgorithm algorithm;
+    private final Key signingKey;      // 可為 null（只驗證）
+    private final Key verificationKey;
+    private final Instant signingFrom; // 可為 null（立即）
+    private final Instant verifyUntil; // 可為 null（不限）
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<Signature> signatures;
+
+    private JwtKey(String id, JwtAlgorithm algorithm, Key signingKey, Key verificationKey,
+                   Instant signingFrom, Instant verifyUntil) {
+        this.id = id;
+        this.algorithm = algorithm;
+        this.signingKey = signingKey;
+        this.verificationKey = verificationKey;
+        this.signingFrom = signingFrom;
+        this.verifyUntil = verifyUntil;
+        if (algorithm.isHmac()) {
+            this.macs = ThreadLocal.withInitial(this::newMac);
+            this.signatures = null;
+            newMac(); // 啟動時即確認金鑰可用
+        } else {
+            this.macs = null;
+            this.signatures = ThreadLocal.withInitial(this::newSignature);
+            newSignature();
+        }
+    }
+
+    /**
+     * HS256 金鑰，同時用於簽發與驗證
+     */
+    public static JwtKey hmac(String id, Key secret) {
+        return new JwtKey(id, JwtAlgorithm.HS256, secret, secret, null, null);
+    }
+
+    /**
+     * RS256 / ES256 金鑰；privateKey 為 null 時只能驗證
+     */
+    public static JwtKey asymmetric(String id, JwtAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        if (algorithm.isHmac()) {
+            throw new IllegalArgumentException("Not an asymmetric algorithm: " + algorithm);
+        }
+        return new JwtKey(id, algorithm, privateKey, publicKey, null, null);
+    }
+
+    /**
+     * 依設定建立金鑰，金鑰內容可為 file: / classpath: 位置
+     */
+    static JwtKey from(JwtProperties.Key properties, ResourceLoader resourceLoader) {
+        String id = properties.getId();
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("JWT key id must not be blank");
+        }
+        JwtAlgorithm algorithm;
+        try {
+            algorithm = JwtAlgorithm.valueOf(properties.getAlgorithm().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported algorithm for JWT key '" + id + "': " + properties.getAlgorithm());
+        }
+        try {
+            Key signingKey;
+            Key verificationKey;
+            if (algorithm.isHmac()) {
+                byte[] secret = Base64.getDecoder().decode(required(properties.getSecret(), id, "secret", resourceLoader).trim());
+                if (secret.length < HMAC_MIN_BYTES) {
+                    throw new IllegalArgumentException("JWT key '" + id + "' secret must be at least 256 bits");
+                }
+                signingKey = verificationKey = new SecretKeySpec(secret, algorithm.jcaName());
+            } else {
+                KeyFactory keyFactory = KeyFactory.getInstance(algorithm == JwtAlgorithm.RS256 ? "RSA" : "EC");
+                verificationKey = keyFactory.generatePublic(new X509EncodedKeySpec(
+                        der(required(properties.getPublicKey(), id, "public-key", resourceLoader))));
+                String privateKey = read(properties.getPrivateKey(), resourceLoader);
+                signingKey = (privateKey != null) ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(der(privateKey))) : null;
+            }
+            return new JwtKey(id, algorithm, signingKey, verificationKey, properties.getSigningFrom(), properties.getVerifyUntil());
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalArgumentException("Invalid JWT key '" + id + "': " + e.getMessage(), e);
+        }
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public JwtAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 簽發用金鑰，只驗證的金鑰為 null
+     */
+    public Key signingKey() {
+        return signingKey;
+    }
+
+    public Key verificationKey() {
+        return verificationKey;
+    }
+
+    Instant signingFrom() {
+        return signingFrom;
+    }
+
+    /**
+     * 此時間點是否可用於簽發
+     */
+    boolean canSign(long nowMillis) {
+        return signingKey != null
+                && (signingFrom == null || signingFrom.toEpochMilli() <= nowMillis)
+                && canVerify(nowMillis);
+    }
+
+    /**
+     * 此時間點是否仍接受此金鑰簽發的 Token
+     */
+    boolean canVerify(long nowMillis) {
+        return verifyUntil == null || nowMillis < verifyUntil.toEpochMilli();
+    }
+
+    /**
+     * 驗證 data[0, dataLength) 的簽章
+     */
+    boolean verify(byte[] data, int dataLength, byte[] signature, int signatureLength, byte[] scratch) {
+        if (algorithm.isHmac()) {
+            Mac mac = macs.get();
+            int macLength = mac.getMacLength();
+            if (signatureLength != macLength || scratch.length < macLength) {
+                return false;
+            }
+            try {
+                mac.update(data, 0, dataLength);
+                mac.doFinal(scratch, 0);
+            } catch (GeneralSecurityException e) {
+                mac.reset();
+                return false;
+            }
+            int result = 0;
+            for (int i = 0; i < macLength; i++) {
+                result |= scratch[i] ^ signature[i];
+            }
+            return result == 0;
+        }
+        Signature verifier = signatures.get();
+        try {
+            verifier.update(data, 0, dataLength);
+            return verifier.verify(signature, 0, signatureLength);
+        } catch (SignatureException e) {
+            return false; // 簽章格式錯誤，Signature 已自動重置
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(algorithm.jcaName());
+            mac.init(verificationKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + algorithm.jcaName() + " for key " + id, e);
+        }
+    }
+
+    private Signature newSignature() {
+        try {
+            Signature signature = Signature.getInstance(algorithm.jcaName());
+            signature.initVerify((PublicKey) verificationKey);
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + algorithm.jcaName() + " for key " + id, e);
+        }
+    }
+
+    private static String required(String value, String id, String name, ResourceLoader resourceLoader) throws IOException {
+        String content = read(value, resourceLoader);
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("JWT key '" + id + "' requires " + name);
+        }
+        return content;
+    }
+
+    /**
+     * file: / classpath: 開頭時讀取檔案內容，否則直接回傳
+     */
+    private static String read(String value, ResourceLoader resourceLoader) throws IOException {
+        if (value == null || !(value.startsWith("file:") || value.startsWith("classpath:"))) {
+            return value;
+        }
+        Resource resource = resourceLoader.getResource(value);
+        return resource.getContentAsString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * PEM 或 Base64 DER 轉為 DER
+     */
+    private static byte[] der(String pemOrBase64) {
+        StringBuilder base64 = new StringBuilder(pemOrBase64.length());
+        for (String line : pemOrBase64.split("\\R")) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith("-----")) {
+                base64.append(trimmed);
+            }
+        }
+        return Base64.getDecoder().decode(base64.toString());
+    }
+
+    @Override
+    public String toString() {
+        return "JwtKey[" + id + ", " + algorithm + (signingKey != null ? ", signing" : "") + "]";
+    }
+}
@@ -0,0 +1,168 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JWT 簽章金鑰環
+ * 所有節點載入相同的 gateway.jwt.keys，任一節點簽發的 Token 都能在其他節點離線驗證：
+ * - 簽發時使用 signing-from 已到且最晚的金鑰，並將其 id 寫入 header 的 kid
+ * - 驗證時依 kid 以 HashMap 取得預先初始化的金鑰，O(1) 且不需網路呼叫
+ * - 新舊金鑰可同時存在，舊金鑰到 verify-until 後不再接受
+ * 設定中心 refresh 後重新載入並整批替換，載入失敗時保留原本的金鑰環；替換後通知 {@link #onReload} 註冊的對象（例如清除驗證結果快取）。
+ * 未設定任何金鑰時只有 local profile 會改用隨機金鑰，其他環境啟動失敗。
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final Instant ALWAYS = Instant.EPOCH;
+    private static final String LOCAL_PROFILE = "local";
+
+    private final Environment environment;
+    private final ResourceLoader resourceLoader;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public JwtKeyRing(JwtProperties jwtProperties, Environment environment, ResourceLoader resourceLoader) {
+        this.environment = environment;
+        this.resourceLoader = resourceLoader;
+        this.snapshot = load(jwtProperties);
+    }
+
+    private JwtKeyRing(List<JwtKey> keys) {
+        this.environment = null;
+        this.resourceLoader = null;
+        this.snapshot = Snapshot.of(keys);
+    }
+
+    /**
+     * 以指定的金鑰建立金鑰環，不隨設定變更
+     */
+    public static JwtKeyRing of(JwtKey... keys) {
+        return new JwtKeyRing(List.of(keys));
+    }
+
+    /**
+     * 依 kid 取得驗證用金鑰；Token 沒有 kid 時使用目前的簽發金鑰。找不到或已退役時回傳 null
+     */
+    public JwtKey find(String kid) {
+        long now = System.currentTimeMillis();
+        JwtKey key = (kid != null) ? snapshot.byId().get(kid) : signingKey(now);
+        return (key != null && key.canVerify(now)) ? key : null;
+    }
+
+    /**
+     * 目前用於簽發的金鑰
+     *
+     * @throws IllegalStateException 沒有可簽發的金鑰（例如只設定了公鑰）
+     */
+    public JwtKey signingKey() {
+        JwtKey key = signingKey(System.currentTimeMillis());
+        if (key == null) {
+            throw new IllegalStateException("No JWT signing key is active");
+        }
+        return key;
+    }
+
+    /**
+     * 金鑰環重新載入後執行
+     */
+    public void onReload(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * 金鑰是否仍屬於目前的金鑰環且未退役
+     */
+    boolean isActive(JwtKey key, long nowMillis) {
+        return snapshot.byId().get(key.id()) == key && key.canVerify(nowMillis);
+    }
+
+    private JwtKey signingKey(long nowMillis) {
+        for (JwtKey key : snapshot.signingOrder()) {
+            if (key.canSign(nowMillis)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (environment == null) {
+            return;
+        }
+        boolean changed = event.getKeys().stream().anyMatch(key -> key.startsWith(JwtProperties.PREFIX + ".keys"));
+        if (!changed) {
+            return;
+        }
+        JwtProperties properties = Binder.get(environment).bindOrCreate(JwtProperties.PREFIX, JwtProperties.class);
+        try {
+            snapshot = load(properties);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid JWT keys, keeping previous key ring: {}", e.getMessage());
+            return;
+        }
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    private Snapshot load(JwtProperties properties) {
+        List<JwtKey> keys = new ArrayList<>();
+        for (JwtProperties.Key key : properties.getKeys()) {
+            keys.add(JwtKey.from(key, resourceLoader));
+        }
+        if (keys.isEmpty()) {
+            if (!environment.acceptsProfiles(Profiles.of(LOCAL_PROFILE))) {
+                throw new IllegalArgumentException("No gateway.jwt.keys configured: every instance must share the same signing keys");
+            }
+            log.warn("No gateway.jwt.keys configured, using a random key: tokens are only valid on this instance until it restarts");
+            keys.add(JwtKey.hmac("ephemeral-" + UUID.randomUUID(), Keys.secretKeyFor(SignatureAlgorithm.HS256)));
+        }
+        Snapshot loaded = Snapshot.of(keys);
+        log.info("JWT key ring loaded: {}", keys);
+        return loaded;
+    }
+
+    /**
+     * @param byId         kid → 金鑰
+     * @param signingOrder 依 signing-from 由晚到早排序的可簽發金鑰
+     */
+    private record Snapshot(Map<String, JwtKey> byId, List<JwtKey> signingOrder) {
+
+        static Snapshot of(List<JwtKey> keys) {
+            Map<String, JwtKey> byId = new HashMap<>();
+            for (JwtKey key : keys) {
+                if (byId.putIfAbsent(key.id(), key) != null) {
+                    throw new IllegalArgumentException("Duplicate JWT key id: " + key.id());
+                }
+            }
+            List<JwtKey> signingOrder = keys.stream()
+                    .filter(key -> key.signingKey() != null)
+                    .sorted(Comparator.comparing((JwtKey key) -> key.signingFrom() != null ? key.signingFrom() : ALWAYS).reversed())
+                    .toList();
+            return new Snapshot(Map.copyOf(byId), signingOrder);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+/**
+ * 驗證通過的 JWT 身分資訊
+ *
+ * @param subject   使用者 ID（sub）
+ * @param userName  使用者名稱
+ * @param type      Token 類型，Refresh Token 為 "refresh"，Access Token 為 null
+ * @param expiresAt 到期時間（epoch millis）
+ * @param tokenId   Token ID（jti），用於撤銷；舊版 Token 沒有此欄位時為 null
+ * @param keyId     驗證簽章所用金鑰的 id，快取命中時據此確認金鑰仍有效；不是由金鑰環驗證時為 null
+ */
+public record JwtPrincipal(String subject, String userName, String type, long expiresAt, String tokenId, String keyId) {
+
+    public JwtPrincipal(String subject, String userName, String type, long expiresAt) {
+        this(subject, userName, type, expiresAt, null, null);
+    }
+
+    public JwtPrincipal(String subject, String userName, String type, long expiresAt, String tokenId) {
+        this(subject, userName, type, expiresAt, tokenId, null);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+}
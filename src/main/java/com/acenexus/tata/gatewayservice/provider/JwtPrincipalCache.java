@@ -0,0 +1,91 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 已驗證 Token 的快取
+ * 同一個 Access Token 在效期內會被重複使用，快取驗證結果可省去每次請求的解析與簽章驗證。
+ * - 以 Token 本身為 key，容量上限由 gateway.jwt.cache.maximum-size 控制（W-TinyLFU 淘汰）
+ * - 每筆資料最晚在 Token 的 exp 時失效
+ * - 命中時確認簽章金鑰仍在金鑰環中且未過 verify-until，金鑰環重新載入時清空，移除金鑰即可讓其簽發的 Token 失效
+ * - 驗證失敗的 Token 不會被快取
+ * - 命中、未命中、淘汰次數透過 Actuator metrics（cache.*, cache=jwt.principal）輸出
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private static final String CACHE_NAME = "jwt.principal";
+
+    private final boolean enabled;
+    private final JwtKeyRing keyRing;
+    private final Cache<String, JwtPrincipal> cache;
+
+    public JwtPrincipalCache(JwtProperties jwtProperties, JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        JwtProperties.Cache properties = jwtProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.keyRing = keyRing;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new ExpireAtTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        keyRing.onReload(cache::invalidateAll);
+    }
+
+    /**
+     * 取得 Token 對應的身分資訊，未命中時呼叫 verifier 驗證並放入快取
+     * verifier 拋出的例外會直接往外拋，且不會留下快取資料
+     */
+    public JwtPrincipal get(String token, Function<String, JwtPrincipal> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+        JwtPrincipal principal = cache.get(token, verifier);
+        if (principal.isExpired(System.currentTimeMillis())
+                || (principal.keyId() != null && keyRing.find(principal.keyId()) == null)) {
+            cache.invalidate(token);
+            return verifier.apply(token);
+        }
+        return principal;
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 讓每筆快取資料在 Token 到期時失效
+     */
+    private static final class ExpireAtTokenExpiration implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, JwtPrincipal principal, long currentTime) {
+            long remainingMillis = principal.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,17 +1,20 @@
 package com.acenexus.tata.gatewayservice.provider;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * JWT 登入驗證流程
@@ -25,84 +28,134 @@ import java.util.Map;
 @Component
 public class JwtTokenProvider {
     private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
-    private static final Key signingKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
     private static final long ACCESS_TOKEN_EXPIRATION = 15 * 60 * 1000; // 15 minutes
-    private static final long REFRESH_TOKEN_EXPIRATION = 7 * 24 * 60 * 60 * 1000; // 7 days
+
+    /**
+     * Refresh Token 效期，也是本閘道簽發之 Token 的最長效期；撤銷清單的保留時間不會超過此值
+     */
+    public static final long REFRESH_TOKEN_EXPIRATION = 7 * 24 * 60 * 60 * 1000; // 7 days
+
+    private static final Base64.Encoder TOKEN_ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtKeyRing keyRing;
+    private final JwtParser jwtParser;
+    private final JwtVerifier jwtVerifier;
+
+    public JwtTokenProvider(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new KeyRingResolver(keyRing)).build();
+        this.jwtVerifier = new JwtVerifier(keyRing);
+    }
 
     public String generateAccessToken(Long userId, String username) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userName", username);
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(String.valueOf(userId))
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRATION))
-                .signWith(signingKey, SignatureAlgorithm.HS256)
-                .compact();
+        return sign(claims, String.valueOf(userId), ACCESS_TOKEN_EXPIRATION);
     }
 
     public String generateRefreshToken(Long userId, String username) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
         claims.put("userName", username);
+        return sign(claims, String.valueOf(userId), REFRESH_TOKEN_EXPIRATION);
+    }
+
+    /**
+     * 128 bits 隨機 Token ID（Base64URL），只需唯一、不需保密，不使用會競爭的 SecureRandom
+     */
+    private static String newTokenId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        return TOKEN_ID_ENCODER.encodeToString(id);
+    }
+
+    /**
+     * 以金鑰環目前的簽發金鑰簽章，並在 header 寫入 kid
+     */
+    private String sign(Map<String, Object> claims, String subject, long expirationMillis) {
+        JwtKey key = keyRing.signingKey();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.id())
                 .setClaims(claims)
-                .setSubject(String.valueOf(userId))
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRATION))
-                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .setId(newTokenId())
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis))
+                .signWith(key.signingKey(), key.algorithm().signatureAlgorithm())
                 .compact();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return !isTokenExpired(token);
+            verify(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
+    public Claims extractAllClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * 驗證 Token（簽章與效期）並取出身分資訊，只解析一次，供請求熱路徑使用
+     *
+     * @throws JwtVerificationException 驗證失敗
+     */
+    public JwtPrincipal verify(String token) {
+        return jwtVerifier.verify(token);
     }
 
     public Long extractUserId(String token) {
-        String userIdStr = extractAllClaims(token).getSubject();
-        return Long.valueOf(userIdStr);
+        return Long.valueOf(verify(token).subject());
     }
 
     public String extractUserName(String token) {
-        return extractAllClaims(token).get("userName", String.class);
+        return verify(token).userName();
     }
 
     public String refreshAccessToken(String refreshToken) {
-        if (!validateToken(refreshToken)) {
+        JwtPrincipal principal = verifyRefreshToken(refreshToken);
+        return generateAccessToken(Long.valueOf(principal.subject()), principal.userName());
+    }
+
+    /**
+     * 驗證 Refresh Token 並回傳其身分資訊
+     */
+    public JwtPrincipal verifyRefreshToken(String refreshToken) {
+        JwtPrincipal principal;
+        try {
+            principal = verify(refreshToken);
+        } catch (JwtVerificationException e) {
             throw new RuntimeException("Invalid or expired refresh token");
         }
-        Claims claims = extractAllClaims(refreshToken);
-        String type = claims.get("type", String.class);
-        if (!"refresh".equals(type)) {
+        if (!principal.isRefreshToken()) {
             throw new RuntimeException("Not a refresh token");
         }
-        Long userId = extractUserId(refreshToken);
-        String userName = claims.get("userName", String.class);
-        return generateAccessToken(userId, userName);
+        return principal;
     }
 
+    /**
+     * 讓 jjwt 依 kid 從金鑰環取得驗證金鑰
+     */
+    private static final class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        private final JwtKeyRing keyRing;
+
+        private KeyRingResolver(JwtKeyRing keyRing) {
+            this.keyRing = keyRing;
+        }
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            JwtKey key = keyRing.find(header.getKeyId());
+            if (key == null) {
+                throw JwtVerificationException.of(JwtVerificationException.Reason.UNKNOWN_KEY);
+            }
+            return key.verificationKey();
+        }
+    }
 }
\ No newline at end of file
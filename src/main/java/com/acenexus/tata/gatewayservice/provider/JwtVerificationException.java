@@ -0,0 +1,47 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+/**
+ * Token 驗證失敗
+ * 每種失敗原因只有一個共用實例，不記錄 stack trace 也不接受 suppressed 例外，驗證失敗時不需要額外配置物件
+ * 不繼承 jjwt 的 JwtException（沒有可關閉 suppression 的建構子），呼叫端需明確 catch 此例外
+ */
+public final class JwtVerificationException extends RuntimeException {
+
+    public enum Reason {
+        MALFORMED("Malformed token"),
+        UNSUPPORTED_ALGORITHM("Unsupported signing algorithm"),
+        UNKNOWN_KEY("Unknown or retired signing key"),
+        INVALID_SIGNATURE("Invalid token signature"),
+        EXPIRED("Token expired"),
+        REVOKED("Token revoked");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+    }
+
+    private static final JwtVerificationException[] INSTANCES = new JwtVerificationException[Reason.values().length];
+
+    static {
+        for (Reason reason : Reason.values()) {
+            INSTANCES[reason.ordinal()] = new JwtVerificationException(reason);
+        }
+    }
+
+    private final Reason reason;
+
+    private JwtVerificationException(Reason reason) {
+        super(reason.message, null, false, false);
+        this.reason = reason;
+    }
+
+    public static JwtVerificationException of(Reason reason) {
+        return INSTANCES[reason.ordinal()];
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
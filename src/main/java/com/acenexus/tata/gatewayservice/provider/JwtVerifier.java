@@ -0,0 +1,165 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException.Reason;
+
+import java.security.Key;
+import java.util.Arrays;
+
+/**
+ * Token 驗證器
+ * 專供請求熱路徑使用，一次掃描完成簽章、效期與欄位的驗證：
+ * - 依 header 的 kid 從 {@link JwtKeyRing} 取得預先初始化的金鑰（HS256 / RS256 / ES256）
+ * - 每個執行緒持有自己的緩衝區，可跨請求重複使用，整個實例為 thread-safe
+ * - Base64URL 直接解碼到重用的緩衝區
+ * - 只取出 sub、userName、type、exp、jti，不經過 jjwt-jackson 的 Claims Map
+ */
+public final class JwtVerifier {
+
+    private static final int MAX_TOKEN_LENGTH = 8 * 1024;
+    private static final int MAX_SIGNATURE_LENGTH = 512; // RSA 4096
+
+    private static final byte[] BASE64URL_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final JwtKeyRing keyRing;
+    private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+    // 最近一次驗證通過的 header 區段與其金鑰，header 幾乎固定，相同時可略過解碼與查找
+    private volatile TrustedHeader trustedHeader;
+
+    public JwtVerifier(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * 只有單一 HS256 金鑰的驗證器，不檢查 kid
+     */
+    public JwtVerifier(Key key) {
+        this(JwtKeyRing.of(JwtKey.hmac("default", key)));
+    }
+
+    /**
+     * 驗證 Token 並回傳身分資訊
+     *
+     * @throws JwtVerificationException 格式錯誤、演算法不符、金鑰不存在、簽章錯誤或已過期
+     */
+    public JwtPrincipal verify(String token) {
+        int length = token.length();
+        if (length == 0 || length > MAX_TOKEN_LENGTH) {
+            throw JwtVerificationException.of(Reason.MALFORMED);
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || secondDot == firstDot + 1
+                || secondDot == length - 1 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw JwtVerificationException.of(Reason.MALFORMED);
+        }
+
+        Context context = contexts.get();
+        byte[] buffer = context.buffer;
+        long now = System.currentTimeMillis();
+
+        // 1. header：依 kid 取得金鑰，alg 必須與金鑰一致
+        TrustedHeader trusted = trustedHeader;
+        boolean headerTrusted = trusted != null && trusted.segment.length() == firstDot
+                && token.startsWith(trusted.segment) && keyRing.isActive(trusted.key, now);
+        JwtKey key = headerTrusted ? trusted.key : resolveKey(token, firstDot, buffer);
+
+        // 2. 簽章：對 header.payload 的 ASCII 位元組驗證簽章
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7F) {
+                throw JwtVerificationException.of(Reason.MALFORMED);
+            }
+            buffer[i] = (byte) c;
+        }
+        int signatureLength = decode(token, secondDot + 1, length, context.signature);
+        if (signatureLength <= 0 || !key.verify(buffer, secondDot, context.signature, signatureLength, context.scratch)) {
+            throw JwtVerificationException.of(Reason.INVALID_SIGNATURE);
+        }
+
+        // 3. payload：只掃描需要的欄位
+        int payloadLength = decode(token, firstDot + 1, secondDot, buffer);
+        if (payloadLength < 0) {
+            throw JwtVerificationException.of(Reason.MALFORMED);
+        }
+        JwtClaimScanner claims = JwtClaimScanner.scanPayload(buffer, payloadLength);
+        if (claims.subject == null || claims.expiresAt < 0) {
+            throw JwtVerificationException.of(Reason.MALFORMED);
+        }
+        long expiresAtMillis = claims.expiresAt * 1000;
+        if (expiresAtMillis <= now) {
+            throw JwtVerificationException.of(Reason.EXPIRED);
+        }
+        if (!headerTrusted) {
+            trustedHeader = new TrustedHeader(token.substring(0, firstDot), key); // 簽章驗證通過後才記住
+        }
+        return new JwtPrincipal(claims.subject, claims.userName, claims.type, expiresAtMillis, claims.tokenId, key.id());
+    }
+
+    private JwtKey resolveKey(String token, int firstDot, byte[] buffer) {
+        int headerLength = decode(token, 0, firstDot, buffer);
+        if (headerLength < 0) {
+            throw JwtVerificationException.of(Reason.MALFORMED);
+        }
+        JwtClaimScanner header = JwtClaimScanner.scanHeader(buffer, headerLength);
+        JwtKey key = keyRing.find(header.kid);
+        if (key == null) {
+            throw JwtVerificationException.of(Reason.UNKNOWN_KEY);
+        }
+        if (!key.algorithm().name().equals(header.alg)) {
+            throw JwtVerificationException.of(Reason.UNSUPPORTED_ALGORITHM);
+        }
+        return key;
+    }
+
+    /**
+     * 將 Base64URL（無 padding）區段解碼至 dst，回傳解碼後長度；字元不合法或 dst 不足時回傳 -1
+     */
+    static int decode(CharSequence src, int from, int to, byte[] dst) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int decodedLength = length / 4 * 3 + Math.max(0, length % 4 - 1);
+        if (decodedLength > dst.length) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = src.charAt(i);
+            int value = c < 128 ? BASE64URL_DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                dst[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+
+    private record TrustedHeader(String segment, JwtKey key) {
+    }
+
+    /**
+     * 每個執行緒重用的緩衝區
+     */
+    private static final class Context {
+        private final byte[] buffer = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] signature = new byte[MAX_SIGNATURE_LENGTH];
+        private final byte[] scratch = new byte[MAX_SIGNATURE_LENGTH];
+    }
+}
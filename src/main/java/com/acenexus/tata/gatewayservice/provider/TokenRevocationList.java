@@ -0,0 +1,284 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已撤銷 Token 的清單（以 jti 識別）
+ * - 查詢先經過 Bloom filter，絕大多數未撤銷的 Token 只需計算一次雜湊即可放行，不需查詢雜湊表
+ * - 每筆資料保留到 Token 原本的 exp（最長為 Refresh Token 效期），過期後定期移除並重建 Bloom filter
+ * - 數量達到 max-entries 時先移除最早到期的 1%，新的撤銷一定會記錄，Refresh Token 換發不會因清單已滿而失敗；
+ *   超過 Bloom filter 容量時立即以兩倍容量重建，誤判率不會隨數量上升
+ * - 可設定快照檔，啟動時載入，定期與關閉時寫回（每行 jti\tepoch millis）
+ * - 清單只存在本節點記憶體中，多節點部署時需各節點分別撤銷，或透過快照檔同步；
+ *   Refresh Token 重複使用的偵測也只在同一節點有效
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    /**
+     * 每筆資料約佔的記憶體：ConcurrentHashMap Node、table slot、jti 字串（22 字元）與 Long
+     */
+    static final long ENTRY_BYTES = 32 + 8 + 24 + 40 + 16;
+
+    private final JwtProperties.Revocation properties;
+    private final Path snapshotFile;
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private final Counter evicted;
+
+    private volatile BloomFilter bloom;
+    private int bloomCapacity; // 只在 writeLock 內存取
+    private volatile boolean dirty;
+    private ScheduledExecutorService purger;
+
+    public TokenRevocationList(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.properties = jwtProperties.getRevocation();
+        String file = properties.getSnapshotFile();
+        this.snapshotFile = (file != null && !file.isBlank()) ? Path.of(file) : null;
+        this.bloomCapacity = properties.getExpectedEntries();
+        this.bloom = new BloomFilter(bloomCapacity, properties.getFalsePositiveRate());
+
+        Gauge.builder("gateway.token.revocation.entries", entries, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        Gauge.builder("gateway.token.revocation.memory", this, TokenRevocationList::estimatedMemoryBytes)
+                .description("Estimated heap used by the token revocation list")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("gateway.token.revocation.evicted")
+                .description("Unexpired revocations dropped because the list reached max-entries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token 是否已被撤銷；jti 為 null（舊版 Token）時視為未撤銷
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !properties.isEnabled() || !bloom.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = entries.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 撤銷 Token，保留到 expiresAt（epoch millis）為止；超過 Refresh Token 效期的部分不保留
+     *
+     * @return 是否為第一次撤銷；已撤銷過時回傳 false，可用於偵測 Refresh Token 重複使用
+     */
+    public boolean revoke(String tokenId, long expiresAt) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return !entries.containsKey(tokenId); // 已過期的 Token 不需要保留
+        }
+        long retainUntil = Math.min(expiresAt, now + JwtTokenProvider.REFRESH_TOKEN_EXPIRATION);
+        synchronized (writeLock) {
+            if (entries.containsKey(tokenId)) {
+                return false;
+            }
+            if (entries.size() >= properties.getMaxEntries()) {
+                evictSoonestExpiring(now);
+            }
+            entries.put(tokenId, retainUntil);
+            if (entries.size() > bloomCapacity) {
+                rebuildBloom(entries.size() * 2);
+            } else {
+                bloom.add(tokenId);
+            }
+            dirty = true;
+            return true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long estimatedMemoryBytes() {
+        return bloom.sizeInBytes() + entries.size() * ENTRY_BYTES;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (snapshotFile != null) {
+            load(snapshotFile);
+        }
+        long intervalMillis = properties.getPurgeInterval().toMillis();
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+        if (snapshotFile != null && dirty) {
+            saveSafely();
+        }
+    }
+
+    /**
+     * 移除已過期的項目並以剩餘項目重建 Bloom filter，避免誤判率隨時間上升
+     */
+    void purge() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            int before = entries.size();
+            entries.values().removeIf(expiresAt -> expiresAt <= now);
+            if (entries.size() != before) {
+                rebuildBloom(Math.max(properties.getExpectedEntries(), entries.size() * 2));
+                dirty = true;
+            }
+        }
+        if (snapshotFile != null && dirty) {
+            saveSafely();
+        }
+    }
+
+    /**
+     * 清單已滿時移除已過期與最早到期的項目，至少騰出 max-entries 的 1%，避免每次撤銷都需要掃描；
+     * Bloom filter 不重建，被移除的 jti 只會多一次雜湊表查詢，下次 purge 時再重建。需在 writeLock 內呼叫
+     */
+    private void evictSoonestExpiring(long now) {
+        entries.values().removeIf(expiresAt -> expiresAt <= now);
+        int excess = entries.size() - properties.getMaxEntries() + Math.max(1, properties.getMaxEntries() / 100);
+        if (excess <= 0) {
+            return;
+        }
+        long[] expirations = entries.values().stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(expirations);
+        long threshold = expirations[Math.min(excess, expirations.length) - 1];
+        int before = entries.size();
+        entries.values().removeIf(expiresAt -> expiresAt <= threshold);
+        evicted.increment(before - entries.size());
+        log.warn("Token revocation list reached max-entries ({}), dropped {} revocations expiring before {}",
+                properties.getMaxEntries(), before - entries.size(), threshold);
+    }
+
+    /**
+     * 需在 writeLock 內呼叫
+     */
+    private void rebuildBloom(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(capacity, properties.getFalsePositiveRate());
+        entries.keySet().forEach(rebuilt::add);
+        bloomCapacity = capacity;
+        bloom = rebuilt;
+    }
+
+    private void purgeSafely() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.error("Token revocation purge error: {}", e.getMessage(), e);
+        }
+    }
+
+    private void saveSafely() {
+        try {
+            save(snapshotFile);
+        } catch (UncheckedIOException e) {
+            log.error("Unable to write token revocation snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * 載入快照檔，已過期或格式錯誤的行會略過，到期時間超過 Refresh Token 效期的部分不保留
+     */
+    void load(Path file) {
+        if (!Files.exists(file)) {
+            log.info("Token revocation snapshot {} not found, starting empty", file);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    skipped += line.isBlank() ? 0 : 1;
+                    continue;
+                }
+                long expiresAt;
+                try {
+                    expiresAt = Long.parseLong(line.substring(tab + 1).trim());
+                } catch (NumberFormatException e) {
+                    skipped++;
+                    continue;
+                }
+                if (expiresAt > now && revoke(line.substring(0, tab), expiresAt)) {
+                    loaded++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read token revocation snapshot " + file, e);
+        }
+        dirty = false;
+        log.info("Loaded {} revoked tokens from {}{}", loaded, file, skipped > 0 ? ", skipped " + skipped + " malformed lines" : "");
+    }
+
+    /**
+     * 先寫入暫存檔再以 atomic move 取代，寫到一半中斷也不會留下不完整的快照
+     */
+    void save(Path file) {
+        dirty = false;
+        long now = System.currentTimeMillis();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                    if (entry.getValue() > now) {
+                        writer.write(entry.getKey());
+                        writer.write('\t');
+                        writer.write(Long.toString(entry.getValue()));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.acenexus.tata.gatewayservice.ratelimit;
+
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * 以 IP 限流時使用的客戶端位址
+ * X-Forwarded-For 的內容由客戶端任意填寫，只有最右邊 trusted-proxies 個值是閘道前方的受信任代理附加的：
+ * - trusted-proxies 為 0（預設）時忽略 X-Forwarded-For，直接使用連線的來源位址
+ * - 否則取從右邊數來第 trusted-proxies 個值，也就是最外層受信任代理看到的連線來源，客戶端自帶的值不影響結果
+ * 與 GatewayLoggerFilter 記錄用的 IP（最左邊的 X-Forwarded-For，僅供顯示）分開，偽造標頭無法繞過以 IP 計算的限制。
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String UNKNOWN = "unknown";
+
+    private final int trustedProxies;
+
+    public ClientAddressResolver(RateLimitProperties properties) {
+        this.trustedProxies = Math.max(0, properties.getTrustedProxies());
+    }
+
+    public String resolve(ServerHttpRequest request) {
+        if (trustedProxies > 0) {
+            String forwarded = forwardedFor(request);
+            if (forwarded != null) {
+                int end = forwarded.length();
+                int start = forwarded.lastIndexOf(',', end - 1) + 1;
+                for (int hop = 1; hop < trustedProxies && start > 0; hop++) {
+                    end = start - 1;
+                    start = forwarded.lastIndexOf(',', end - 1) + 1;
+                }
+                String address = forwarded.substring(start, end).trim();
+                if (!address.isEmpty()) {
+                    return address;
+                }
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return UNKNOWN;
+        }
+        return (remoteAddress.getAddress() != null) ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString();
+    }
+
+    /**
+     * 多個 X-Forwarded-For 標頭依 RFC 9110 視為以逗號串接的同一個值
+     */
+    private static String forwardedFor(ServerHttpRequest request) {
+        List<String> values = request.getHeaders().get(X_FORWARDED_FOR);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return (values.size() == 1) ? values.get(0) : String.join(",", values);
+    }
+}
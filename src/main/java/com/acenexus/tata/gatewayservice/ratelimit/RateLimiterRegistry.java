@@ -0,0 +1,129 @@
+package com.acenexus.tata.gatewayservice.ratelimit;
+
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties;
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties.Limit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各路由的限流器
+ * bucket 存放在 Caffeine（分段、無鎖讀取）中，以容量上限加上閒置逾時控制記憶體，
+ * 即使面對數百萬個不同 IP 也不會無限成長。
+ */
+@Component
+public class RateLimiterRegistry {
+
+    private static final RouteRateLimiter UNLIMITED = new RouteRateLimiter();
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, RouteRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimiterRegistry(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RouteRateLimiter forRoute(String routeId) {
+        if (!properties.isEnabled()) {
+            return UNLIMITED;
+        }
+        RouteRateLimiter limiter = limiters.get(routeId);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(routeId, this::create);
+        }
+        return limiter;
+    }
+
+    private RouteRateLimiter create(String routeId) {
+        Limit limit = properties.getRoutes().getOrDefault(routeId, properties.getDefaultLimit());
+        if (limit == null || limit.getReplenishRate() <= 0) {
+            return UNLIMITED;
+        }
+        return new RouteRateLimiter(routeId, limit, properties, meterRegistry);
+    }
+
+    /**
+     * 單一路由的限流器，使用者與 IP 分開存放，查詢時不需組合 key 字串
+     */
+    public static final class RouteRateLimiter {
+
+        private final boolean limited;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Cache<String, TokenBucket> userBuckets;
+        private final Cache<String, TokenBucket> ipBuckets;
+        private final Counter rejected;
+
+        private RouteRateLimiter() {
+            this.limited = false;
+            this.emissionIntervalNanos = 0;
+            this.burstToleranceNanos = 0;
+            this.userBuckets = null;
+            this.ipBuckets = null;
+            this.rejected = null;
+        }
+
+        private RouteRateLimiter(String routeId, Limit limit, RateLimitProperties properties, MeterRegistry meterRegistry) {
+            this.limited = true;
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getReplenishRate());
+            this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, limit.getBurstCapacity() - 1);
+            this.userBuckets = newBuckets(properties);
+            this.ipBuckets = newBuckets(properties);
+            this.rejected = Counter.builder("gateway.ratelimit.rejected")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.ratelimit.keys", this, RouteRateLimiter::trackedKeys)
+                    .description("Rate limiter keys currently tracked")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private static Cache<String, TokenBucket> newBuckets(RateLimitProperties properties) {
+            return Caffeine.newBuilder()
+                    .maximumSize(properties.getMaxKeysPerRoute())
+                    .expireAfterAccess(properties.getIdleTimeout())
+                    .build();
+        }
+
+        /**
+         * @return 0 表示允許；大於 0 表示被拒絕，值為建議的等待奈秒數
+         */
+        public long tryAcquireForUser(String userId) {
+            return tryAcquire(userBuckets, userId);
+        }
+
+        public long tryAcquireForIp(String clientIp) {
+            return tryAcquire(ipBuckets, clientIp);
+        }
+
+        private long tryAcquire(Cache<String, TokenBucket> buckets, String key) {
+            if (!limited) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            TokenBucket bucket = buckets.getIfPresent(key);
+            if (bucket == null) {
+                bucket = buckets.get(key, k -> new TokenBucket(now));
+            }
+            long waitNanos = bucket.tryAcquire(now, emissionIntervalNanos, burstToleranceNanos);
+            if (waitNanos > 0) {
+                rejected.increment();
+            }
+            return waitNanos;
+        }
+
+        private double trackedKeys() {
+            return userBuckets.estimatedSize() + ipBuckets.estimatedSize();
+        }
+    }
+}
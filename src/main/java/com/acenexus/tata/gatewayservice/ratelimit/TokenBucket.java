@@ -0,0 +1,38 @@
+package com.acenexus.tata.gatewayservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 無鎖 token bucket
+ * 以 GCRA（Generic Cell Rate Algorithm）實作，整個 bucket 只需一個 long：
+ * 下一個請求的「理論到達時間」（TAT）。取用時以 CAS 更新，不需要鎖也不需要背景補充執行緒。
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 嘗試取得一個 token
+     *
+     * @param emissionIntervalNanos 每個 token 的補充間隔（1 / replenishRate）
+     * @param burstToleranceNanos   可提前使用的時間額度（(burstCapacity - 1) * emissionInterval）
+     * @return 0 表示允許；大於 0 表示被拒絕，值為需要等待的奈秒數
+     */
+    long tryAcquire(long nowNanos, long emissionIntervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long start = Math.max(tat, nowNanos);
+            long waitNanos = start - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
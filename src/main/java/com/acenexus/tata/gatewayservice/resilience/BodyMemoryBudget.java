@@ -0,0 +1,188 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.StreamingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.internal.PlatformDependent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 串流 body 的全域 direct memory 預算
+ * 大型 body 的 exchange 開始前保留固定大小（每個方向的預取上限），結束時歸還；
+ * 預算不足時依設定立即拒絕，或依序排隊等待其他 exchange 歸還（先到先得，不會被後到的小請求插隊）。
+ * 同時輸出 Netty pooled allocator 與 direct memory 的實際用量，用來確認預算與實際用量的差距。
+ */
+@Component
+public class BodyMemoryBudget {
+
+    private final StreamingProperties properties;
+    private final long limit;
+    private final AtomicLong reserved = new AtomicLong();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public BodyMemoryBudget(StreamingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        DataSize budget = properties.getBudget();
+        this.limit = (budget != null) ? budget.toBytes() : PlatformDependent.maxDirectMemory() / 2;
+
+        Gauge.builder("gateway.streaming.budget.limit", () -> limit)
+                .description("Direct memory budget for streaming bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.streaming.budget.reserved", reserved, AtomicLong::get)
+                .description("Direct memory reserved by streaming bodies in flight")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.streaming.budget.queued", queued, AtomicInteger::get)
+                .description("Exchanges waiting for the streaming budget")
+                .register(meterRegistry);
+        if (ByteBufAllocator.DEFAULT instanceof PooledByteBufAllocator pooled) {
+            Gauge.builder("gateway.buffers.pooled.used", pooled, allocator -> allocator.metric().usedDirectMemory())
+                    .description("Direct memory used by the pooled Netty allocator")
+                    .tag("memory", "direct")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.buffers.pooled.used", pooled, allocator -> allocator.metric().usedHeapMemory())
+                    .description("Heap memory used by the pooled Netty allocator")
+                    .tag("memory", "heap")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.buffers.direct.used", PlatformDependent::usedDirectMemory)
+                .description("Direct memory allocated by Netty, -1 when not tracked")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 保留 bytes，成功時為 true；預算不足時依 on-exhausted 立即回傳 false，或排隊等待至 queue-timeout
+     */
+    public Mono<Boolean> acquire(long bytes) {
+        if (bytes > limit) {
+            return Mono.just(false);
+        }
+        if (waiters.isEmpty() && tryReserve(bytes)) {
+            return Mono.just(true);
+        }
+        if (properties.getOnExhausted() != StreamingProperties.Exhausted.QUEUE) {
+            return Mono.just(false);
+        }
+        // 不使用 timeout operator：逾時與取得預算同時發生時，已保留的 bytes 可能隨被丟棄的結果遺失
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(bytes, sink);
+            sink.onCancel(waiter::cancel);
+            sink.onDispose(Schedulers.parallel().schedule(waiter::expire,
+                    properties.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            queued.incrementAndGet();
+            waiters.add(waiter);
+            drain();
+        });
+    }
+
+    /**
+     * 不論預算直接保留，用於無法拒絕的情況（例如後端已開始回應）；超出的部分會讓之後的請求被拒絕或排隊
+     */
+    public void forceReserve(long bytes) {
+        reserved.addAndGet(bytes);
+    }
+
+    public void release(long bytes) {
+        reserved.addAndGet(-bytes);
+        drain();
+    }
+
+    public long limit() {
+        return limit;
+    }
+
+    public long reserved() {
+        return reserved.get();
+    }
+
+    private boolean tryReserve(long bytes) {
+        while (true) {
+            long current = reserved.get();
+            if (current + bytes > limit) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 依序喚醒排隊中的請求，直到隊首的請求放不下為止
+     */
+    private void drain() {
+        Waiter head;
+        while ((head = waiters.peek()) != null) {
+            if (head.state.get() != Waiter.WAITING) {
+                removeHead(head);
+                continue;
+            }
+            if (!tryReserve(head.bytes)) {
+                return;
+            }
+            removeHead(head);
+            if (head.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) {
+                head.sink.success(true);
+            } else {
+                reserved.addAndGet(-head.bytes);
+            }
+        }
+    }
+
+    private void removeHead(Waiter head) {
+        if (waiters.remove(head)) {
+            queued.decrementAndGet();
+        }
+    }
+
+    private final class Waiter {
+
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+
+        final long bytes;
+        final MonoSink<Boolean> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(long bytes, MonoSink<Boolean> sink) {
+            this.bytes = bytes;
+            this.sink = sink;
+        }
+
+        void expire() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                sink.success(false);
+                drain();
+            }
+        }
+
+        /**
+         * 取消：尚未取得預算時放棄排隊；已取得但結果未送達時歸還
+         */
+        void cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED) && state.compareAndSet(GRANTED, CANCELLED)) {
+                release(bytes);
+            } else {
+                drain();
+            }
+        }
+    }
+}
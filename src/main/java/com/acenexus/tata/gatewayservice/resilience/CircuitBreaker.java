@@ -0,0 +1,152 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamProtectionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 以最近 N 次呼叫失敗率判斷的斷路器
+ * - CLOSED：正常放行，失敗率達門檻後轉為 OPEN
+ * - OPEN：直接拒絕，經過 open-duration 後轉為 HALF_OPEN
+ * - HALF_OPEN：只放行少量試探請求，全部成功轉回 CLOSED，任一失敗回到 OPEN
+ * 放行判斷只讀取 volatile 狀態；結果統計與狀態轉換量很小，以 synchronized 保護。
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtNanos;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    // 以下欄位只在 synchronized 區塊中存取
+    private final boolean[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failures;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(UpstreamProtectionProperties.CircuitBreaker config) {
+        this.windowSize = Math.max(1, config.getWindowSize());
+        this.minimumCalls = Math.max(1, Math.min(windowSize, config.getMinimumCalls()));
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.openDurationNanos = config.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * 是否放行這次呼叫；放行後必須呼叫 onSuccess 或 onFailure
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            transitionToHalfOpen();
+        }
+        // HALF_OPEN：只放行有限數量的試探請求
+        while (true) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionToClosed();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionToOpen();
+            return;
+        }
+        record(true);
+    }
+
+    /**
+     * 呼叫被取消等無法判斷結果時，歸還半開狀態的試探名額
+     */
+    public void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recordedCalls == windowSize && window[windowIndex]) {
+            failures--;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            failures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+        if (recordedCalls < windowSize) {
+            recordedCalls++;
+        }
+        if (recordedCalls >= minimumCalls && (double) failures / recordedCalls >= failureRateThreshold) {
+            transitionToOpen();
+        }
+    }
+
+    private void transitionToOpen() {
+        openedAtNanos = System.nanoTime();
+        state = State.OPEN;
+    }
+
+    private synchronized void transitionToHalfOpen() {
+        if (state == State.OPEN) {
+            halfOpenSuccesses = 0;
+            halfOpenPermits.set(halfOpenCalls);
+            state = State.HALF_OPEN;
+        }
+    }
+
+    private void transitionToClosed() {
+        recordedCalls = 0;
+        failures = 0;
+        windowIndex = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * OPEN 狀態剩餘的時間（奈秒），其他狀態回傳 0
+     */
+    public long remainingOpenNanos() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationNanos - (System.nanoTime() - openedAtNanos));
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,96 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamProtectionProperties.Concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自適應併發上限（Gradient 演算法）
+ * 以短期 RTT 與長期 RTT EWMA 的比值（gradient）估算後端是否開始排隊：
+ * - 後端正常時 gradient 為 1，上限緩慢往上加 queueSize
+ * - 後端變慢時 gradient 小於 1，上限依比例下降，最低降為一半
+ * 進行中的請求數只以 CAS 維護；上限的重新計算量很小，以 synchronized 保護。
+ */
+public final class GradientConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttFactor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // 以下欄位只在 synchronized onSample 中存取
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimit(Concurrency config) {
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.smoothing = config.getSmoothing();
+        this.rttTolerance = config.getRttTolerance();
+        this.longRttFactor = 2.0 / (Math.max(1, config.getLongWindow()) + 1);
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 嘗試取得一個併發名額，達到上限時回傳 false
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 釋放名額並回報這次呼叫的 RTT；rttNanos 小於等於 0 時只釋放名額（例如請求被取消）
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (rttNanos > 0) {
+            onSample(rttNanos, inFlightAtCompletion);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        double shortRtt = rttNanos;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) * longRttFactor;
+        }
+        // 長期 RTT 明顯高於短期 RTT 時（後端剛恢復），加快長期 RTT 的回落
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // 請求量不足上限的一半時，無法判斷後端容量，不調整
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,72 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.HedgingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全域 hedge 額度（所有路由共用）
+ * 每個可 hedge 的請求存入 budget-ratio 個額度，送出 hedge 時取出 1 個，額度以百萬分之一為單位存放避免浮點運算。
+ */
+@Component
+public class HedgeBudget {
+
+    private static final long UNIT = 1_000_000;
+
+    private final HedgingProperties properties;
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    public HedgeBudget(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.deposit = Math.round(Math.max(0, properties.getBudgetRatio()) * UNIT);
+        this.capacity = Math.max(1, properties.getBudgetBurst()) * UNIT;
+        this.balance = new AtomicLong(capacity);
+
+        Gauge.builder("gateway.hedge.budget", balance, value -> (double) value.get() / UNIT)
+                .description("Hedged requests that may currently be sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 記錄一個可 hedge 的請求
+     */
+    public void deposit() {
+        long current = balance.get();
+        while (current < capacity) {
+            long next = Math.min(capacity, current + deposit);
+            if (balance.compareAndSet(current, next)) {
+                return;
+            }
+            current = balance.get();
+        }
+    }
+
+    /**
+     * 取出一個 hedge 額度，不足時回傳 false
+     */
+    public boolean tryAcquire() {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        long current = balance.get();
+        while (current >= UNIT) {
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+    /**
+     * 歸還已取出但最後沒有送出的額度
+     */
+    public void refund() {
+        balance.accumulateAndGet(UNIT, (current, unit) -> Math.min(capacity, current + unit));
+    }
+}
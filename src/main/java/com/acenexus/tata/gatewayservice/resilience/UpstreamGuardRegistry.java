@@ -0,0 +1,151 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamProtectionProperties;
+import com.acenexus.tata.gatewayservice.config.UpstreamProtectionProperties.Policy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 各路由的後端保護（自適應併發上限 + 斷路器）
+ * 輸出指標：
+ * - gateway.upstream.concurrency.limit / gateway.upstream.concurrency.inflight
+ * - gateway.upstream.circuit.state（0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN）
+ * - gateway.upstream.rejected（reason = concurrency_limit | circuit_open）
+ */
+@Component
+public class UpstreamGuardRegistry {
+
+    private final UpstreamProtectionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, UpstreamGuard> guards = new ConcurrentHashMap<>();
+
+    public UpstreamGuardRegistry(UpstreamProtectionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 取得路由的保護設定；整體停用時回傳 null
+     */
+    public UpstreamGuard forRoute(String routeId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        UpstreamGuard guard = guards.get(routeId);
+        if (guard == null) {
+            guard = guards.computeIfAbsent(routeId, this::create);
+        }
+        return guard;
+    }
+
+    private UpstreamGuard create(String routeId) {
+        Policy policy = properties.getRoutes().getOrDefault(routeId, properties.getDefaultPolicy());
+        GradientConcurrencyLimit limit = policy.getConcurrency().isEnabled()
+                ? new GradientConcurrencyLimit(policy.getConcurrency()) : null;
+        CircuitBreaker circuitBreaker = policy.getCircuitBreaker().isEnabled()
+                ? new CircuitBreaker(policy.getCircuitBreaker()) : null;
+
+        if (limit != null) {
+            Gauge.builder("gateway.upstream.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.upstream.concurrency.inflight", limit, GradientConcurrencyLimit::getInFlight)
+                    .description("Upstream requests in flight")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+        if (circuitBreaker != null) {
+            Gauge.builder("gateway.upstream.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state: 0=closed, 1=open, 2=half-open")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+        Counter limitRejected = rejectedCounter(routeId, "concurrency_limit");
+        Counter circuitRejected = rejectedCounter(routeId, "circuit_open");
+        return new UpstreamGuard(limit, circuitBreaker, limitRejected, circuitRejected);
+    }
+
+    private Counter rejectedCounter(String routeId, String reason) {
+        return Counter.builder("gateway.upstream.rejected")
+                .description("Requests shed before reaching the upstream")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 單一路由的保護
+     */
+    public static final class UpstreamGuard {
+
+        public enum Decision {
+            ACCEPTED, REJECTED_LIMIT, REJECTED_CIRCUIT_OPEN
+        }
+
+        private final GradientConcurrencyLimit limit;
+        private final CircuitBreaker circuitBreaker;
+        private final Counter limitRejected;
+        private final Counter circuitRejected;
+
+        private UpstreamGuard(GradientConcurrencyLimit limit, CircuitBreaker circuitBreaker,
+                              Counter limitRejected, Counter circuitRejected) {
+            this.limit = limit;
+            this.circuitBreaker = circuitBreaker;
+            this.limitRejected = limitRejected;
+            this.circuitRejected = circuitRejected;
+        }
+
+        public Decision tryAcquire() {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                circuitRejected.increment();
+                return Decision.REJECTED_CIRCUIT_OPEN;
+            }
+            if (limit != null && !limit.tryAcquire()) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onIgnored();
+                }
+                limitRejected.increment();
+                return Decision.REJECTED_LIMIT;
+            }
+            return Decision.ACCEPTED;
+        }
+
+        /**
+         * 呼叫完成：success 表示後端正常回應（非 5xx），rttNanos 為到收到回應標頭的時間
+         */
+        public void onComplete(boolean success, long rttNanos) {
+            if (limit != null) {
+                limit.release(rttNanos);
+            }
+            if (circuitBreaker != null) {
+                if (success) {
+                    circuitBreaker.onSuccess();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+            }
+        }
+
+        /**
+         * 呼叫被取消，只歸還名額，不列入統計
+         */
+        public void onCancel() {
+            if (limit != null) {
+                limit.release(0);
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.onIgnored();
+            }
+        }
+
+        public long retryAfterNanos() {
+            return circuitBreaker != null ? circuitBreaker.remainingOpenNanos() : 0;
+        }
+    }
+}
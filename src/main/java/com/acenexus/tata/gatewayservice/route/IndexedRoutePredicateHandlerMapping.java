@@ -0,0 +1,93 @@
+package com.acenexus.tata.gatewayservice.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_PATH_CONTAINER_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * 以 {@link RouteIndex} 取代逐一比對所有路由的 RoutePredicateHandlerMapping
+ * 只對路徑前綴相符的路由與無法建立索引的路由依原本順序比對 predicate，結果與逐一比對相同。
+ * 路由重新載入完成（RefreshRoutesResultEvent）後在背景建立新索引再整個替換，查詢中的請求繼續使用舊索引，不需等待；
+ * 索引建立完成前使用原本的逐一比對。
+ */
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexedRoutePredicateHandlerMapping.class);
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+
+    private volatile RouteIndex index;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               RouteDefinitionLocator routeDefinitionLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+    }
+
+    @EventListener
+    public void onRefreshRoutes(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            rebuildIndex().subscribe(null, e -> log.warn("Route index rebuild failed, keeping the previous index: {}", e.getMessage()));
+        }
+    }
+
+    Mono<Void> rebuildIndex() {
+        return Mono.zip(
+                        routeLocator.getRoutes().collectList(),
+                        routeDefinitionLocator.getRouteDefinitions().map(RouteDefinition::getId).collect(Collectors.toSet()))
+                .doOnNext(routesAndIds -> {
+                    RouteIndex rebuilt = RouteIndex.build(routesAndIds.getT1(), routesAndIds.getT2(), index);
+                    index = rebuilt;
+                    log.info("Route index rebuilt: {} routes, {} evaluated for every request", rebuilt.size(), rebuilt.unindexedCount());
+                })
+                .then();
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        RouteIndex current = index;
+        if (current == null) {
+            return super.lookupRoute(exchange);
+        }
+        // 與 PathRoutePredicateFactory 共用同一份解析結果
+        PathContainer path = (PathContainer) exchange.getAttributes().computeIfAbsent(GATEWAY_PREDICATE_PATH_CONTAINER_ATTR,
+                key -> PathContainer.parsePath(exchange.getRequest().getURI().getRawPath()));
+        return Flux.fromIterable(current.candidates(path))
+                .concatMap(route -> Mono.just(route)
+                        .filterWhen(candidate -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, candidate.getId());
+                            return candidate.getPredicate().apply(exchange);
+                        })
+                        .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Route matched: {}", route.getId());
+                    }
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+}
@@ -0,0 +1,175 @@
+package com.acenexus.tata.gatewayservice.route;
+
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 依 Path 條件開頭的固定路徑段建立的路由索引（以路徑段為節點的 trie）
+ * 例如 /api/account/** 建立在 api → account 節點下，請求只需沿著自己的路徑段往下走，
+ * 取得沿途節點上的路由，再加上無法建立索引的路由，依原本順序完整比對 predicate。
+ * 建立後不再修改，可由多個執行緒同時查詢；路由重新載入時建立新的索引取代。
+ */
+final class RouteIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Route[] routes;
+    private final Node root;
+    private final int[] unindexed;
+    private final Map<Route, List<List<String>>> prefixes;
+
+    private RouteIndex(Route[] routes, Node root, int[] unindexed, Map<Route, List<List<String>>> prefixes) {
+        this.routes = routes;
+        this.root = root;
+        this.unindexed = unindexed;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * @param routes       依比對順序排列的路由
+     * @param indexableIds 可以建立索引的路由 id；只有 RouteDefinition 產生的路由保證所有 predicate 以 AND 組合，
+     *                     Java DSL 以 or() 組合的路由即使含有 Path 條件也可能由其他條件成立，需每次比對
+     * @param previous     前一版索引，同一個 Route 物件沿用已解析的前綴，為 null 時全部重新解析
+     */
+    static RouteIndex build(List<Route> routes, Set<String> indexableIds, RouteIndex previous) {
+        Node root = new Node();
+        int[] unindexed = NONE;
+        Map<Route, List<List<String>>> prefixes = new IdentityHashMap<>();
+        for (int position = 0; position < routes.size(); position++) {
+            Route route = routes.get(position);
+            List<List<String>> routePrefixes = (previous != null) ? previous.prefixes.get(route) : null;
+            if (routePrefixes == null && indexableIds.contains(route.getId())) {
+                routePrefixes = pathPrefixes(route);
+            }
+            if (routePrefixes == null) {
+                unindexed = append(unindexed, position);
+                continue;
+            }
+            prefixes.put(route, routePrefixes);
+            for (List<String> prefix : routePrefixes) {
+                Node node = root;
+                for (String segment : prefix) {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+                node.routes = append(node.routes, position);
+            }
+        }
+        return new RouteIndex(routes.toArray(new Route[0]), root, unindexed, prefixes);
+    }
+
+    /**
+     * 可能符合 path 的路由，依原本的比對順序排列
+     */
+    List<Route> candidates(PathContainer path) {
+        int[] found = Arrays.copyOf(unindexed, unindexed.length + root.routes.length + 4);
+        int count = unindexed.length;
+        count = add(found, count, root.routes);
+
+        Node node = root;
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                node = node.children.get(segment.valueToMatch());
+                if (node == null) {
+                    break;
+                }
+                if (count + node.routes.length > found.length) {
+                    found = Arrays.copyOf(found, (count + node.routes.length) * 2);
+                }
+                count = add(found, count, node.routes);
+            }
+        }
+
+        Arrays.sort(found, 0, count);
+        List<Route> candidates = new ArrayList<>(count);
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            if (found[i] != last) { // 同一條路由可能以多個 pattern 出現在同一路徑上
+                last = found[i];
+                candidates.add(routes[last]);
+            }
+        }
+        return candidates;
+    }
+
+    int size() {
+        return routes.length;
+    }
+
+    int unindexedCount() {
+        return unindexed.length;
+    }
+
+    private static int add(int[] target, int count, int[] positions) {
+        System.arraycopy(positions, 0, target, count, positions.length);
+        return count + positions.length;
+    }
+
+    private static int[] append(int[] positions, int position) {
+        int[] appended = Arrays.copyOf(positions, positions.length + 1);
+        appended[positions.length] = position;
+        return appended;
+    }
+
+    /**
+     * 路由的 Path 條件所對應的固定前綴，沒有 Path 條件時回傳 null
+     * 同時有多個 Path 條件時必須全部成立，取最短前綴最長的一個，候選最少
+     */
+    static List<List<String>> pathPrefixes(Route route) {
+        List<List<List<String>>> found = new ArrayList<>();
+        route.getPredicate().accept(predicate -> {
+            if (predicate.getConfig() instanceof PathRoutePredicateFactory.Config config && !config.getPatterns().isEmpty()) {
+                found.add(config.getPatterns().stream().map(RouteIndex::literalPrefix).toList());
+            }
+        });
+        return found.stream()
+                .max(Comparator.comparingInt(patterns -> patterns.stream().mapToInt(List::size).min().orElse(0)))
+                .orElse(null);
+    }
+
+    /**
+     * pattern 開頭不含萬用字元與變數的路徑段，例如 /api/{service}/** 為 [api]
+     * 含 %、; 或 \ 的路徑段比對規則較複雜，不列入前綴
+     */
+    static List<String> literalPrefix(String pattern) {
+        List<String> segments = new ArrayList<>();
+        if (!pattern.startsWith("/")) {
+            return segments;
+        }
+        for (String segment : pattern.substring(1).split("/", -1)) {
+            if (segment.isEmpty() || !isLiteral(segment)) {
+                break;
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            switch (segment.charAt(i)) {
+                case '*', '?', '{', '}', '%', ';', '\\' -> {
+                    return false;
+                }
+                default -> {
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private int[] routes = NONE;
+    }
+}
@@ -1,53 +1,105 @@
 package com.acenexus.tata.gatewayservice.service;
 
 import com.acenexus.tata.gatewayservice.client.AccountServiceClient;
+import com.acenexus.tata.gatewayservice.config.AccountClientProperties;
 import com.acenexus.tata.gatewayservice.dto.AccountLoginRequest;
 import com.acenexus.tata.gatewayservice.dto.LoginResponse;
 import com.acenexus.tata.gatewayservice.dto.RefreshTokenResponse;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
 import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import com.acenexus.tata.gatewayservice.ratelimit.RateLimiterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Account 服務類別
- * 在 WebFlux 環境中使用 OpenFeign 客戶端
+ * 透過非阻塞的 AccountServiceClient 呼叫 accountservice，登入流程不會阻塞 event loop
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AccountService {
 
+    /**
+     * 換發 Token 依使用者限流所用的 key，以 gateway.rate-limit.routes.refresh-token 設定
+     */
+    public static final String REFRESH_TOKEN_LIMITER = "refresh-token";
+
     private final AccountServiceClient accountServiceClient;
     private final JwtTokenProvider jwtTokenProvider;
+    private final AccountClientProperties accountClientProperties;
+    private final TokenRevocationList tokenRevocationList;
+    private final RateLimiterRegistry rateLimiterRegistry;
 
     public Mono<ResponseEntity<LoginResponse>> login(AccountLoginRequest request) {
 //        return Mono.fromSupplier(() -> new AccountLoginResponse(1001L, request.getAccount() != null ? request.getAccount() : "假用戶")) // 假資料
-        return Mono.fromCallable(() -> accountServiceClient.login(request))
+        return accountServiceClient.login(request)
+                .timeout(accountClientProperties.getResponseTimeout())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty login response from accountservice")))
                 .map(accountLoginResponse -> {
                     String accessToken = jwtTokenProvider.generateAccessToken(accountLoginResponse.getId(), accountLoginResponse.getName());
                     String refreshToken = jwtTokenProvider.generateRefreshToken(accountLoginResponse.getId(), accountLoginResponse.getName());
                     LoginResponse loginResponse = new LoginResponse(accountLoginResponse.getId(), accountLoginResponse.getName(), accessToken, refreshToken);
                     return ResponseEntity.ok(loginResponse);
                 })
-                .onErrorResume(e -> {
-                    log.error("Login error: {}", e.getMessage(), e);
-                    return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
-                });
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(loginErrorStatus(e)).build()));
+    }
+
+    /**
+     * 錯誤對應：accountservice 回應 4xx 視為帳密錯誤（401），逾時為 504，其餘連線或服務錯誤為 502
+     */
+    private static HttpStatus loginErrorStatus(Throwable e) {
+        if (e instanceof WebClientResponseException responseException && responseException.getStatusCode().is4xxClientError()) {
+            log.warn("Login rejected by accountservice: {}", responseException.getStatusCode());
+            return HttpStatus.UNAUTHORIZED;
+        }
+        if (e instanceof TimeoutException || e.getCause() instanceof ReadTimeoutException) {
+            log.error("Login error: accountservice timed out");
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        log.error("Login error: {}", e.getMessage(), e);
+        return HttpStatus.BAD_GATEWAY;
     }
 
+    /**
+     * 以 Refresh Token 換發新的 Access Token 與 Refresh Token
+     * 舊的 Refresh Token 會被撤銷到原本的到期時間，每個 Refresh Token 只能使用一次；
+     * 已撤銷的 Refresh Token 再次出現代表可能已外洩，直接拒絕並記錄警告（撤銷清單只在本節點，偵測也只在同一節點有效）。
+     * 每個使用者的換發次數另外限流，單一帳號無法反覆輪替來塞滿撤銷清單。
+     */
     public Mono<ResponseEntity<RefreshTokenResponse>> refreshToken(String refreshToken) {
         try {
-            String newAccessToken = jwtTokenProvider.refreshAccessToken(refreshToken);
-            Long userId = jwtTokenProvider.extractUserId(refreshToken);
-            String userName = jwtTokenProvider.extractUserName(refreshToken);
-            RefreshTokenResponse data = new RefreshTokenResponse(userId, userName, newAccessToken, refreshToken);
+            JwtPrincipal principal = jwtTokenProvider.verifyRefreshToken(refreshToken);
+            long waitNanos = rateLimiterRegistry.forRoute(REFRESH_TOKEN_LIMITER).tryAcquireForUser(principal.subject());
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .build());
+            }
+            if (principal.tokenId() != null && !tokenRevocationList.revoke(principal.tokenId(), principal.expiresAt())) {
+                log.warn("Refresh token reuse detected for user {}, jti {}", principal.subject(), principal.tokenId());
+                return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+            }
+            Long userId = Long.valueOf(principal.subject());
+            String userName = principal.userName();
+            String newAccessToken = jwtTokenProvider.generateAccessToken(userId, userName);
+            String newRefreshToken = jwtTokenProvider.generateRefreshToken(userId, userName);
+            RefreshTokenResponse data = new RefreshTokenResponse(userId, userName, newAccessToken, newRefreshToken);
             return Mono.just(ResponseEntity.ok(data));
         } catch (RuntimeException e) {
-            log.error("Token refresh error for refreshToken '{}': {}", refreshToken, e.getMessage(), e);
+            log.warn("Token refresh rejected: {}", e.getMessage());
             return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
         }
     }
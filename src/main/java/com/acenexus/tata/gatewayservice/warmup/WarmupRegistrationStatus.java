@@ -0,0 +1,48 @@
+package com.acenexus.tata.gatewayservice.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.HealthCheckHandler;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 暖機完成前向 Eureka 回報 STARTING，其他服務不會將請求送到尚未暖機的實例
+ * Eureka client 每次同步實例資訊前都會詢問 HealthCheckHandler，設定中心 refresh 後重新註冊也同樣適用，
+ * 不需依賴 eureka.instance.initial-status。
+ * 定義此 bean 後 eureka.client.healthcheck.enabled 不再生效（Eureka 只使用一個 HealthCheckHandler）。
+ */
+@Component
+public class WarmupRegistrationStatus implements HealthCheckHandler {
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private volatile boolean warmedUp;
+
+    public WarmupRegistrationStatus(ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @Override
+    public InstanceStatus getStatus(InstanceStatus currentStatus) {
+        if (!warmedUp) {
+            return InstanceStatus.STARTING;
+        }
+        // 暖機期間回報的 STARTING 會寫回目前狀態，完成後改為 UP；DOWN、OUT_OF_SERVICE 等人為設定維持不變
+        return (currentStatus == null || currentStatus == InstanceStatus.STARTING) ? InstanceStatus.UP : currentStatus;
+    }
+
+    /**
+     * 暖機完成，立即將 UP 同步至 Eureka；未啟用 Eureka 時只記錄狀態
+     */
+    public void markWarmedUp() {
+        warmedUp = true;
+        ApplicationInfoManager manager = applicationInfoManager.getIfAvailable();
+        if (manager != null) {
+            manager.setInstanceStatus(InstanceStatus.UP);
+        }
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+}
@@ -0,0 +1,182 @@
+package com.acenexus.tata.gatewayservice.warmup;
+
+import com.acenexus.tata.gatewayservice.config.WarmupProperties;
+import com.acenexus.tata.gatewayservice.dto.RefreshTokenResponse;
+import com.acenexus.tata.gatewayservice.filter.WarmupFilter;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 啟動暖機
+ * 剛啟動的閘道仍以直譯執行 JWT 簽章驗證、Jackson 序列化、路由比對與 Netty pipeline，直接接收流量會讓每次部署都出現 p99 尖峰。
+ * 在 ApplicationReadyEvent 中同步執行暖機，Spring Boot 在所有 listener 完成後才發布 ACCEPTING_TRAFFIC，
+ * 因此暖機期間 readiness 維持 REFUSING_TRAFFIC；完成後才將 Eureka 狀態改為 UP（{@link WarmupRegistrationStatus}）。
+ * 每個 exchange：
+ * - 簽發 Access / Refresh Token，並走一次換發流程（驗證 Refresh Token、簽發新的一組、Jackson 序列化與反序列化），不寫入撤銷清單
+ * - 以新的 Access Token 對本機閘道送出真實的 HTTP 請求，經過路由比對、GatewayLoggerFilter、JwtAuthFilter 與 RateLimitFilter，
+ *   由 {@link WarmupFilter} 在轉送前攔截
+ * 每個 exchange 使用不同的負數使用者 ID，不會與真實使用者重複；公開路徑的暖機請求不經過以 IP 計算的限流，
+ * 不會用完本機位址的額度。
+ */
+@Component
+public class WarmupRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final String WARMUP_USER = "warmup";
+    private static final String SAMPLE_SEGMENT = "warmup";
+
+    private final WarmupProperties properties;
+    private final WarmupFilter warmupFilter;
+    private final WarmupRegistrationStatus registrationStatus;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final ObjectMapper objectMapper;
+    private final Timer warmupTimer;
+
+    public WarmupRunner(WarmupProperties properties, WarmupFilter warmupFilter, WarmupRegistrationStatus registrationStatus,
+                        JwtTokenProvider jwtTokenProvider, RouteDefinitionLocator routeDefinitionLocator,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.warmupFilter = warmupFilter;
+        this.registrationStatus = registrationStatus;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.objectMapper = objectMapper;
+        this.warmupTimer = Timer.builder("gateway.warmup")
+                .description("Time spent warming up before accepting traffic")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled() && event.getApplicationContext() instanceof WebServerApplicationContext context) {
+            AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+            warmUp(context.getWebServer().getPort());
+        }
+        registrationStatus.markWarmedUp();
+    }
+
+    private void warmUp(int port) {
+        List<String> paths = properties.getPaths().isEmpty() ? routePaths() : properties.getPaths();
+        int concurrency = Math.max(1, properties.getConcurrency());
+        int iterations = (properties.getIterations() > 0) ? properties.getIterations() : Integer.MAX_VALUE;
+        ConnectionProvider connectionProvider = ConnectionProvider.create("warmup", concurrency);
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        String secret = warmupFilter.open();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        long start = System.nanoTime();
+        try {
+            Flux.range(0, iterations)
+                    .flatMap(i -> exchange(client, paths.isEmpty() ? null : paths.get(i % paths.size()), i, secret), concurrency)
+                    .take(properties.getDuration())
+                    .doOnNext(success -> (success ? succeeded : failed).incrementAndGet())
+                    .blockLast();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up aborted: {}", e.getMessage());
+        } finally {
+            warmupFilter.close();
+            connectionProvider.dispose();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        warmupTimer.record(elapsed);
+        log.info("Warm-up completed in {} ms: {} exchanges, {} failed, paths={}",
+                elapsed.toMillis(), succeeded.get() + failed.get(), failed.get(), paths);
+    }
+
+    /**
+     * 完成一個 exchange，路徑回應 2xx 時為 true；路徑為 null 時只執行 Token 與序列化
+     */
+    private Mono<Boolean> exchange(WebClient client, String path, int iteration, String secret) {
+        Mono<String> token = Mono.fromCallable(() -> issueTokens(iteration));
+        if (path == null) {
+            return token.thenReturn(true).onErrorReturn(false);
+        }
+        return token
+                .flatMap(accessToken -> client.get()
+                        .uri(path)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(WarmupFilter.WARMUP_HEADER, secret)
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful())))
+                .onErrorReturn(false);
+    }
+
+    private String issueTokens(int iteration) throws IOException {
+        long userId = -1L - iteration;
+        String refreshToken = jwtTokenProvider.generateRefreshToken(userId, WARMUP_USER);
+        JwtPrincipal principal = jwtTokenProvider.verifyRefreshToken(refreshToken);
+        RefreshTokenResponse refreshed = new RefreshTokenResponse(userId, principal.userName(),
+                jwtTokenProvider.generateAccessToken(userId, principal.userName()),
+                jwtTokenProvider.generateRefreshToken(userId, principal.userName()));
+        byte[] json = objectMapper.writeValueAsBytes(refreshed);
+        return objectMapper.readValue(json, RefreshTokenResponse.class).getToken();
+    }
+
+    /**
+     * 依各路由的第一個 Path 條件產生一個會被該路由匹配的路徑
+     */
+    private List<String> routePaths() {
+        List<RouteDefinition> routes = routeDefinitionLocator.getRouteDefinitions()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        Set<String> paths = new LinkedHashSet<>();
+        if (routes != null) {
+            for (RouteDefinition route : routes) {
+                for (PredicateDefinition predicate : route.getPredicates()) {
+                    if ("Path".equalsIgnoreCase(predicate.getName()) && !predicate.getArgs().isEmpty()) {
+                        paths.add(samplePath(predicate.getArgs().values().iterator().next()));
+                        break;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(paths);
+    }
+
+    /**
+     * 將 Path 樣式中的萬用字元與變數段落替換為固定字串，例如 /api/account/** 轉為 /api/account/warmup
+     */
+    static String samplePath(String pattern) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            path.append('/').append((segment.contains("*") || segment.contains("{")) ? SAMPLE_SEGMENT : segment);
+        }
+        return path.isEmpty() ? "/" : path.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.acenexus.tata.gatewayservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Actuator 只在管理 port 提供，閘道對外的 port 無法讀取 metrics、觸發 refresh 或撤銷 Token
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "gateway.warmup.enabled=false")
+class ManagementPortTest {
+
+	@LocalServerPort
+	private int port;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	@Test
+	void servesActuatorOnlyOnManagementPort() {
+		assertThat(managementPort).isNotEqualTo(port);
+
+		assertThat(status(port, HttpMethod.GET, "/actuator/metrics")).isEqualTo(404);
+		assertThat(status(port, HttpMethod.POST, "/actuator/refresh")).isEqualTo(404);
+		assertThat(status(port, HttpMethod.POST, "/actuator/tokenrevocations")).isEqualTo(404);
+
+		assertThat(status(managementPort, HttpMethod.GET, "/actuator/health")).isEqualTo(200);
+		assertThat(status(managementPort, HttpMethod.GET, "/actuator/metrics")).isEqualTo(200);
+	}
+
+	private static int status(int port, HttpMethod method, String path) {
+		return WebClient.create("http://localhost:" + port)
+				.method(method)
+				.uri(path)
+				.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+				.block(Duration.ofSeconds(5));
+	}
+}
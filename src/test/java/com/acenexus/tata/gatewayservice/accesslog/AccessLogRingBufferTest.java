@@ -0,0 +1,56 @@
+package com.acenexus.tata.gatewayservice.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTest {
+
+	@Test
+	void rejectsOffersWhenFullAndDrainsInOrder() {
+		AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+
+		for (int i = 0; i < 4; i++) {
+			assertThat(offer(buffer, "r" + i)).isTrue();
+		}
+		assertThat(offer(buffer, "overflow")).isFalse();
+
+		List<String> ids = new ArrayList<>();
+		assertThat(buffer.drain(entry -> ids.add(entry.requestId), 10)).isEqualTo(4);
+		assertThat(ids).containsExactly("r0", "r1", "r2", "r3");
+		assertThat(offer(buffer, "r4")).isTrue();
+	}
+
+	@Test
+	void acceptsConcurrentProducers() throws InterruptedException {
+		AccessLogRingBuffer buffer = new AccessLogRingBuffer(1 << 14);
+		int producers = 4;
+		int perProducer = 2_000;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			executor.execute(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					offer(buffer, "r");
+				}
+				done.countDown();
+			});
+		}
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		executor.shutdown();
+
+		assertThat(buffer.drain(entry -> {
+		}, Integer.MAX_VALUE)).isEqualTo(producers * perProducer);
+	}
+
+	private static boolean offer(AccessLogRingBuffer buffer, String requestId) {
+		return buffer.offer(0, requestId, "GET", "/", 200, "route", "target", 1, "127.0.0.1", false);
+	}
+}
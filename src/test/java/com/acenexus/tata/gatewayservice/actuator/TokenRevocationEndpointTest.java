@@ -0,0 +1,51 @@
+package com.acenexus.tata.gatewayservice.actuator;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.provider.JwtKey;
+import com.acenexus.tata.gatewayservice.provider.JwtKeyRing;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 只提供 jti 時的撤銷：expiresAt 與 jti 長度的範圍檢查
+ */
+class TokenRevocationEndpointTest {
+
+	private final JwtProperties properties = new JwtProperties();
+	private final TokenRevocationList tokenRevocationList = new TokenRevocationList(properties, new SimpleMeterRegistry());
+	private final TokenRevocationEndpoint endpoint = new TokenRevocationEndpoint(tokenRevocationList, new JwtTokenProvider(
+			JwtKeyRing.of(JwtKey.hmac("test", Keys.secretKeyFor(SignatureAlgorithm.HS256)))));
+
+	@Test
+	void revokesJtiWithinTheTokenLifetime() {
+		long expiresAt = System.currentTimeMillis() + 60_000;
+
+		assertThat(endpoint.revoke(null, "jti-1", expiresAt)).containsEntry("revoked", true).containsEntry("alreadyRevoked", false);
+		assertThat(endpoint.revoke(null, "jti-1", expiresAt)).containsEntry("alreadyRevoked", true);
+		assertThat(tokenRevocationList.isRevoked("jti-1")).isTrue();
+	}
+
+	@Test
+	void rejectsExpirationBeyondTheRefreshTokenLifetime() {
+		long tooLate = System.currentTimeMillis() + JwtTokenProvider.REFRESH_TOKEN_EXPIRATION + 60_000;
+
+		assertThat(endpoint.revoke(null, "jti-1", tooLate)).containsEntry("revoked", false).containsKey("error");
+		assertThat(endpoint.revoke(null, "jti-1", Long.MAX_VALUE)).containsEntry("revoked", false);
+		assertThat(tokenRevocationList.size()).isZero();
+	}
+
+	@Test
+	void rejectsOversizedJti() {
+		long expiresAt = System.currentTimeMillis() + 60_000;
+
+		assertThat(endpoint.revoke(null, "x".repeat(65), expiresAt)).containsEntry("revoked", false);
+		assertThat(endpoint.revoke(null, " ", expiresAt)).containsEntry("revoked", false);
+		assertThat(tokenRevocationList.size()).isZero();
+	}
+}
@@ -0,0 +1,164 @@
+package com.acenexus.tata.gatewayservice.client;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 每條路由使用各自設定的連線池與協定，並輸出連線池 metrics；連線總數受全域上限限制，移除的路由會釋放連線池
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UpstreamHttpClientsTest {
+
+	private static final DisposableServer backend = HttpServer.create()
+			.port(0)
+			.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+			.route(routes -> routes.get("/protocol", (request, response) ->
+					response.sendString(Mono.delay(Duration.ofMillis(100)).thenReturn(request.protocol()))))
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UpstreamHttpClients upstreamHttpClients;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private HttpClientProperties httpClientProperties;
+
+	@Autowired
+	private ServerProperties serverProperties;
+
+	@Autowired
+	private HttpClientSslConfigurer sslConfigurer;
+
+	@Autowired
+	private RouteLocator routeLocator;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "multiplexed");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/multiplexed/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[1].id", () -> "plain");
+		registry.add("spring.cloud.gateway.routes[1].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[1].predicates[0]", () -> "Path=/api/plain/**");
+		registry.add("spring.cloud.gateway.routes[1].filters[0]", () -> "StripPrefix=2");
+		registry.add("gateway.upstream-client.routes.multiplexed.max-connections", () -> "1");
+		registry.add("gateway.upstream-client.routes.multiplexed.protocol", () -> "h2c");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/multiplexed/**");
+		registry.add("gateway.security.public-paths[1]", () -> "/api/plain/**");
+		registry.add("gateway.rate-limit.enabled", () -> "false");
+	}
+
+	@AfterAll
+	static void stopBackend() {
+		backend.disposeNow();
+	}
+
+	@Test
+	void routesUseTheirOwnPoolAndProtocol() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		// 只有一條連線，同時送出的請求以 HTTP/2 stream 共用
+		List<String> protocols = Flux.range(0, 8)
+				.flatMap(i -> client.get().uri("/api/multiplexed/protocol").retrieve().bodyToMono(String.class))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+		assertThat(protocols).hasSize(8).containsOnly("HTTP/2.0");
+
+		String plain = client.get().uri("/api/plain/protocol").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+		assertThat(plain).isEqualTo("HTTP/1.1");
+
+		assertThat(maxConnections("multiplexed")).isEqualTo(1);
+		assertThat(maxConnections("plain")).isEqualTo(500);
+		assertThat(Metrics.globalRegistry.find("reactor.netty.connection.provider.pending.connections.time")
+				.tag("name", UpstreamHttpClients.POOL_NAME_PREFIX + "plain").timer()).isNotNull();
+	}
+
+	@Test
+	void releasesPoolsOfRoutesRemovedOnRefresh() throws InterruptedException {
+		HttpClient plain = upstreamHttpClients.forRoute("plain");
+		HttpClient removedClient = upstreamHttpClients.forRoute("removed");
+		String protocol = removedClient.get().uri("http://localhost:" + backend.port() + "/protocol")
+				.responseContent().aggregate().asString().block(Duration.ofSeconds(5));
+		assertThat(protocol).isEqualTo("HTTP/1.1");
+		ConnectionProvider removed = removedClient.configuration().connectionProvider();
+		assertThat(removed.isDisposed()).isFalse();
+		int reserved = upstreamHttpClients.reservedConnections();
+
+		eventPublisher.publishEvent(new RefreshRoutesResultEvent(this));
+
+		for (int i = 0; i < 50 && !removed.isDisposed(); i++) {
+			Thread.sleep(100);
+		}
+		assertThat(removed.isDisposed()).isTrue();
+		assertThat(upstreamHttpClients.reservedConnections()).isEqualTo(reserved - 500);
+		assertThat(upstreamHttpClients.forRoute("plain")).isSameAs(plain);
+		assertThat(upstreamHttpClients.forRoute("removed").configuration().connectionProvider()).isNotSameAs(removed);
+	}
+
+	@Test
+	void capsConnectionsAcrossAllRoutes() {
+		UpstreamClientProperties properties = new UpstreamClientProperties();
+		properties.setMaxTotalConnections(600);
+		UpstreamHttpClients clients = new UpstreamHttpClients(properties, httpClientProperties, serverProperties, sslConfigurer,
+				List.of(), routeLocator);
+		try {
+			assertThat(clients.forRoute("first").configuration().connectionProvider().maxConnections()).isEqualTo(500);
+			assertThat(clients.forRoute("second").configuration().connectionProvider().maxConnections()).isEqualTo(100);
+			assertThatThrownBy(() -> clients.forRoute("third"))
+					.isInstanceOfSatisfying(ResponseStatusException.class,
+							e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+			clients.retain(Set.of("second"));
+
+			assertThat(clients.forRoute("third").configuration().connectionProvider().maxConnections()).isEqualTo(500);
+			assertThat(clients.reservedConnections()).isEqualTo(600);
+		} finally {
+			clients.close();
+		}
+	}
+
+	private static double maxConnections(String routeId) {
+		Gauge gauge = Metrics.globalRegistry.find("reactor.netty.connection.provider.max.connections")
+				.tag("name", UpstreamHttpClients.POOL_NAME_PREFIX + routeId)
+				.gauge();
+		assertThat(gauge).as("pool metrics of route %s", routeId).isNotNull();
+		return gauge.value();
+	}
+}
@@ -0,0 +1,108 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.HedgingProperties;
+import com.acenexus.tata.gatewayservice.resilience.HedgeBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 其中一個實例變慢時，hedge 應讓請求由另一個實例回應；額外請求數受全域額度限制
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class HedgeGatewayFilterFactoryTest {
+
+	private static final DisposableServer fastInstance = stub(Duration.ofMillis(5), "fast");
+	private static final DisposableServer slowInstance = stub(Duration.ofSeconds(2), "slow");
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private static DisposableServer stub(Duration latency, String body) {
+		return HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/work", (request, response) ->
+						response.sendString(Mono.delay(latency).thenReturn(body))))
+				.bindNow();
+	}
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances.hedgeservice[0].uri", () -> "http://localhost:" + fastInstance.port());
+		registry.add("spring.cloud.discovery.client.simple.instances.hedgeservice[1].uri", () -> "http://localhost:" + slowInstance.port());
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "hedged");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "lb://hedgeservice");
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/hedged/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[0].filters[1]", () -> "Hedge=50ms");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/hedged/**");
+		registry.add("gateway.rate-limit.enabled", () -> "false");
+		registry.add("gateway.load-balancer.enabled", () -> "false"); // round robin，一半的請求會先送到慢的實例
+		registry.add("gateway.hedging.budget-burst", () -> "100");
+	}
+
+	@AfterAll
+	static void stopStubs() {
+		fastInstance.disposeNow();
+		slowInstance.disposeNow();
+	}
+
+	@Test
+	void slowInstanceIsHedgedToAnotherInstance() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+		for (int i = 0; i < 2; i++) { // 第一次請求需建立 LoadBalancer 子 context 與連線，不列入計時
+			client.get().uri("/api/hedged/work").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+		}
+
+		for (int i = 0; i < 10; i++) {
+			long start = System.nanoTime();
+			String body = client.get().uri("/api/hedged/work").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+			assertThat(body).isEqualTo("fast");
+			assertThat(elapsed).isLessThan(Duration.ofSeconds(1));
+		}
+
+		double sent = meterRegistry.get("gateway.hedge.sent").tag("route", "hedged").counter().count();
+		double won = meterRegistry.get("gateway.hedge.won").tag("route", "hedged").counter().count();
+		assertThat(sent).isGreaterThanOrEqualTo(1);
+		assertThat(won).isEqualTo(sent);
+	}
+
+	@Test
+	void budgetLimitsExtraRequestsToConfiguredRatio() {
+		HedgingProperties properties = new HedgingProperties();
+		properties.setBudgetRatio(0.05);
+		properties.setBudgetBurst(1);
+		HedgeBudget budget = new HedgeBudget(properties, new SimpleMeterRegistry());
+
+		assertThat(budget.tryAcquire()).isTrue(); // 初始額度
+		assertThat(budget.tryAcquire()).isFalse();
+
+		int acquired = 0;
+		for (int i = 0; i < 1_000; i++) {
+			budget.deposit();
+			if (budget.tryAcquire()) {
+				acquired++;
+			}
+		}
+		assertThat(acquired).isEqualTo(50);
+	}
+}
@@ -0,0 +1,185 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.config.IdentityProperties;
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.config.MetricsProperties;
+import com.acenexus.tata.gatewayservice.config.SecurityProperties;
+import com.acenexus.tata.gatewayservice.metrics.GatewayMetrics;
+import com.acenexus.tata.gatewayservice.provider.IdentityAssertionIssuer;
+import com.acenexus.tata.gatewayservice.provider.JwtKey;
+import com.acenexus.tata.gatewayservice.provider.JwtKeyRing;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipal;
+import com.acenexus.tata.gatewayservice.provider.JwtPrincipalCache;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import com.acenexus.tata.identity.IdentityAssertion;
+import com.acenexus.tata.identity.IdentitySigner;
+import com.acenexus.tata.identity.IdentityVerifier;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SecurityProperties securityProperties = new SecurityProperties();
+	private final JwtKeyRing keyRing = JwtKeyRing.of(JwtKey.hmac("test", Keys.secretKeyFor(SignatureAlgorithm.HS256)));
+	private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(keyRing);
+	private final AtomicInteger verifications = new AtomicInteger();
+	private final AuthRejectionLog rejectionLog = new AuthRejectionLog(securityProperties, meterRegistry);
+	private final byte[] identitySecret = "identity-secret-for-tests-only!!".getBytes(StandardCharsets.UTF_8);
+	private TokenRevocationList revocationList;
+	private JwtAuthFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		JwtProperties jwtProperties = new JwtProperties();
+		revocationList = new TokenRevocationList(jwtProperties, meterRegistry);
+		filter = new JwtAuthFilter();
+		ReflectionTestUtils.setField(filter, "jwtTokenProvider", jwtTokenProvider);
+		ReflectionTestUtils.setField(filter, "jwtPrincipalCache", new JwtPrincipalCache(jwtProperties, keyRing, meterRegistry) {
+			@Override
+			public JwtPrincipal get(String token, Function<String, JwtPrincipal> verifier) {
+				verifications.incrementAndGet();
+				return super.get(token, verifier);
+			}
+		});
+		ReflectionTestUtils.setField(filter, "tokenRevocationList", revocationList);
+		ReflectionTestUtils.setField(filter, "publicAccessRules", new PublicAccessRules(securityProperties, new MockEnvironment()));
+		ReflectionTestUtils.setField(filter, "gatewayMetrics", new GatewayMetrics(meterRegistry, new MetricsProperties()));
+		ReflectionTestUtils.setField(filter, "securityProperties", securityProperties);
+		ReflectionTestUtils.setField(filter, "authRejectionLog", rejectionLog);
+		IdentityProperties identityProperties = new IdentityProperties();
+		identityProperties.setSecret(Base64.getEncoder().encodeToString(identitySecret));
+		ReflectionTestUtils.setField(filter, "identityAssertionIssuer", new IdentityAssertionIssuer(identityProperties, jwtProperties, meterRegistry));
+	}
+
+	@Test
+	void rejectsMalformedTokensBeforeVerification() {
+		for (String token : new String[]{"abc", "a.b", "a..c", "a.b.c.d", ".b.c", "a.b.", "a.b.c d", "a.b.c\"", "x".repeat(5000) + ".b.c"}) {
+			MockServerWebExchange exchange = run("Bearer " + token);
+			assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+		}
+
+		assertThat(verifications).hasValue(0);
+		assertThat(rejectionLog.count(AuthRejection.MALFORMED_TOKEN)).isEqualTo(8);
+		assertThat(rejectionLog.count(AuthRejection.TOKEN_TOO_LARGE)).isEqualTo(1);
+	}
+
+	@Test
+	void writesPreEncodedBodyPerReason() {
+		MockServerWebExchange missing = run(null);
+		MockServerWebExchange invalid = run("Bearer a.b.c");
+
+		assertThat(missing.getResponse().getBodyAsString().block())
+				.isEqualTo("{\"error\":\"Unauthorized\",\"status\":401,\"reason\":\"missing_credentials\"}");
+		assertThat(missing.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE)).isEqualTo("Bearer");
+		assertThat(invalid.getResponse().getBodyAsString().block()).contains("\"reason\":\"malformed_token\"");
+		assertThat(invalid.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE)).isEqualTo("Bearer error=\"invalid_token\"");
+		assertThat(meterRegistry.get("gateway.auth.rejected").tag("reason", "missing_credentials").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void acceptsValidTokenAndRejectsItOnceRevoked() {
+		String token = jwtTokenProvider.generateAccessToken(1001L, "tata");
+		AtomicReference<String> forwardedUser = new AtomicReference<>();
+
+		MockServerWebExchange accepted = MockServerWebExchange.from(MockServerHttpRequest.get("/api/account/profile")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+		filter.filter(accepted, exchange -> {
+			forwardedUser.set(exchange.getRequest().getHeaders().getFirst("X-User-ID"));
+			return Mono.empty();
+		}).block();
+		assertThat(forwardedUser).hasValue("1001");
+
+		JwtPrincipal principal = jwtTokenProvider.verify(token);
+		revocationList.revoke(principal.tokenId(), principal.expiresAt());
+		assertThat(run("Bearer " + token).getResponse().getBodyAsString().block()).contains("\"reason\":\"token_revoked\"");
+	}
+
+	@Test
+	void forwardsSignedIdentityInPlaceOfClientSuppliedHeaders() {
+		String token = jwtTokenProvider.generateAccessToken(1001L, "tata");
+		String forged = new IdentitySigner(1, new byte[32]).sign("1", "admin", 4_000_000_000L);
+
+		HttpHeaders first = forward(MockServerHttpRequest.get("/api/account/profile")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.header("X-User-ID", "1")
+				.header(IdentityAssertion.HEADER, forged));
+		assertThat(first.get("X-User-ID")).containsExactly("1001");
+		assertThat(first.get(IdentityAssertion.HEADER)).hasSize(1).doesNotContain(forged);
+
+		IdentityAssertion identity = new IdentityVerifier(Map.of(1, identitySecret)).verify(first.getFirst(IdentityAssertion.HEADER));
+		assertThat(identity.subject()).isEqualTo("1001");
+		assertThat(identity.userName()).isEqualTo("tata");
+		assertThat(identity.expiresAt() * 1000).isLessThanOrEqualTo(jwtTokenProvider.verify(token).expiresAt());
+
+		// 同一個 Token 使用快取的標頭
+		HttpHeaders second = forward(MockServerHttpRequest.get("/api/account/profile")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+		assertThat(second.getFirst(IdentityAssertion.HEADER)).isEqualTo(first.getFirst(IdentityAssertion.HEADER));
+	}
+
+	@Test
+	void stripsClientSuppliedIdentityOnPublicPaths() {
+		securityProperties.getPublicPaths().add("/api/public/**");
+		ReflectionTestUtils.setField(filter, "publicAccessRules", new PublicAccessRules(securityProperties, new MockEnvironment()));
+
+		HttpHeaders forwarded = forward(MockServerHttpRequest.get("/api/public/items")
+				.header("X-User-ID", "1")
+				.header("x-user-name", "admin")
+				.header(IdentityAssertion.HEADER, "forged"));
+
+		assertThat(forwarded.containsKey("X-User-ID")).isFalse();
+		assertThat(forwarded.containsKey("X-User-Name")).isFalse();
+		assertThat(forwarded.containsKey(IdentityAssertion.HEADER)).isFalse();
+	}
+
+	@Test
+	void reportsAggregatedCountsOncePerInterval() {
+		run(null);
+		run(null);
+		run("Bearer a.b");
+
+		assertThat(rejectionLog.report()).isEqualTo("missing_credentials=2, malformed_token=1");
+		assertThat(rejectionLog.report()).isNull();
+	}
+
+	private HttpHeaders forward(MockServerHttpRequest.BaseBuilder<?> request) {
+		AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+		filter.filter(MockServerWebExchange.from(request), exchange -> {
+			forwarded.set(exchange.getRequest().getHeaders());
+			return Mono.empty();
+		}).block();
+		assertThat(forwarded.get()).isNotNull();
+		return forwarded.get();
+	}
+
+	private MockServerWebExchange run(String authorization) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/account/profile");
+		if (authorization != null) {
+			request.header(HttpHeaders.AUTHORIZATION, authorization);
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		filter.filter(exchange, e -> Mono.error(new AssertionError("should not be forwarded"))).block();
+		return exchange;
+	}
+}
@@ -0,0 +1,51 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PublicPathMatcherTest {
+
+	private final PublicPathMatcher matcher = PublicPathMatcher.compile(List.of(
+			"/api/gateway/v1/login",
+			"/api/gateway/v1/refresh/token",
+			"/api/linebot/webhook/**",
+			"/api/*/actuator/health"
+	));
+
+	@Test
+	void matchesExactPaths() {
+		assertThat(matcher.matches("/api/gateway/v1/login")).isTrue();
+		assertThat(matcher.matches("/api/gateway/v1/login/")).isTrue();
+		assertThat(matcher.matches("/api/gateway/v1/refresh/token")).isTrue();
+		assertThat(matcher.matches("/api/gateway/v1/log")).isFalse();
+		assertThat(matcher.matches("/api/gateway/v1/loginx")).isFalse();
+		assertThat(matcher.matches("/api/gateway/v1/login/other")).isFalse();
+		assertThat(matcher.matches("/api/gateway/v1/refresh")).isFalse();
+	}
+
+	@Test
+	void matchesWildcards() {
+		assertThat(matcher.matches("/api/linebot/webhook")).isTrue();
+		assertThat(matcher.matches("/api/linebot/webhook/line/events")).isTrue();
+		assertThat(matcher.matches("/api/linebot/webhooks")).isFalse();
+		assertThat(matcher.matches("/api/linebot/webhook/../../account/users")).isFalse();
+		assertThat(matcher.matches("/api/account/actuator/health")).isTrue();
+		assertThat(matcher.matches("/api//actuator/health")).isFalse();
+		assertThat(matcher.matches("/api/account/actuator/env")).isFalse();
+	}
+
+	@Test
+	void emptyRulesMatchNothing() {
+		assertThat(PublicPathMatcher.compile(List.of()).matches("/api/gateway/v1/login")).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidPatterns() {
+		assertThatThrownBy(() -> PublicPathMatcher.compile(List.of("/api/**/health"))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> PublicPathMatcher.compile(List.of("/api/line*"))).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,186 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 回應快取：命中、條件式請求、Cache-Control、已驗證請求與併發未命中合併
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseCacheGatewayFilterFactoryTest {
+
+	private static final AtomicInteger catalogCalls = new AtomicInteger();
+	private static final AtomicInteger slowCalls = new AtomicInteger();
+	private static final AtomicInteger noStoreCalls = new AtomicInteger();
+	private static final AtomicInteger profileCalls = new AtomicInteger();
+	private static final AtomicInteger announcementCalls = new AtomicInteger();
+
+	private static final DisposableServer backend = HttpServer.create()
+			.port(0)
+			.route(routes -> routes
+					.get("/catalog", (request, response) -> {
+						catalogCalls.incrementAndGet();
+						return response.header("Cache-Control", "max-age=300")
+								.sendString(Mono.just("catalog:" + request.requestHeaders().get("X-Tenant")));
+					})
+					.get("/slow", (request, response) -> {
+						slowCalls.incrementAndGet();
+						return response.sendString(Mono.delay(Duration.ofMillis(300)).thenReturn("slow"));
+					})
+					.get("/no-store", (request, response) -> {
+						noStoreCalls.incrementAndGet();
+						return response.header("Cache-Control", "no-store").sendString(Mono.just("fresh"));
+					})
+					.get("/profile", (request, response) -> {
+						profileCalls.incrementAndGet();
+						return response.header("Cache-Control", "max-age=300")
+								.sendString(Mono.just("profile:" + request.requestHeaders().get("X-User-ID")));
+					})
+					.get("/announcement", (request, response) -> {
+						announcementCalls.incrementAndGet();
+						return response.header("Cache-Control", "public, max-age=300").sendString(Mono.just("announcement"));
+					}))
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "cached");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/cached/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[0].filters[1].name", () -> "ResponseCache");
+		registry.add("spring.cloud.gateway.routes[0].filters[1].args.time-to-live", () -> "60s");
+		registry.add("spring.cloud.gateway.routes[0].filters[1].args.max-bytes", () -> "1MB");
+		registry.add("spring.cloud.gateway.routes[0].filters[1].args.key-headers[0]", () -> "X-Tenant");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/cached/**");
+		// 需要 JWT、key 不含 X-User-ID 的路由
+		registry.add("spring.cloud.gateway.routes[1].id", () -> "members");
+		registry.add("spring.cloud.gateway.routes[1].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[1].predicates[0]", () -> "Path=/api/members/**");
+		registry.add("spring.cloud.gateway.routes[1].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[1].filters[1]", () -> "ResponseCache=60s,1MB");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		backend.disposeNow();
+	}
+
+	@Test
+	void servesRepeatedGetFromCacheAndAnswersConditionalRequests() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		ResponseEntity<String> first = get(client, "/api/cached/catalog?page=1", "a", null);
+		ResponseEntity<String> second = get(client, "/api/cached/catalog?page=1", "a", null);
+
+		assertThat(first.getBody()).isEqualTo("catalog:a");
+		assertThat(first.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(second.getBody()).isEqualTo("catalog:a");
+		assertThat(second.getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+		assertThat(second.getHeaders().getETag()).isNotNull();
+		assertThat(second.getHeaders().getFirst(HttpHeaders.AGE)).isNotNull();
+		assertThat(catalogCalls.get()).isEqualTo(1);
+
+		ResponseEntity<String> notModified = get(client, "/api/cached/catalog?page=1", "a", second.getHeaders().getETag());
+		assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(notModified.getBody()).isNull();
+
+		// 不同 query 與不同 key header 各自獨立
+		assertThat(get(client, "/api/cached/catalog?page=2", "a", null).getBody()).isEqualTo("catalog:a");
+		assertThat(get(client, "/api/cached/catalog?page=1", "b", null).getBody()).isEqualTo("catalog:b");
+		assertThat(catalogCalls.get()).isEqualTo(3);
+	}
+
+	@Test
+	void doesNotStoreNoStoreResponses() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		get(client, "/api/cached/no-store", "a", null);
+		ResponseEntity<String> second = get(client, "/api/cached/no-store", "a", null);
+
+		assertThat(second.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(noStoreCalls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doesNotShareAuthorizedResponsesBetweenUsers() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+		String alice = "Bearer " + jwtTokenProvider.generateAccessToken(1001L, "alice");
+		String bob = "Bearer " + jwtTokenProvider.generateAccessToken(1002L, "bob");
+
+		ResponseEntity<String> first = getAuthorized(client, "/api/members/profile", alice);
+		ResponseEntity<String> second = getAuthorized(client, "/api/members/profile", bob);
+
+		assertThat(first.getBody()).isEqualTo("profile:1001");
+		assertThat(second.getBody()).isEqualTo("profile:1002");
+		assertThat(second.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(profileCalls.get()).isEqualTo(2);
+
+		// 明確標示 public 的回應可共用
+		getAuthorized(client, "/api/members/announcement", alice);
+		ResponseEntity<String> shared = getAuthorized(client, "/api/members/announcement", bob);
+		assertThat(shared.getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+		assertThat(announcementCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void coalescesConcurrentMisses() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		List<String> bodies = Flux.range(0, 16)
+				.flatMap(i -> client.get().uri("/api/cached/slow").retrieve().bodyToMono(String.class), 16)
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(bodies).hasSize(16).allMatch("slow"::equals);
+		assertThat(slowCalls.get()).isEqualTo(1);
+	}
+
+	private static ResponseEntity<String> getAuthorized(WebClient client, String uri, String authorization) {
+		return client.get().uri(uri)
+				.header(HttpHeaders.AUTHORIZATION, authorization)
+				.retrieve()
+				.toEntity(String.class)
+				.block(Duration.ofSeconds(5));
+	}
+
+	private static ResponseEntity<String> get(WebClient client, String uri, String tenant, String ifNoneMatch) {
+		return client.get().uri(uri)
+				.header("X-Tenant", tenant)
+				.headers(headers -> {
+					if (ifNoneMatch != null) {
+						headers.setIfNoneMatch(ifNoneMatch);
+					}
+				})
+				.retrieve()
+				.onStatus(status -> status.value() == 304, response -> Mono.empty())
+				.toEntity(String.class)
+				.block(Duration.ofSeconds(5));
+	}
+}
@@ -0,0 +1,185 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 回應壓縮：依 Accept-Encoding 串流壓縮，與回應快取搭配時儲存壓縮後的內容
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseCompressionGatewayFilterFactoryTest {
+
+	private static final String REPORT = IntStream.range(0, 400)
+			.mapToObj(i -> "{\"id\":" + i + ",\"name\":\"item-" + i + "\",\"status\":\"ACTIVE\"}")
+			.collect(Collectors.joining(",", "[", "]"));
+	private static final AtomicInteger reportCalls = new AtomicInteger();
+
+	private static final DisposableServer backend = HttpServer.create()
+			.port(0)
+			.route(routes -> routes
+					.get("/report", (request, response) -> {
+						reportCalls.incrementAndGet();
+						// 分成多段且不帶 Content-Length
+						return response.header("Content-Type", "application/json")
+								.header("Cache-Control", "max-age=300")
+								.sendString(Flux.fromArray(REPORT.split("(?<=\\})")));
+					})
+					.get("/small", (request, response) -> response.header("Content-Type", "application/json")
+							.sendString(Mono.just("{\"ok\":true}")))
+					.get("/image", (request, response) -> response.header("Content-Type", "image/png")
+							.sendString(Mono.just(REPORT))))
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "compressed");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/compressed/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[0].filters[1]", () -> "ResponseCompression=1KB");
+		registry.add("spring.cloud.gateway.routes[0].filters[2]", () -> "ResponseCache=60s,1MB");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/compressed/**");
+		registry.add("gateway.rate-limit.enabled", () -> "false");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		backend.disposeNow();
+	}
+
+	@Test
+	void compressesNegotiatedResponsesAndCachesThemPerEncoding() {
+		WebClient client = rawClient();
+
+		ResponseEntity<byte[]> first = get(client, "/api/compressed/report", "br, gzip;q=0.8");
+		assertThat(first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(first.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(first.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(gunzip(first.getBody())).isEqualTo(REPORT);
+		assertThat(first.getBody().length).isLessThan(REPORT.length() / 4);
+
+		// 第二次直接送出快取的壓縮內容，不再轉送也不重新壓縮
+		ResponseEntity<byte[]> second = get(client, "/api/compressed/report", "gzip");
+		assertThat(second.getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+		assertThat(second.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(second.getBody()).isEqualTo(first.getBody());
+		assertThat(reportCalls).hasValue(1);
+
+		// 不接受 gzip 的客戶端使用另一筆快取
+		ResponseEntity<byte[]> identity = get(client, "/api/compressed/report", "gzip;q=0, identity");
+		assertThat(identity.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(identity.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(new String(identity.getBody(), StandardCharsets.UTF_8)).isEqualTo(REPORT);
+		assertThat(reportCalls).hasValue(2);
+	}
+
+	@Test
+	void leavesSmallAndNonTextResponsesUncompressed() {
+		WebClient client = rawClient();
+
+		ResponseEntity<byte[]> small = get(client, "/api/compressed/small", "gzip");
+		assertThat(small.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(new String(small.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"ok\":true}");
+
+		ResponseEntity<byte[]> image = get(client, "/api/compressed/image", "gzip");
+		assertThat(image.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(image.getBody()).hasSize(REPORT.length());
+	}
+
+	@Test
+	void negotiatesGzipFromAcceptEncoding() {
+		assertThat(ContentCoding.negotiate(null)).isEqualTo(ContentCoding.IDENTITY);
+		assertThat(ContentCoding.negotiate(List.of("gzip, deflate, br"))).isEqualTo(ContentCoding.GZIP);
+		assertThat(ContentCoding.negotiate(List.of("br;q=1.0, GZIP;q=0.5"))).isEqualTo(ContentCoding.GZIP);
+		assertThat(ContentCoding.negotiate(List.of("*"))).isEqualTo(ContentCoding.GZIP);
+		assertThat(ContentCoding.negotiate(List.of("*, gzip;q=0"))).isEqualTo(ContentCoding.IDENTITY);
+		assertThat(ContentCoding.negotiate(List.of("br", "deflate"))).isEqualTo(ContentCoding.IDENTITY);
+	}
+
+	@Test
+	void encoderProducesValidGzipAcrossChunksAndReusesDeflaters() {
+		DeflaterPool pool = new DeflaterPool(2);
+		DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+		for (int round = 0; round < 3; round++) {
+			GzipEncoder encoder = new GzipEncoder(pool, 6);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			byte[] source = REPORT.getBytes(StandardCharsets.UTF_8);
+			for (int offset = 0; offset < source.length; offset += 1000) {
+				DataBuffer chunk = factory.wrap(ByteBuffer.wrap(source, offset, Math.min(1000, source.length - offset)));
+				append(compressed, encoder.encode(chunk, factory));
+			}
+			append(compressed, encoder.finish(factory));
+
+			assertThat(gunzip(compressed.toByteArray())).isEqualTo(REPORT);
+			assertThat(encoder.inputBytes()).isEqualTo(source.length);
+			assertThat(encoder.outputBytes()).isEqualTo(compressed.size());
+			assertThat(pool.idleCount()).isEqualTo(1);
+		}
+		pool.close();
+	}
+
+	/**
+	 * 不自動解壓縮的客戶端，才能檢查原始的壓縮內容
+	 */
+	private WebClient rawClient() {
+		return WebClient.builder()
+				.baseUrl("http://localhost:" + port)
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+				.build();
+	}
+
+	private static ResponseEntity<byte[]> get(WebClient client, String uri, String acceptEncoding) {
+		return client.get().uri(uri)
+				.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+				.retrieve()
+				.toEntity(byte[].class)
+				.block(Duration.ofSeconds(5));
+	}
+
+	private static void append(ByteArrayOutputStream target, DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		target.writeBytes(bytes);
+	}
+
+	private static String gunzip(byte[] compressed) {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package com.acenexus.tata.gatewayservice.filter;
+
+import com.acenexus.tata.gatewayservice.resilience.BodyMemoryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 串流 body：大小上限（依 Content-Length 或串流計數）與 direct memory 預算
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StreamingBodyGatewayFilterFactoryTest {
+
+	private static final int CHUNK = 16 * 1024;
+	private static final AtomicInteger uploadCalls = new AtomicInteger();
+	private static final AtomicLong uploadedBytes = new AtomicLong();
+	private static volatile Sinks.Empty<Void> holdUpload = Sinks.empty();
+
+	private static final DisposableServer backend = HttpServer.create()
+			.port(0)
+			.route(routes -> routes
+					.post("/upload", (request, response) -> {
+						uploadCalls.incrementAndGet();
+						return response.sendString(request.receive()
+								.map(buffer -> uploadedBytes.addAndGet(buffer.readableBytes()))
+								.then(Mono.just("received")));
+					})
+					.post("/slow", (request, response) -> response.sendString(request.receive().map(buffer -> buffer.readableBytes()).then()
+							.then(holdUpload.asMono())
+							.then(Mono.just("done"))))
+					.get("/declared", (request, response) -> response.header("Content-Length", String.valueOf(8 * CHUNK))
+							.sendByteArray(Mono.just(new byte[8 * CHUNK])))
+					.get("/chunked", (request, response) -> response.sendByteArray(
+							Flux.range(0, 8).map(i -> new byte[CHUNK]))))
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private BodyMemoryBudget budget;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "files");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/files/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[0].filters[1]", () -> "StreamingBody=64KB,64KB");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/files/**");
+		registry.add("gateway.rate-limit.enabled", () -> "false");
+		registry.add("gateway.warmup.enabled", () -> "false");
+		// 預算只容得下一個大型 exchange
+		registry.add("gateway.streaming.budget", () -> "48KB");
+		registry.add("gateway.streaming.window", () -> "32KB");
+		registry.add("gateway.streaming.large-body-threshold", () -> "32KB");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		holdUpload.tryEmitEmpty();
+		backend.disposeNow();
+	}
+
+	@Test
+	void rejectsDeclaredOversizedUploadWithoutForwarding() {
+		int before = uploadCalls.get();
+
+		Result result = post("/api/files/upload", new byte[5 * CHUNK]);
+
+		assertThat(result.status()).isEqualTo(413);
+		assertThat(result.body()).contains("Payload Too Large");
+		assertThat(uploadCalls).hasValue(before);
+	}
+
+	@Test
+	void abortsChunkedUploadOnceStreamedBytesExceedLimit() {
+		uploadedBytes.set(0);
+		Result result = postChunked("/api/files/upload", Flux.range(0, 8).map(i -> new byte[CHUNK]));
+
+		assertThat(result.status()).isEqualTo(413);
+		assertThat(uploadedBytes.get()).isLessThanOrEqualTo(64 * 1024);
+		assertThat(meterRegistry.get("gateway.streaming.rejected").tag("route", "files").tag("reason", "too_large")
+				.counter().count()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void streamsUploadsWithinLimitAndReturnsBudget() {
+		Result small = post("/api/files/upload", "hello".getBytes(StandardCharsets.UTF_8));
+		assertThat(small.status()).isEqualTo(200);
+		assertThat(small.body()).isEqualTo("received");
+
+		Result large = postChunked("/api/files/upload", Flux.range(0, 3).map(i -> new byte[CHUNK]));
+		assertThat(large.status()).isEqualTo(200);
+		awaitReleased();
+		assertThat(meterRegistry.get("gateway.streaming.reserved").tag("route", "files").gauge().value()).isZero();
+	}
+
+	@Test
+	void rejectsLargeUploadWhileBudgetIsInUse() {
+		holdUpload = Sinks.empty();
+		WebClient client = WebClient.create("http://localhost:" + port);
+		Mono<Result> held = exchange(client, "/api/files/slow", Flux.range(0, 2).map(i -> new byte[CHUNK]), -1).cache();
+		held.subscribe();
+		try {
+			awaitReserved(32 * 1024);
+
+			Result rejected = post("/api/files/upload", new byte[3 * CHUNK]);
+			assertThat(rejected.status()).isEqualTo(503);
+			assertThat(rejected.retryAfter()).isEqualTo("1");
+
+			// 小型請求不需要預算
+			assertThat(post("/api/files/upload", new byte[CHUNK]).status()).isEqualTo(200);
+		} finally {
+			holdUpload.tryEmitEmpty();
+		}
+		assertThat(held.block(Duration.ofSeconds(5)).status()).isEqualTo(200);
+		awaitReleased();
+	}
+
+	@Test
+	void reservedGaugeFollowsRouteAcrossRefresh() {
+		eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+		holdUpload = Sinks.empty();
+		WebClient client = WebClient.create("http://localhost:" + port);
+		Mono<Result> held = exchange(client, "/api/files/slow", Flux.range(0, 2).map(i -> new byte[CHUNK]), -1).cache();
+		held.subscribe();
+		try {
+			awaitReserved(32 * 1024);
+			assertThat(meterRegistry.get("gateway.streaming.reserved").tag("route", "files").gauge().value()).isEqualTo(32 * 1024);
+		} finally {
+			holdUpload.tryEmitEmpty();
+		}
+		assertThat(held.block(Duration.ofSeconds(5)).status()).isEqualTo(200);
+		awaitReleased();
+		assertThat(meterRegistry.get("gateway.streaming.reserved").tag("route", "files").gauge().value()).isZero();
+	}
+
+	@Test
+	void failsResponsesExceedingLimit() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		Integer declared = client.get().uri("/api/files/declared")
+				.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+				.block(Duration.ofSeconds(5));
+		assertThat(declared).isEqualTo(502);
+
+		// 已開始送出的回應只能中斷，客戶端收到的內容不超過上限
+		AtomicLong received = new AtomicLong();
+		client.get().uri("/api/files/chunked")
+				.retrieve()
+				.bodyToFlux(DataBuffer.class)
+				.doOnNext(buffer -> received.addAndGet(buffer.readableByteCount()))
+				.onErrorResume(e -> Flux.empty())
+				.blockLast(Duration.ofSeconds(5));
+		assertThat(received.get()).isLessThanOrEqualTo(64 * 1024);
+		awaitReleased();
+	}
+
+	private void awaitReserved(long bytes) {
+		await(() -> budget.reserved() >= bytes);
+		assertThat(budget.reserved()).isGreaterThanOrEqualTo(bytes);
+	}
+
+	/**
+	 * 客戶端收到回應時閘道端的 doFinally 可能尚未執行
+	 */
+	private void awaitReleased() {
+		await(() -> budget.reserved() == 0);
+		assertThat(budget.reserved()).isZero();
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * 一次送出並帶 Content-Length
+	 */
+	private Result post(String path, byte[] body) {
+		return exchange(WebClient.create("http://localhost:" + port), path, Flux.just(body), body.length).block(Duration.ofSeconds(5));
+	}
+
+	/**
+	 * 分段送出，不帶 Content-Length
+	 */
+	private Result postChunked(String path, Flux<byte[]> body) {
+		return exchange(WebClient.create("http://localhost:" + port), path, body, -1).block(Duration.ofSeconds(5));
+	}
+
+	private static Mono<Result> exchange(WebClient client, String path, Flux<byte[]> body, long contentLength) {
+		Flux<DataBuffer> buffers = body.map(DefaultDataBufferFactory.sharedInstance::wrap);
+		WebClient.RequestBodySpec request = client.post().uri(path).contentType(MediaType.APPLICATION_OCTET_STREAM);
+		if (contentLength >= 0) {
+			request = request.contentLength(contentLength);
+		}
+		return request.body(BodyInserters.fromDataBuffers(buffers))
+				.exchangeToMono(response -> response.bodyToMono(String.class)
+						.defaultIfEmpty("")
+						.map(text -> new Result(response.statusCode().value(), text,
+								response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER))));
+	}
+
+	private record Result(int status, String body, String retryAfter) {
+	}
+}
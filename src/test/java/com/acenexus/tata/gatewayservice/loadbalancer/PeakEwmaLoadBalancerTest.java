@@ -0,0 +1,111 @@
+package com.acenexus.tata.gatewayservice.loadbalancer;
+
+import com.acenexus.tata.gatewayservice.config.LoadBalancingProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 實例變慢時流量應轉移到較快的實例，新實例在 slow start 期間只分到少量流量
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PeakEwmaLoadBalancerTest {
+
+	private static final AtomicInteger fastCalls = new AtomicInteger();
+	private static final AtomicInteger slowCalls = new AtomicInteger();
+
+	private static final DisposableServer fastInstance = stub(Duration.ofMillis(2), fastCalls);
+	private static final DisposableServer slowInstance = stub(Duration.ofMillis(120), slowCalls);
+
+	@LocalServerPort
+	private int port;
+
+	private static DisposableServer stub(Duration latency, AtomicInteger calls) {
+		return HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/work", (request, response) -> {
+					calls.incrementAndGet();
+					return response.sendString(Mono.delay(latency).thenReturn("ok"));
+				}))
+				.bindNow();
+	}
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances.stubservice[0].uri", () -> "http://localhost:" + fastInstance.port());
+		registry.add("spring.cloud.discovery.client.simple.instances.stubservice[1].uri", () -> "http://localhost:" + slowInstance.port());
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "stub");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "lb://stubservice");
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/stub/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/stub/**");
+		registry.add("gateway.rate-limit.enabled", () -> "false");
+	}
+
+	@AfterAll
+	static void stopStubs() {
+		fastInstance.disposeNow();
+		slowInstance.disposeNow();
+	}
+
+	@Test
+	void shiftsTrafficAwayFromSlowInstance() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		List<String> bodies = Flux.range(0, 200)
+				.flatMap(i -> client.get().uri("/api/stub/work").retrieve().bodyToMono(String.class), 4)
+				.collectList()
+				.block(Duration.ofSeconds(60));
+
+		assertThat(bodies).hasSize(200).allMatch("ok"::equals);
+		// round robin 會各分到一半
+		assertThat(fastCalls.get()).isGreaterThan(slowCalls.get() * 4);
+	}
+
+	@Test
+	void newInstanceGetsLittleTrafficDuringSlowStart() throws InterruptedException {
+		LoadBalancingProperties properties = new LoadBalancingProperties();
+		properties.setSlowStart(Duration.ofMillis(200));
+		InstanceStatsRegistry registry = new InstanceStatsRegistry(properties);
+		PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(null, "svc", registry);
+		ServiceInstance established = new DefaultServiceInstance("a", "svc", "10.0.0.1", 80, false);
+		ServiceInstance added = new DefaultServiceInstance("b", "svc", "10.0.0.2", 80, false);
+
+		InstanceStats establishedStats = registry.get(established);
+		Thread.sleep(250); // 既有實例已過 slow start
+		establishedStats.record(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(10));
+		registry.get(added); // 新實例剛出現，權重為 slow-start-min-weight
+
+		assertThat(chosen(loadBalancer, established, added)).isZero();
+
+		Thread.sleep(250);
+		assertThat(chosen(loadBalancer, established, added)).isBetween(20, 80); // 權重恢復後成本相同，各半
+	}
+
+	private static int chosen(PeakEwmaLoadBalancer loadBalancer, ServiceInstance established, ServiceInstance added) {
+		int toAdded = 0;
+		for (int i = 0; i < 100; i++) {
+			if (loadBalancer.choose(List.of(established, added)).getServer() == added) {
+				toAdded++;
+			}
+		}
+		return toAdded;
+	}
+}
@@ -0,0 +1,159 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException.Reason;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+	@Test
+	void tokensIssuedByOneNodeVerifyOnAnother() {
+		JwtProperties properties = properties(hmacKey("2026-10", null, null));
+		JwtTokenProvider nodeA = provider(properties);
+		JwtTokenProvider nodeB = provider(properties);
+
+		String token = nodeA.generateAccessToken(1001L, "tata");
+
+		assertThat(nodeB.verify(token).subject()).isEqualTo("1001");
+		assertThat(nodeB.extractAllClaims(token).getSubject()).isEqualTo("1001");
+	}
+
+	@Test
+	void switchesSigningKeyAtSigningFromAndKeepsAcceptingOldTokens() {
+		JwtProperties.Key oldKey = hmacKey("old", null, null);
+		JwtProperties.Key newKey = hmacKey("new", Instant.now().plus(Duration.ofDays(1)), null);
+		JwtTokenProvider beforeRotation = provider(properties(oldKey, newKey));
+		String oldToken = beforeRotation.generateAccessToken(1001L, "tata");
+
+		newKey.setSigningFrom(Instant.now().minusSeconds(1));
+		JwtKeyRing rotated = keyRing(properties(oldKey, newKey));
+		JwtTokenProvider afterRotation = new JwtTokenProvider(rotated);
+
+		assertThat(rotated.signingKey().id()).isEqualTo("new");
+		assertThat(afterRotation.verify(oldToken).subject()).isEqualTo("1001");
+		assertThat(beforeRotation.verify(afterRotation.generateAccessToken(1002L, "tata")).subject()).isEqualTo("1002");
+	}
+
+	@Test
+	void rejectsRetiredAndUnknownKeys() {
+		JwtProperties.Key retiring = hmacKey("retiring", null, null);
+		JwtProperties.Key current = hmacKey("current", Instant.now().minusSeconds(60), null);
+		String oldToken = provider(properties(retiring)).generateAccessToken(1001L, "tata");
+
+		retiring.setVerifyUntil(Instant.now().minusSeconds(1));
+		JwtTokenProvider retired = provider(properties(retiring, current));
+		JwtTokenProvider unrelated = provider(properties(hmacKey("other", null, null)));
+
+		assertReason(retired, oldToken, Reason.UNKNOWN_KEY);
+		assertReason(unrelated, oldToken, Reason.UNKNOWN_KEY);
+	}
+
+	@Test
+	void verifiesAsymmetricKeysWithPublicKeyOnly() throws Exception {
+		KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+		ec.initialize(new ECGenParameterSpec("secp256r1"));
+		KeyPairGenerator rsa = KeyPairGenerator.getInstance("RSA");
+		rsa.initialize(2048);
+
+		for (var entry : List.of(Map.entry("ES256", ec.generateKeyPair()), Map.entry("RS256", rsa.generateKeyPair()))) {
+			String algorithm = entry.getKey();
+			KeyPair keyPair = entry.getValue();
+			JwtProperties.Key signing = asymmetricKey(algorithm, keyPair, true);
+			JwtProperties.Key verifyOnly = asymmetricKey(algorithm, keyPair, false);
+
+			String token = provider(properties(signing)).generateRefreshToken(1001L, "tata");
+			JwtTokenProvider verifier = provider(properties(verifyOnly));
+
+			assertThat(verifier.verify(token).isRefreshToken()).isTrue();
+			assertThat(verifier.extractAllClaims(token).get("userName")).isEqualTo("tata");
+			assertThat(verifier.validateToken(token.substring(0, token.length() - 4) + "AAAA")).isFalse();
+			assertThatThrownBy(() -> verifier.generateAccessToken(1001L, "tata")).isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	void rejectsDuplicateIdsAndShortSecrets() {
+		JwtProperties.Key shortSecret = hmacKey("short", null, null);
+		shortSecret.setSecret(Base64.getEncoder().encodeToString(new byte[16]));
+
+		assertThatThrownBy(() -> keyRing(properties(hmacKey("a", null, null), hmacKey("a", null, null))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> keyRing(properties(shortSecret))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void requiresConfiguredKeysOutsideLocalProfile() {
+		MockEnvironment local = new MockEnvironment();
+		local.setActiveProfiles("local");
+
+		assertThatThrownBy(() -> keyRing(new JwtProperties())).isInstanceOf(IllegalArgumentException.class);
+		assertThat(new JwtKeyRing(new JwtProperties(), local, new DefaultResourceLoader()).signingKey().id()).startsWith("ephemeral-");
+	}
+
+	private static void assertReason(JwtTokenProvider provider, String token, Reason reason) {
+		assertThatThrownBy(() -> provider.verify(token))
+				.isInstanceOfSatisfying(JwtVerificationException.class, e -> assertThat(e.getReason()).isEqualTo(reason));
+	}
+
+	private static JwtTokenProvider provider(JwtProperties properties) {
+		return new JwtTokenProvider(keyRing(properties));
+	}
+
+	private static JwtKeyRing keyRing(JwtProperties properties) {
+		return new JwtKeyRing(properties, new MockEnvironment(), new DefaultResourceLoader());
+	}
+
+	private static JwtProperties properties(JwtProperties.Key... keys) {
+		JwtProperties properties = new JwtProperties();
+		properties.setKeys(List.of(keys));
+		return properties;
+	}
+
+	private static JwtProperties.Key hmacKey(String id, Instant signingFrom, Instant verifyUntil) {
+		JwtProperties.Key key = new JwtProperties.Key();
+		key.setId(id);
+		key.setAlgorithm("HS256");
+		key.setSecret(randomSecret());
+		key.setSigningFrom(signingFrom);
+		key.setVerifyUntil(verifyUntil);
+		return key;
+	}
+
+	private static String randomSecret() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return Base64.getEncoder().encodeToString(secret);
+	}
+
+	private static JwtProperties.Key asymmetricKey(String algorithm, KeyPair keyPair, boolean withPrivateKey) {
+		JwtProperties.Key key = new JwtProperties.Key();
+		key.setId(algorithm.toLowerCase() + "-1");
+		key.setAlgorithm(algorithm);
+		key.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+		if (withPrivateKey) {
+			key.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+		}
+		return key;
+	}
+
+	private static String pem(String type, byte[] der) {
+		return "-----BEGIN " + type + "-----\n"
+				+ Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+				+ "\n-----END " + type + "-----\n";
+	}
+}
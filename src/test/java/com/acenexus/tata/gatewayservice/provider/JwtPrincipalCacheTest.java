@@ -0,0 +1,112 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException.Reason;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtPrincipalCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final JwtKeyRing keyRing = JwtKeyRing.of(JwtKey.hmac("current", Keys.secretKeyFor(SignatureAlgorithm.HS256)));
+	private final JwtPrincipalCache cache = new JwtPrincipalCache(new JwtProperties(), keyRing, meterRegistry);
+
+	@Test
+	void verifiesTokenOnlyOnceWhileCached() {
+		AtomicInteger verifications = new AtomicInteger();
+		JwtPrincipal principal = new JwtPrincipal("1001", "tata", null, System.currentTimeMillis() + 60_000);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(cache.get("token", token -> {
+				verifications.incrementAndGet();
+				return principal;
+			})).isEqualTo(principal);
+		}
+
+		assertThat(verifications).hasValue(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.principal").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void doesNotCacheRejectedTokens() {
+		AtomicInteger verifications = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> cache.get("bad", token -> {
+				verifications.incrementAndGet();
+				throw new JwtException("invalid");
+			})).isInstanceOf(JwtException.class);
+		}
+
+		assertThat(verifications).hasValue(2);
+		assertThat(cache.estimatedSize()).isZero();
+	}
+
+	@Test
+	void neverServesExpiredPrincipal() {
+		JwtPrincipal expired = new JwtPrincipal("1001", "tata", null, System.currentTimeMillis() - 1);
+		cache.get("token", token -> expired);
+
+		assertThatThrownBy(() -> cache.get("token", token -> {
+			throw new JwtException("expired");
+		})).isInstanceOf(JwtException.class);
+	}
+
+	@Test
+	void reverifiesPrincipalsSignedByKeysNoLongerInTheRing() {
+		AtomicInteger verifications = new AtomicInteger();
+		JwtPrincipal retired = new JwtPrincipal("1001", "tata", null, System.currentTimeMillis() + 60_000, null, "retired");
+
+		for (int i = 0; i < 2; i++) {
+			cache.get("token", token -> {
+				verifications.incrementAndGet();
+				return retired;
+			});
+		}
+
+		assertThat(verifications).hasValue(4); // 每次都在取出後發現金鑰已移除，改為重新驗證
+		assertThat(cache.estimatedSize()).isZero();
+	}
+
+	@Test
+	void rejectsCachedTokensOnceTheirKeyIsRemovedOnReload() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("gateway.jwt.keys[0].id", "old")
+				.withProperty("gateway.jwt.keys[0].secret", randomSecret());
+		JwtKeyRing reloadable = new JwtKeyRing(Binder.get(environment).bindOrCreate(JwtProperties.PREFIX, JwtProperties.class),
+				environment, new DefaultResourceLoader());
+		JwtTokenProvider provider = new JwtTokenProvider(reloadable);
+		JwtPrincipalCache reloadableCache = new JwtPrincipalCache(new JwtProperties(), reloadable, meterRegistry);
+		String token = provider.generateAccessToken(1001L, "tata");
+		assertThat(reloadableCache.get(token, provider::verify).keyId()).isEqualTo("old");
+
+		environment.setProperty("gateway.jwt.keys[0].id", "new");
+		environment.setProperty("gateway.jwt.keys[0].secret", randomSecret());
+		reloadable.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("gateway.jwt.keys[0].id")));
+
+		assertThat(reloadableCache.estimatedSize()).isZero();
+		assertThatThrownBy(() -> reloadableCache.get(token, provider::verify))
+				.isInstanceOfSatisfying(JwtVerificationException.class, e -> assertThat(e.getReason()).isEqualTo(Reason.UNKNOWN_KEY));
+	}
+
+	private static String randomSecret() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return Base64.getEncoder().encodeToString(secret);
+	}
+}
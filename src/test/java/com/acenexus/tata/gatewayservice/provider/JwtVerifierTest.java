@@ -0,0 +1,91 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.provider.JwtVerificationException.Reason;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtVerifierTest {
+
+	private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+	private final JwtVerifier verifier = new JwtVerifier(key);
+
+	@Test
+	void extractsClaimsFromJjwtToken() {
+		long exp = (System.currentTimeMillis() / 1000 + 60) * 1000;
+		String token = Jwts.builder()
+				.setClaims(Map.of("userName", "測試 \"user\"", "type", "refresh", "roles", Map.of("a", new int[]{1, 2})))
+				.setSubject("1001")
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(exp))
+				.signWith(key, SignatureAlgorithm.HS256)
+				.compact();
+
+		JwtPrincipal principal = verifier.verify(token);
+
+		assertThat(principal).isEqualTo(new JwtPrincipal("1001", "測試 \"user\"", "refresh", exp, null, "default"));
+		assertThat(verifier.verify(token)).isEqualTo(principal);
+	}
+
+	@Test
+	void rejectsTamperedSignatureAndPayload() {
+		String token = token(key, 60_000);
+		String[] parts = token.split("\\.");
+		String otherPayload = token(key, 120_000).split("\\.")[1];
+
+		assertReason(parts[0] + "." + otherPayload + "." + parts[2], Reason.INVALID_SIGNATURE);
+		assertReason(token(Keys.secretKeyFor(SignatureAlgorithm.HS256), 60_000), Reason.INVALID_SIGNATURE);
+	}
+
+	@Test
+	void rejectsExpiredToken() {
+		assertReason(token(key, -1_000), Reason.EXPIRED);
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertReason("", Reason.MALFORMED);
+		assertReason("abc", Reason.MALFORMED);
+		assertReason("a.b", Reason.MALFORMED);
+		assertReason("a.b.c.d", Reason.MALFORMED);
+		assertReason("eyJhbGciOiJIUzI1NiJ9..sig", Reason.MALFORMED);
+		assertReason("!!!.e30.sig", Reason.MALFORMED);
+	}
+
+	@Test
+	void rejectsOtherAlgorithms() {
+		// {"alg":"none"}
+		assertReason("eyJhbGciOiJub25lIn0.eyJzdWIiOiIxIn0.c2ln", Reason.UNSUPPORTED_ALGORITHM);
+	}
+
+	@Test
+	void sharedExceptionsIgnoreSuppressedExceptions() {
+		JwtVerificationException shared = JwtVerificationException.of(Reason.EXPIRED);
+		shared.addSuppressed(new IllegalStateException("composite"));
+
+		assertThat(shared.getSuppressed()).isEmpty();
+		assertThat(shared.getStackTrace()).isEmpty();
+	}
+
+	private void assertReason(String token, Reason reason) {
+		assertThatThrownBy(() -> verifier.verify(token))
+				.isInstanceOfSatisfying(JwtVerificationException.class, e -> assertThat(e.getReason()).isEqualTo(reason));
+	}
+
+	private static String token(Key key, long ttlMillis) {
+		return Jwts.builder()
+				.setClaims(Map.of("userName", "tata"))
+				.setSubject("1001")
+				.setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+				.signWith(key, SignatureAlgorithm.HS256)
+				.compact();
+	}
+}
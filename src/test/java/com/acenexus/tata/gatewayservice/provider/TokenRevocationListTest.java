@@ -0,0 +1,125 @@
+package com.acenexus.tata.gatewayservice.provider;
+
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void revokesUntilTokenExpiration() {
+		TokenRevocationList list = new TokenRevocationList(new JwtProperties(), meterRegistry);
+		long now = System.currentTimeMillis();
+
+		assertThat(list.revoke("jti-1", now + 60_000)).isTrue();
+		assertThat(list.revoke("jti-1", now + 60_000)).isFalse();
+		assertThat(list.revoke("jti-2", now - 1)).isTrue();
+
+		assertThat(list.isRevoked("jti-1")).isTrue();
+		assertThat(list.isRevoked("jti-2")).isFalse();
+		assertThat(list.isRevoked("other")).isFalse();
+		assertThat(list.isRevoked(null)).isFalse();
+		assertThat(meterRegistry.get("gateway.token.revocation.entries").gauge().value()).isEqualTo(1);
+		assertThat(meterRegistry.get("gateway.token.revocation.memory").gauge().value()).isPositive();
+	}
+
+	@Test
+	void purgeRemovesExpiredEntriesAndKeepsTheRest() throws InterruptedException {
+		TokenRevocationList list = new TokenRevocationList(new JwtProperties(), meterRegistry);
+		long now = System.currentTimeMillis();
+		list.revoke("short", now + 20);
+		list.revoke("long", now + 60_000);
+
+		Thread.sleep(50);
+		list.purge();
+
+		assertThat(list.size()).isEqualTo(1);
+		assertThat(list.isRevoked("short")).isFalse();
+		assertThat(list.isRevoked("long")).isTrue();
+	}
+
+	@Test
+	void bloomFilterNeverHidesRevokedTokens() {
+		JwtProperties properties = new JwtProperties();
+		properties.getRevocation().setExpectedEntries(1_000); // 超出預估容量，誤判變多但不可漏判
+		TokenRevocationList list = new TokenRevocationList(properties, meterRegistry);
+		long expiresAt = System.currentTimeMillis() + 60_000;
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			String id = UUID.randomUUID().toString();
+			ids.add(id);
+			list.revoke(id, expiresAt);
+		}
+
+		assertThat(ids).allMatch(list::isRevoked);
+	}
+
+	@Test
+	void retainsEntriesNoLongerThanTheRefreshTokenLifetime(@TempDir Path directory) throws Exception {
+		TokenRevocationList list = new TokenRevocationList(new JwtProperties(), meterRegistry);
+		long now = System.currentTimeMillis();
+		list.revoke("far-future", Long.MAX_VALUE);
+
+		Path snapshot = directory.resolve("revocations.tsv");
+		list.save(snapshot);
+		long retainUntil = Long.parseLong(Files.readString(snapshot).trim().split("\t")[1]);
+
+		assertThat(list.isRevoked("far-future")).isTrue();
+		assertThat(retainUntil).isBetween(now, System.currentTimeMillis() + JwtTokenProvider.REFRESH_TOKEN_EXPIRATION);
+	}
+
+	@Test
+	void evictsSoonestExpiringEntriesOnceMaxEntriesIsReached() {
+		JwtProperties properties = new JwtProperties();
+		properties.getRevocation().setMaxEntries(3);
+		TokenRevocationList list = new TokenRevocationList(properties, meterRegistry);
+		long now = System.currentTimeMillis();
+		list.revoke("soon", now + 60_000);
+		list.revoke("later", now + 120_000);
+		list.revoke("latest", now + 180_000);
+
+		assertThat(list.revoke("new", now + 90_000)).isTrue(); // 清單已滿也一定記錄新的撤銷
+		assertThat(list.revoke("later", now + 120_000)).isFalse(); // 仍可偵測重複使用
+		assertThat(list.size()).isEqualTo(3);
+		assertThat(list.isRevoked("soon")).isFalse();
+		assertThat(list.isRevoked("new")).isTrue();
+		assertThat(list.isRevoked("latest")).isTrue();
+		assertThat(meterRegistry.get("gateway.token.revocation.evicted").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void snapshotSurvivesRestart(@TempDir Path directory) throws Exception {
+		Path snapshot = directory.resolve("revocations.tsv");
+		JwtProperties properties = new JwtProperties();
+		properties.getRevocation().setSnapshotFile(snapshot.toString());
+		long now = System.currentTimeMillis();
+
+		TokenRevocationList before = new TokenRevocationList(properties, meterRegistry);
+		before.start();
+		before.revoke("kept", now + 60_000);
+		before.stop();
+
+		Files.writeString(snapshot, "expired\t" + (now - 1) + "\nbroken line\n", java.nio.file.StandardOpenOption.APPEND);
+
+		TokenRevocationList after = new TokenRevocationList(properties, new SimpleMeterRegistry());
+		after.start();
+		try {
+			assertThat(after.isRevoked("kept")).isTrue();
+			assertThat(after.isRevoked("expired")).isFalse();
+			assertThat(after.size()).isEqualTo(1);
+		} finally {
+			after.stop();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.acenexus.tata.gatewayservice.ratelimit;
+
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 以 IP 限流的 key：客戶端自帶的 X-Forwarded-For 不可改變結果
+ */
+class ClientAddressResolverTest {
+
+	private static final InetSocketAddress REMOTE = new InetSocketAddress("10.0.0.5", 43210);
+
+	@Test
+	void ignoresForwardedForWithoutTrustedProxies() {
+		ClientAddressResolver resolver = resolver(0);
+
+		assertThat(resolver.resolve(request("198.51.100.1"))).isEqualTo("10.0.0.5");
+		assertThat(resolver.resolve(request("198.51.100.2"))).isEqualTo("10.0.0.5");
+		assertThat(resolver.resolve(request(null))).isEqualTo("10.0.0.5");
+	}
+
+	@Test
+	void usesAddressAppendedByOutermostTrustedProxy() {
+		ClientAddressResolver oneProxy = resolver(1);
+		ClientAddressResolver twoProxies = resolver(2);
+
+		// 客戶端偽造最左邊的值，受信任代理附加實際來源
+		assertThat(oneProxy.resolve(request("1.1.1.1, 203.0.113.7"))).isEqualTo("203.0.113.7");
+		assertThat(oneProxy.resolve(request("2.2.2.2, 203.0.113.7"))).isEqualTo("203.0.113.7");
+		assertThat(twoProxies.resolve(request("1.1.1.1,203.0.113.7, 10.1.0.2"))).isEqualTo("203.0.113.7");
+		assertThat(twoProxies.resolve(request("203.0.113.7"))).isEqualTo("203.0.113.7");
+	}
+
+	@Test
+	void treatsRepeatedHeadersAsOneListAndFallsBackToRemoteAddress() {
+		ClientAddressResolver resolver = resolver(1);
+		MockServerHttpRequest repeated = MockServerHttpRequest.get("/login")
+				.remoteAddress(REMOTE)
+				.header("X-Forwarded-For", "1.1.1.1")
+				.header("X-Forwarded-For", "203.0.113.7")
+				.build();
+
+		assertThat(resolver.resolve(repeated)).isEqualTo("203.0.113.7");
+		assertThat(resolver.resolve(request(null))).isEqualTo("10.0.0.5");
+		assertThat(resolver.resolve(request("1.1.1.1, "))).isEqualTo("10.0.0.5");
+	}
+
+	private static ClientAddressResolver resolver(int trustedProxies) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setTrustedProxies(trustedProxies);
+		return new ClientAddressResolver(properties);
+	}
+
+	private static MockServerHttpRequest request(String forwardedFor) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/login").remoteAddress(REMOTE);
+		if (forwardedFor != null) {
+			request.header("X-Forwarded-For", forwardedFor);
+		}
+		return request.build();
+	}
+}
@@ -0,0 +1,50 @@
+package com.acenexus.tata.gatewayservice.ratelimit;
+
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties;
+import com.acenexus.tata.gatewayservice.ratelimit.RateLimiterRegistry.RouteRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterRegistryTest {
+
+	@Test
+	void allowsBurstThenRejectsWithRetryAfter() {
+		RouteRateLimiter limiter = registry(1, 3).forRoute("account");
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquireForUser("1001")).isZero();
+		}
+		long waitNanos = limiter.tryAcquireForUser("1001");
+
+		assertThat(waitNanos).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+		assertThat(limiter.tryAcquireForUser("1002")).isZero();
+		assertThat(limiter.tryAcquireForIp("1001")).isZero();
+	}
+
+	@Test
+	void routesWithoutLimitAreUnlimited() {
+		RateLimitProperties properties = new RateLimitProperties();
+		RouteRateLimiter limiter = new RateLimiterRegistry(properties, new SimpleMeterRegistry()).forRoute("account");
+
+		for (int i = 0; i < 1_000; i++) {
+			assertThat(limiter.tryAcquireForIp("10.0.0.1")).isZero();
+		}
+	}
+
+	private static RateLimiterRegistry registry(double replenishRate, int burstCapacity) {
+		return new RateLimiterRegistry(properties(replenishRate, burstCapacity), new SimpleMeterRegistry());
+	}
+
+	private static RateLimitProperties properties(double replenishRate, int burstCapacity) {
+		RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+		limit.setReplenishRate(replenishRate);
+		limit.setBurstCapacity(burstCapacity);
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setDefaultLimit(limit);
+		return properties;
+	}
+}
@@ -0,0 +1,85 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.StreamingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 串流 body 預算：拒絕、依序排隊、逾時與取消後不遺失已保留的額度
+ */
+class BodyMemoryBudgetTest {
+
+	@Test
+	void rejectsWhenExhaustedByDefault() {
+		BodyMemoryBudget budget = budget(StreamingProperties.Exhausted.REJECT, Duration.ofSeconds(1));
+
+		assertThat(budget.acquire(60).block()).isTrue();
+		assertThat(budget.acquire(60).block()).isFalse();
+		assertThat(budget.acquire(101).block()).isFalse();
+
+		budget.release(60);
+		assertThat(budget.acquire(60).block()).isTrue();
+	}
+
+	@Test
+	void queuedRequestsAreGrantedInOrderOnRelease() {
+		BodyMemoryBudget budget = budget(StreamingProperties.Exhausted.QUEUE, Duration.ofSeconds(5));
+		assertThat(budget.acquire(80).block()).isTrue();
+
+		AtomicReference<Boolean> first = new AtomicReference<>();
+		AtomicReference<Boolean> second = new AtomicReference<>();
+		budget.acquire(50).subscribe(first::set);
+		// 放得下也不能插隊
+		budget.acquire(10).subscribe(second::set);
+		assertThat(first.get()).isNull();
+		assertThat(second.get()).isNull();
+
+		budget.release(80);
+		assertThat(first.get()).isTrue();
+		assertThat(second.get()).isTrue();
+		assertThat(budget.reserved()).isEqualTo(60);
+	}
+
+	@Test
+	void timedOutOrCancelledWaitersGiveUpTheirPlace() {
+		BodyMemoryBudget budget = budget(StreamingProperties.Exhausted.QUEUE, Duration.ofMillis(50));
+		budget.forceReserve(100);
+
+		assertThat(budget.acquire(50).block(Duration.ofSeconds(1))).isFalse();
+		budget.acquire(50).subscribe().dispose();
+
+		budget.release(100);
+		assertThat(budget.reserved()).isZero();
+		assertThat(budget.acquire(100).block(Duration.ofSeconds(1))).isTrue();
+	}
+
+	@Test
+	void forcedReservationsDelayNewRequests() {
+		BodyMemoryBudget budget = budget(StreamingProperties.Exhausted.QUEUE, Duration.ofSeconds(5));
+		budget.forceReserve(150);
+
+		Mono<Boolean> waiting = budget.acquire(20).cache();
+		AtomicReference<Boolean> granted = new AtomicReference<>();
+		waiting.subscribe(granted::set);
+
+		budget.release(50);
+		assertThat(granted.get()).isNull();
+		budget.release(50);
+		assertThat(granted.get()).isTrue();
+	}
+
+	private static BodyMemoryBudget budget(StreamingProperties.Exhausted onExhausted, Duration queueTimeout) {
+		StreamingProperties properties = new StreamingProperties();
+		properties.setBudget(DataSize.ofBytes(100));
+		properties.setOnExhausted(onExhausted);
+		properties.setQueueTimeout(queueTimeout);
+		return new BodyMemoryBudget(properties, new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,83 @@
+package com.acenexus.tata.gatewayservice.resilience;
+
+import com.acenexus.tata.gatewayservice.config.UpstreamProtectionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamProtectionTest {
+
+	@Test
+	void concurrencyLimitShrinksWhenUpstreamSlowsDown() {
+		UpstreamProtectionProperties.Concurrency config = new UpstreamProtectionProperties.Concurrency();
+		config.setInitialLimit(100);
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(config);
+
+		// 穩定在 10ms 的後端
+		saturate(limit, TimeUnit.MILLISECONDS.toNanos(10), 2_000);
+		int healthyLimit = limit.getLimit();
+
+		// 後端 RTT 突然升到 200ms，上限應立即下降
+		saturate(limit, TimeUnit.MILLISECONDS.toNanos(200), 1);
+
+		assertThat(limit.getLimit()).isLessThan(healthyLimit).isGreaterThanOrEqualTo(config.getMinLimit());
+	}
+
+	@Test
+	void rejectsWhenLimitReached() {
+		UpstreamProtectionProperties.Concurrency config = new UpstreamProtectionProperties.Concurrency();
+		config.setInitialLimit(5);
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(config);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+		}
+		assertThat(limit.tryAcquire()).isFalse();
+		limit.release(0);
+		assertThat(limit.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void circuitOpensOnFailuresAndClosesAfterSuccessfulProbes() throws InterruptedException {
+		UpstreamProtectionProperties.CircuitBreaker config = new UpstreamProtectionProperties.CircuitBreaker();
+		config.setWindowSize(10);
+		config.setMinimumCalls(10);
+		config.setHalfOpenCalls(2);
+		config.setOpenDuration(Duration.ofMillis(50));
+		CircuitBreaker breaker = new CircuitBreaker(config);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(breaker.tryAcquire()).isTrue();
+			if (i % 2 == 0) {
+				breaker.onFailure();
+			} else {
+				breaker.onSuccess();
+			}
+		}
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+
+		Thread.sleep(60);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isFalse();
+		breaker.onSuccess();
+		breaker.onSuccess();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	private static void saturate(GradientConcurrencyLimit limit, long rttNanos, int samples) {
+		for (int i = 0; i < samples; i++) {
+			int acquired = 0;
+			while (limit.tryAcquire()) {
+				acquired++;
+			}
+			for (int j = 0; j < acquired; j++) {
+				limit.release(rttNanos);
+			}
+		}
+	}
+}
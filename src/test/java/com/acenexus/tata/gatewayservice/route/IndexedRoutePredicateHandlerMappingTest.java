@@ -0,0 +1,105 @@
+package com.acenexus.tata.gatewayservice.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 索引查詢的結果必須與逐一比對所有路由相同
+ */
+class IndexedRoutePredicateHandlerMappingTest {
+
+	private static final List<String> PATHS = List.of(
+			"/api/account/v1/user", "/api/account", "/api/accounting/x", "/api/linebot/webhook/1",
+			"/api/linebot/actuator/health", "/api/orders/1/items", "/api/svc7/ping", "/api/svc7",
+			"/static/app.js", "/api/unknown/x", "/", "/api/account/", "/api/acc%6Funt/v1", "/api/account;v=1/x");
+
+	@Test
+	void returnsSameRouteAsLinearLookup() {
+		List<Route> routes = new ArrayList<>();
+		List<String> definitionIds = new ArrayList<>();
+		// Java DSL 以 or() 組合：Path 不成立時仍可能由 Host 成立，不能建立索引
+		routes.add(Route.async().id("dsl-or").uri("http://dsl")
+				.asyncPredicate(path("/internal/**").or(host("internal.example.com"))).build());
+		addDefinitionRoute(routes, definitionIds, "linebot-health", path("/api/linebot/actuator/**"));
+		addDefinitionRoute(routes, definitionIds, "linebot", path("/api/linebot/**"));
+		addDefinitionRoute(routes, definitionIds, "account", path("/api/account/**", "/api/accounts/**"));
+		addDefinitionRoute(routes, definitionIds, "orders", path("/api/{service}/1/**").and(path("/api/orders/**")));
+		addDefinitionRoute(routes, definitionIds, "not-static", path("/static/**").negate());
+		for (int i = 0; i < 20; i++) {
+			addDefinitionRoute(routes, definitionIds, "svc" + i, path("/api/svc" + i + "/**"));
+		}
+		addDefinitionRoute(routes, definitionIds, "host-only", host("**.example.com"));
+
+		IndexedRoutePredicateHandlerMapping indexed = mapping(routes, definitionIds);
+		indexed.rebuildIndex().block();
+		IndexedRoutePredicateHandlerMapping linear = mapping(routes, definitionIds); // 未建立索引，使用預設的逐一比對
+
+		for (String path : PATHS) {
+			for (String host : List.of("localhost", "internal.example.com")) {
+				assertThat(routeId(indexed, path, host))
+						.as("%s on %s", path, host)
+						.isEqualTo(routeId(linear, path, host));
+			}
+		}
+		assertThat(routeId(indexed, "/api/linebot/actuator/health", "localhost")).isEqualTo("linebot-health");
+		assertThat(routeId(indexed, "/api/accounting/x", "localhost")).isEqualTo("not-static");
+		assertThat(routeId(indexed, "/internal/x", "localhost")).isEqualTo("dsl-or");
+	}
+
+	@Test
+	void literalPrefixStopsAtFirstPatternSegment() {
+		assertThat(RouteIndex.literalPrefix("/api/account/**")).containsExactly("api", "account");
+		assertThat(RouteIndex.literalPrefix("/api/{service}/x")).containsExactly("api");
+		assertThat(RouteIndex.literalPrefix("/api/acc*/x")).containsExactly("api");
+		assertThat(RouteIndex.literalPrefix("/**")).isEmpty();
+		assertThat(RouteIndex.literalPrefix("api/x")).isEmpty();
+	}
+
+	private static void addDefinitionRoute(List<Route> routes, List<String> definitionIds, String id,
+										   AsyncPredicate<ServerWebExchange> predicate) {
+		routes.add(Route.async().id(id).uri("http://" + id).asyncPredicate(predicate).build());
+		definitionIds.add(id);
+	}
+
+	static AsyncPredicate<ServerWebExchange> path(String... patterns) {
+		PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config().setPatterns(List.of(patterns));
+		return new PathRoutePredicateFactory().applyAsync(config);
+	}
+
+	private static AsyncPredicate<ServerWebExchange> host(String pattern) {
+		return new HostRoutePredicateFactory().applyAsync(new HostRoutePredicateFactory.Config().setPatterns(List.of(pattern)));
+	}
+
+	static IndexedRoutePredicateHandlerMapping mapping(List<Route> routes, List<String> definitionIds) {
+		return new IndexedRoutePredicateHandlerMapping(new FilteringWebHandler(List.of(), false),
+				() -> Flux.fromIterable(routes),
+				() -> Flux.fromIterable(definitionIds).map(id -> {
+					RouteDefinition definition = new RouteDefinition();
+					definition.setId(id);
+					return definition;
+				}),
+				new GlobalCorsProperties(), new StandardEnvironment());
+	}
+
+	private static String routeId(IndexedRoutePredicateHandlerMapping mapping, String path, String host) {
+		ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).header("Host", host));
+		return mapping.lookupRoute(exchange).map(Route::getId).switchIfEmpty(Mono.just("none")).block();
+	}
+}
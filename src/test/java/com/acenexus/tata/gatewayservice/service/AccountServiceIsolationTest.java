@@ -0,0 +1,93 @@
+package com.acenexus.tata.gatewayservice.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * accountservice 變慢時，登入請求不可拖慢其他路由
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountServiceIsolationTest {
+
+	private static final Duration LOGIN_DELAY = Duration.ofMillis(1500);
+
+	private static final DisposableServer slowAccountService = HttpServer.create()
+			.port(0)
+			.route(routes -> routes.post("/v1/user/login", (request, response) -> response
+					.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+					.sendString(Mono.delay(LOGIN_DELAY).thenReturn("{\"id\":1001,\"name\":\"tata\"}"))))
+			.bindNow();
+
+	private static final DisposableServer otherService = HttpServer.create()
+			.port(0)
+			.route(routes -> routes.get("/hello", (request, response) -> response.sendString(Mono.just("hello"))))
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances.accountservice[0].uri", () -> "http://localhost:" + slowAccountService.port());
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "other");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + otherService.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/other/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/other/**");
+	}
+
+	@AfterAll
+	static void stopStubs() {
+		slowAccountService.disposeNow();
+		otherService.disposeNow();
+	}
+
+	@Test
+	void slowLoginDoesNotDelayOtherRoutes() {
+		WebClient client = WebClient.create("http://localhost:" + port);
+
+		// 先暖機，避免第一次建立連線與類別載入的時間影響量測
+		assertThat(client.get().uri("/api/other/hello").retrieve().bodyToMono(String.class).block()).isEqualTo("hello");
+
+		Mono<List<HttpStatusCode>> logins = Flux.range(0, 32)
+				.flatMap(i -> client.post().uri("/v1/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.bodyValue(Map.of("account", "user" + i, "password", "secret"))
+						.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())), 32)
+				.collectList()
+				.cache();
+		logins.subscribe();
+
+		Mono<List<Long>> otherLatencies = Mono.delay(Duration.ofMillis(200))
+				.thenMany(Flux.range(0, 20))
+				.concatMap(i -> {
+					long start = System.nanoTime();
+					return client.get().uri("/api/other/hello").retrieve().bodyToMono(String.class)
+							.map(body -> Duration.ofNanos(System.nanoTime() - start).toMillis());
+				})
+				.collectList();
+
+		List<Long> latencies = otherLatencies.block(Duration.ofSeconds(10));
+		List<HttpStatusCode> loginStatuses = logins.block(Duration.ofSeconds(10));
+
+		assertThat(loginStatuses).hasSize(32).allMatch(HttpStatusCode::is2xxSuccessful);
+		assertThat(latencies).hasSize(20).allMatch(latency -> latency < LOGIN_DELAY.toMillis() / 3);
+	}
+}
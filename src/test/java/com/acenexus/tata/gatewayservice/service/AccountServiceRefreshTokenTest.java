@@ -0,0 +1,95 @@
+package com.acenexus.tata.gatewayservice.service;
+
+import com.acenexus.tata.gatewayservice.config.AccountClientProperties;
+import com.acenexus.tata.gatewayservice.config.JwtProperties;
+import com.acenexus.tata.gatewayservice.config.RateLimitProperties;
+import com.acenexus.tata.gatewayservice.dto.RefreshTokenResponse;
+import com.acenexus.tata.gatewayservice.provider.JwtKey;
+import com.acenexus.tata.gatewayservice.provider.JwtKeyRing;
+import com.acenexus.tata.gatewayservice.provider.JwtTokenProvider;
+import com.acenexus.tata.gatewayservice.provider.TokenRevocationList;
+import com.acenexus.tata.gatewayservice.ratelimit.RateLimiterRegistry;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh Token 輪替：每個 Refresh Token 只能換發一次
+ */
+class AccountServiceRefreshTokenTest {
+
+	private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(
+			JwtKeyRing.of(JwtKey.hmac("test", Keys.secretKeyFor(SignatureAlgorithm.HS256))));
+	private final TokenRevocationList tokenRevocationList = new TokenRevocationList(new JwtProperties(), new SimpleMeterRegistry());
+	private final RateLimitProperties rateLimitProperties = new RateLimitProperties();
+	private final AccountService accountService = new AccountService(null, jwtTokenProvider, new AccountClientProperties(), tokenRevocationList,
+			new RateLimiterRegistry(rateLimitProperties, new SimpleMeterRegistry()));
+
+	@Test
+	void rotatesRefreshTokenAndRejectsReuse() {
+		String refreshToken = jwtTokenProvider.generateRefreshToken(1001L, "tata");
+
+		ResponseEntity<RefreshTokenResponse> first = accountService.refreshToken(refreshToken).block();
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		String rotated = first.getBody().getRefreshToken();
+		assertThat(rotated).isNotEqualTo(refreshToken);
+		assertThat(tokenRevocationList.isRevoked(jwtTokenProvider.verify(refreshToken).tokenId())).isTrue();
+
+		assertThat(accountService.refreshToken(refreshToken).block().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+		assertThat(accountService.refreshToken(rotated).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void limitsRefreshesPerUser() {
+		RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+		limit.setReplenishRate(0.01);
+		limit.setBurstCapacity(2);
+		rateLimitProperties.getRoutes().put(AccountService.REFRESH_TOKEN_LIMITER, limit);
+
+		String token = jwtTokenProvider.generateRefreshToken(1001L, "tata");
+		for (int i = 0; i < 2; i++) {
+			ResponseEntity<RefreshTokenResponse> response = accountService.refreshToken(token).block();
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			token = response.getBody().getRefreshToken();
+		}
+		ResponseEntity<RefreshTokenResponse> limited = accountService.refreshToken(token).block();
+
+		assertThat(limited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(limited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotBlank();
+		assertThat(tokenRevocationList.isRevoked(jwtTokenProvider.verify(token).tokenId())).isFalse(); // 被限流的 Token 仍可稍後使用
+		assertThat(accountService.refreshToken(jwtTokenProvider.generateRefreshToken(1002L, "other")).block().getStatusCode())
+				.isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void keepsRotatingWhenRevocationListIsFull() {
+		JwtProperties jwtProperties = new JwtProperties();
+		jwtProperties.getRevocation().setMaxEntries(2);
+		TokenRevocationList smallList = new TokenRevocationList(jwtProperties, new SimpleMeterRegistry());
+		AccountService service = new AccountService(null, jwtTokenProvider, new AccountClientProperties(), smallList,
+				new RateLimiterRegistry(rateLimitProperties, new SimpleMeterRegistry()));
+
+		String token = jwtTokenProvider.generateRefreshToken(1001L, "tata");
+		for (int i = 0; i < 5; i++) {
+			ResponseEntity<RefreshTokenResponse> response = service.refreshToken(token).block();
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			token = response.getBody().getRefreshToken();
+		}
+		assertThat(smallList.size()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void accessTokensCarryDistinctTokenIds() {
+		String first = jwtTokenProvider.generateAccessToken(1001L, "tata");
+		String second = jwtTokenProvider.generateAccessToken(1001L, "tata");
+
+		assertThat(jwtTokenProvider.verify(first).tokenId()).isNotBlank()
+				.isNotEqualTo(jwtTokenProvider.verify(second).tokenId());
+	}
+}
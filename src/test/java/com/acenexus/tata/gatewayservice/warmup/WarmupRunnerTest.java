@@ -0,0 +1,149 @@
+package com.acenexus.tata.gatewayservice.warmup;
+
+import com.acenexus.tata.gatewayservice.filter.WarmupFilter;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 啟動暖機：暖機請求經過閘道但不轉送至後端，期間 readiness 維持 REFUSING_TRAFFIC
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WarmupRunnerTest {
+
+	private static final AtomicInteger backendCalls = new AtomicInteger();
+	private static final Set<ReadinessState> readinessDuringWarmup = ConcurrentHashMap.newKeySet();
+	private static final AtomicInteger warmupRequests = new AtomicInteger();
+
+	private static final DisposableServer backend = HttpServer.create()
+			.port(0)
+			.handle((request, response) -> {
+				backendCalls.incrementAndGet();
+				return response.sendString(Mono.just("ok"));
+			})
+			.bindNow();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ApplicationAvailability applicationAvailability;
+
+	@Autowired
+	private WarmupRegistrationStatus registrationStatus;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.gateway.routes[0].id", () -> "orders");
+		registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+		registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/orders/{id}/**");
+		registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=2");
+		registry.add("spring.cloud.gateway.routes[0].filters[1]", () -> "ResponseCache=60s,1MB");
+		registry.add("gateway.security.public-paths[0]", () -> "/api/public/**");
+		registry.add("gateway.warmup.iterations", () -> "200");
+	}
+
+	@TestConfiguration
+	static class ReadinessProbe {
+
+		@Bean
+		GlobalFilter readinessRecorder(ApplicationAvailability availability) {
+			return new ReadinessRecorder(availability);
+		}
+	}
+
+	/**
+	 * 排在 WarmupFilter 之前，記錄暖機請求抵達時的 readiness
+	 */
+	private record ReadinessRecorder(ApplicationAvailability availability) implements GlobalFilter, Ordered {
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			if (exchange.getRequest().getHeaders().containsKey(WarmupFilter.WARMUP_HEADER)) {
+				warmupRequests.incrementAndGet();
+				readinessDuringWarmup.add(availability.getReadinessState());
+			}
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE + 1;
+		}
+	}
+
+	@AfterAll
+	static void stopStub() {
+		backend.disposeNow();
+	}
+
+	@Test
+	void warmsUpThroughGatewayBeforeAcceptingTraffic() {
+		assertThat(warmupRequests).hasValue(200);
+		assertThat(readinessDuringWarmup).containsExactly(ReadinessState.REFUSING_TRAFFIC);
+		assertThat(backendCalls).hasValue(0);
+		assertThat(meterRegistry.get("gateway.warmup").timer().count()).isEqualTo(1);
+
+		assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+		assertThat(registrationStatus.isWarmedUp()).isTrue();
+
+		// 暖機結束後密鑰作廢，帶同一個標頭的請求照常轉送，也沒有留下暖機回應的快取
+		Integer status = WebClient.create("http://localhost:" + port).get()
+				.uri("/api/orders/1/items")
+				.header(WarmupFilter.WARMUP_HEADER, "guess")
+				.header("Authorization", "Bearer invalid")
+				.exchangeToMono(response -> Mono.just(response.statusCode().value()))
+				.block(Duration.ofSeconds(5));
+		assertThat(status).isEqualTo(401);
+		assertThat(backendCalls).hasValue(0);
+	}
+
+	@Test
+	void reportsStartingToEurekaUntilWarmedUp() {
+		WarmupRegistrationStatus status = new WarmupRegistrationStatus(
+				new StaticListableBeanFactory().getBeanProvider(ApplicationInfoManager.class));
+		assertThat(status.getStatus(InstanceStatus.UP)).isEqualTo(InstanceStatus.STARTING);
+
+		status.markWarmedUp();
+		assertThat(status.getStatus(InstanceStatus.STARTING)).isEqualTo(InstanceStatus.UP);
+		assertThat(status.getStatus(InstanceStatus.OUT_OF_SERVICE)).isEqualTo(InstanceStatus.OUT_OF_SERVICE);
+	}
+
+	@Test
+	void derivesRequestPathsFromRoutePatterns() {
+		assertThat(WarmupRunner.samplePath("/api/account/**")).isEqualTo("/api/account/warmup");
+		assertThat(WarmupRunner.samplePath("/api/orders/{id}/**")).isEqualTo("/api/orders/warmup/warmup");
+		assertThat(WarmupRunner.samplePath("/**")).isEqualTo("/warmup");
+		assertThat(WarmupRunner.samplePath("/health")).isEqualTo("/health");
+	}
+}